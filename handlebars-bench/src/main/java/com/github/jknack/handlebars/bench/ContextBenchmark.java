@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jknack.handlebars.Context;
+
+/**
+ * <code>Context.get</code> path resolution: simple, nested, parent, index and data lookups.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextBenchmark {
+
+  /**
+   * Root context.
+   */
+  private Context root;
+
+  /**
+   * A child context (an item of the page).
+   */
+  private Context child;
+
+  /**
+   * Prepare the benchmark.
+   */
+  @Setup
+  public void setup() {
+    Model.Page page = Model.page(10);
+    root = Context.newContext(page);
+    child = Context.newBuilder(root, page.items.get(3))
+        .combine("@index", 3)
+        .build();
+  }
+
+  /**
+   * Release the contexts.
+   */
+  @TearDown
+  public void tearDown() {
+    child.destroy();
+    root.destroy();
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object simple() {
+    return root.get("title");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object nested() {
+    return root.get("user.address.city");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object index() {
+    return root.get("items.[3].name");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object thisRef() {
+    return child.get("this");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object parentScope() {
+    return child.get("title");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object parentPath() {
+    return child.get("../user.name");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object data() {
+    return child.get("@index");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object missing() {
+    return child.get("missing.value");
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jknack.handlebars.EscapingStrategy;
+
+/**
+ * HTML escaping of plain and markup heavy text.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscapingBenchmark {
+
+  /**
+   * Text to escape.
+   */
+  @Param({"Plain text without special characters, just words and spaces.",
+      "<a href=\"/items?id=1&sort=desc\">Item & 'Co.'</a> <b>`bold`</b> = <i>italic</i>" })
+  String text;
+
+  /**
+   * @return The escaped text.
+   */
+  @Benchmark
+  public CharSequence html() {
+    return EscapingStrategy.HTML_ENTITY.escape(text);
+  }
+}
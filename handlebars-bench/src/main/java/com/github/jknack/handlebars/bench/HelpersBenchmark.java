@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.bench;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
+
+/**
+ * Built-in helpers and partials over a page with 10 items.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelpersBenchmark {
+
+  /**
+   * Helper templates.
+   */
+  private static final Map<String, String> TEMPLATES = new HashMap<String, String>();
+
+  static {
+    TEMPLATES.put("each", "{{#each items}}{{name}}{{/each}}");
+    TEMPLATES.put("eachData", "{{#each items}}{{@index}}{{#if @first}}f{{/if}}{{/each}}");
+    TEMPLATES.put("section", "{{#items}}{{name}}{{/items}}");
+    TEMPLATES.put("if", "{{#if title}}yes{{else}}no{{/if}}");
+    TEMPLATES.put("unless", "{{#unless title}}no{{else}}yes{{/unless}}");
+    TEMPLATES.put("with", "{{#with user}}{{name}}{{/with}}");
+    TEMPLATES.put("lookup", "{{lookup user \"name\"}}");
+    TEMPLATES.put("partial", "{{#each items}}{{> bench/item}}{{/each}}");
+    TEMPLATES.put("block", "{{#partial \"p\"}}{{title}}{{/partial}}{{#block \"p\"}}{{/block}}");
+  }
+
+  /**
+   * Helper under test.
+   */
+  @Param({"each", "eachData", "section", "if", "unless", "with", "lookup", "partial", "block" })
+  String helper;
+
+  /**
+   * The template.
+   */
+  private Template template;
+
+  /**
+   * The model.
+   */
+  private Object model;
+
+  /**
+   * Prepare the benchmark.
+   *
+   * @throws IOException If the template can't be compiled.
+   */
+  @Setup
+  public void setup() throws IOException {
+    template = new Handlebars(Templates.loader()).compileInline(TEMPLATES.get(helper));
+    model = Model.page(10);
+  }
+
+  /**
+   * @return The template's output.
+   * @throws IOException If the template can't be applied.
+   */
+  @Benchmark
+  public String apply() throws IOException {
+    return template.apply(model);
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.bench;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.Options;
+import com.github.jknack.handlebars.Template;
+
+/**
+ * Overhead of JavaScript helpers compared to the same helpers written in Java. The JavaScript
+ * engine is the one of the running JVM: Nashorn on Java 8, Rhino on Java 7 (with
+ * handlebars-java7 on the classpath). Run the benchmark on both JVMs to compare engines.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsHelpersBenchmark {
+
+  /**
+   * Helper templates.
+   */
+  private static final Map<String, String> TEMPLATES = new HashMap<String, String>();
+
+  static {
+    TEMPLATES.put("simple", "{{#each items}}{{upper name}}{{/each}}");
+    TEMPLATES.put("context", "{{#each items}}{{label}}{{/each}}");
+    TEMPLATES.put("hash", "{{#each items}}{{wrap name tag=\"b\"}}{{/each}}");
+    TEMPLATES.put("block", "{{#each items}}{{#twice}}{{name}}{{/twice}}{{/each}}");
+  }
+
+  /**
+   * JavaScript version of the helpers.
+   */
+  private static final String JS_HELPERS =
+      "Handlebars.registerHelper('upper', function (value) {\n"
+          + "  return String(value).toUpperCase();\n"
+          + "});\n"
+          + "Handlebars.registerHelper('label', function () {\n"
+          + "  return this.name + ':' + this.price;\n"
+          + "});\n"
+          + "Handlebars.registerHelper('wrap', function (value, options) {\n"
+          + "  var tag = options.hash.tag;\n"
+          + "  return '<' + tag + '>' + value + '</' + tag + '>';\n"
+          + "});\n"
+          + "Handlebars.registerHelper('twice', function (options) {\n"
+          + "  return options.fn(this) + '' + options.fn(this);\n"
+          + "});\n";
+
+  /**
+   * Helper under test.
+   */
+  @Param({"simple", "context", "hash", "block" })
+  String helper;
+
+  /**
+   * Helper language: java or javascript.
+   */
+  @Param({"java", "javascript" })
+  String lang;
+
+  /**
+   * The template.
+   */
+  private Template template;
+
+  /**
+   * The model.
+   */
+  private Object model;
+
+  /**
+   * Prepare the benchmark.
+   *
+   * @throws Exception If the template can't be compiled.
+   */
+  @Setup
+  public void setup() throws Exception {
+    Handlebars handlebars = new Handlebars();
+    if ("java".equals(lang)) {
+      registerJavaHelpers(handlebars);
+    } else {
+      handlebars.registerHelpers("bench-helpers.js", JS_HELPERS);
+    }
+    template = handlebars.compileInline(TEMPLATES.get(helper));
+    model = Model.page(10);
+  }
+
+  /**
+   * @return The template's output.
+   * @throws IOException If the template can't be applied.
+   */
+  @Benchmark
+  public String apply() throws IOException {
+    return template.apply(model);
+  }
+
+  /**
+   * Java version of the helpers.
+   *
+   * @param handlebars The handlebars object.
+   */
+  private static void registerJavaHelpers(final Handlebars handlebars) {
+    handlebars.registerHelper("upper", new Helper<Object>() {
+      @Override
+      public CharSequence apply(final Object value, final Options options) {
+        return String.valueOf(value).toUpperCase();
+      }
+    });
+    handlebars.registerHelper("label", new Helper<Object>() {
+      @Override
+      public CharSequence apply(final Object value, final Options options) {
+        return options.get("name") + ":" + options.get("price");
+      }
+    });
+    handlebars.registerHelper("wrap", new Helper<Object>() {
+      @Override
+      public CharSequence apply(final Object value, final Options options) {
+        String tag = options.hash("tag");
+        return "<" + tag + ">" + value + "</" + tag + ">";
+      }
+    });
+    handlebars.registerHelper("twice", new Helper<Object>() {
+      @Override
+      public CharSequence apply(final Object value, final Options options) throws IOException {
+        return options.fn().toString() + options.fn();
+      }
+    });
+  }
+}
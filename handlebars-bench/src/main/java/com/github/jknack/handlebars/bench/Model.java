@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.bench;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Benchmark data: a page with a user and a list of items. Available as Java Beans, maps and
+ * JSON nodes.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public final class Model {
+
+  /**
+   * An address.
+   */
+  public static class Address {
+    /** The city. */
+    String city;
+
+    /**
+     * @return The city.
+     */
+    public String getCity() {
+      return city;
+    }
+  }
+
+  /**
+   * A user.
+   */
+  public static class User {
+    /** The user's name. */
+    String name;
+
+    /** The user's email. */
+    String email;
+
+    /** The user's address. */
+    Address address;
+
+    /**
+     * @return The user's name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return The user's email.
+     */
+    public String getEmail() {
+      return email;
+    }
+
+    /**
+     * @return The user's address.
+     */
+    public Address getAddress() {
+      return address;
+    }
+  }
+
+  /**
+   * A list item.
+   */
+  public static class Item {
+    /** The item's name. */
+    String name;
+
+    /** The item's url. */
+    String url;
+
+    /** The item's price. */
+    double price;
+
+    /** True for the current item. */
+    boolean current;
+
+    /**
+     * @return The item's name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return The item's url.
+     */
+    public String getUrl() {
+      return url;
+    }
+
+    /**
+     * @return The item's price.
+     */
+    public double getPrice() {
+      return price;
+    }
+
+    /**
+     * @return True for the current item.
+     */
+    public boolean isCurrent() {
+      return current;
+    }
+  }
+
+  /**
+   * A page.
+   */
+  public static class Page {
+    /** The page's title. */
+    String title;
+
+    /** The current user. */
+    User user;
+
+    /** The page's items. */
+    List<Item> items;
+
+    /**
+     * @return The page's title.
+     */
+    public String getTitle() {
+      return title;
+    }
+
+    /**
+     * @return The current user.
+     */
+    public User getUser() {
+      return user;
+    }
+
+    /**
+     * @return The page's items.
+     */
+    public List<Item> getItems() {
+      return items;
+    }
+  }
+
+  /**
+   * Not allowed.
+   */
+  private Model() {
+  }
+
+  /**
+   * Creates a page with the given number of items.
+   *
+   * @param size The number of items.
+   * @return A new page.
+   */
+  public static Page page(final int size) {
+    Address address = new Address();
+    address.city = "Buenos Aires";
+
+    User user = new User();
+    user.name = "Edgar <jknack>";
+    user.email = "edgar@example.com";
+    user.address = address;
+
+    List<Item> items = new ArrayList<Item>(size);
+    for (int i = 0; i < size; i++) {
+      Item item = new Item();
+      item.name = "Item & Co. #" + i;
+      item.url = "http://example.com/items?id=" + i;
+      item.price = i * 1.5;
+      item.current = i == 0;
+      items.add(item);
+    }
+
+    Page page = new Page();
+    page.title = "Benchmark \"page\"";
+    page.user = user;
+    page.items = items;
+    return page;
+  }
+
+  /**
+   * Creates a page as nested maps.
+   *
+   * @param size The number of items.
+   * @return A new page.
+   */
+  @SuppressWarnings("unchecked")
+  public static Map<String, Object> map(final int size) {
+    return new ObjectMapper().convertValue(page(size), LinkedHashMap.class);
+  }
+
+  /**
+   * Creates a page as a JSON tree.
+   *
+   * @param size The number of items.
+   * @return A new page.
+   */
+  public static JsonNode json(final int size) {
+    return new ObjectMapper().valueToTree(page(size));
+  }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
+
+/**
+ * Parsing (ANTLR) and compilation of templates. No template cache is used.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+  /**
+   * Template under test.
+   */
+  @Param({"hello", "variables", "blocks", "page" })
+  String template;
+
+  /**
+   * The handlebars object.
+   */
+  private Handlebars handlebars;
+
+  /**
+   * A handlebars object with pretty print on.
+   */
+  private Handlebars prettyPrint;
+
+  /**
+   * The template's source.
+   */
+  private String source;
+
+  /**
+   * Prepare the benchmark.
+   *
+   * @throws IOException If the template can't be loaded.
+   */
+  @Setup
+  public void setup() throws IOException {
+    handlebars = new Handlebars();
+    prettyPrint = new Handlebars().prettyPrint(true);
+    source = Templates.source(template);
+  }
+
+  /**
+   * @return A compiled template.
+   * @throws IOException If the template can't be compiled.
+   */
+  @Benchmark
+  public Template compile() throws IOException {
+    return handlebars.compileInline(source);
+  }
+
+  /**
+   * @return A compiled template.
+   * @throws IOException If the template can't be compiled.
+   */
+  @Benchmark
+  public Template compilePrettyPrint() throws IOException {
+    return prettyPrint.compileInline(source);
+  }
+}
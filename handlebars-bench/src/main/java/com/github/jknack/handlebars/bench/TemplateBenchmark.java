@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jknack.handlebars.Context;
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.ValueResolver;
+import com.github.jknack.handlebars.JsonNodeValueResolver;
+import com.github.jknack.handlebars.context.FieldValueResolver;
+import com.github.jknack.handlebars.context.JavaBeanValueResolver;
+import com.github.jknack.handlebars.context.MapValueResolver;
+
+/**
+ * <code>Template.apply</code> over a representative page: layout, partials, block helpers,
+ * escaping and value resolution. The page is rendered from Java Beans, maps and JSON nodes.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+
+  /**
+   * A writer who discards the output.
+   */
+  private static final Writer NULL_WRITER = new Writer() {
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  };
+
+  /**
+   * Number of items of the page.
+   */
+  @Param({"10", "100" })
+  int items;
+
+  /**
+   * The page template.
+   */
+  private Template page;
+
+  /**
+   * Page as Java Bean.
+   */
+  private Object bean;
+
+  /**
+   * Page as map.
+   */
+  private Object map;
+
+  /**
+   * Page as JSON.
+   */
+  private Object json;
+
+  /**
+   * Prepare the benchmark.
+   *
+   * @throws IOException If the template can't be loaded.
+   */
+  @Setup
+  public void setup() throws IOException {
+    page = new Handlebars(Templates.loader()).compile("bench/page");
+    bean = Model.page(items);
+    map = Model.map(items);
+    json = Model.json(items);
+  }
+
+  /**
+   * @return The page's output.
+   * @throws IOException If the template can't be applied.
+   */
+  @Benchmark
+  public String javaBean() throws IOException {
+    return page.apply(bean);
+  }
+
+  /**
+   * @throws IOException If the template can't be applied.
+   */
+  @Benchmark
+  public void javaBeanToWriter() throws IOException {
+    page.apply(bean, NULL_WRITER);
+  }
+
+  /**
+   * @return The page's output.
+   * @throws IOException If the template can't be applied.
+   */
+  @Benchmark
+  public String fieldValueResolver() throws IOException {
+    return page.apply(context(bean, FieldValueResolver.INSTANCE));
+  }
+
+  /**
+   * @return The page's output.
+   * @throws IOException If the template can't be applied.
+   */
+  @Benchmark
+  public String map() throws IOException {
+    return page.apply(context(map, MapValueResolver.INSTANCE));
+  }
+
+  /**
+   * @return The page's output.
+   * @throws IOException If the template can't be applied.
+   */
+  @Benchmark
+  public String jsonNode() throws IOException {
+    return page.apply(context(json, JsonNodeValueResolver.INSTANCE));
+  }
+
+  /**
+   * @return The page's output.
+   * @throws IOException If the template can't be applied.
+   */
+  @Benchmark
+  public String defaultResolvers() throws IOException {
+    return page.apply(context(bean, JavaBeanValueResolver.INSTANCE, MapValueResolver.INSTANCE));
+  }
+
+  /**
+   * Creates a context with the given value resolvers.
+   *
+   * @param model The model.
+   * @param resolvers The value resolvers.
+   * @return A new context.
+   */
+  private static Context context(final Object model, final ValueResolver... resolvers) {
+    return Context.newBuilder(model).resolver(resolvers).build();
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.bench;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.jknack.handlebars.io.ClassPathTemplateLoader;
+
+/**
+ * Benchmark templates.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public final class Templates {
+
+  /**
+   * Inline templates.
+   */
+  private static final Map<String, String> INLINE = new LinkedHashMap<String, String>();
+
+  static {
+    INLINE.put("hello", "Hello World!");
+    INLINE.put("variables", "Hello {{name}}! You have {{count}} new messages.");
+    INLINE.put("blocks",
+        "<h1>{{header}}</h1>{{#if items}}<ul>{{#each items}}{{#if current}}"
+            + "<li><strong>{{name}}</strong></li>{{^}}"
+            + "<li><a href=\"{{url}}\">{{name}}</a></li>{{/if}}"
+            + "{{/each}}</ul>{{^}}<p>The list is empty.</p>{{/if}}");
+  }
+
+  /**
+   * Not allowed.
+   */
+  private Templates() {
+  }
+
+  /**
+   * Get the source of an inline template or a template under <code>/bench</code>.
+   *
+   * @param name The template's name.
+   * @return The template's source.
+   * @throws IOException If the template can't be loaded.
+   */
+  public static String source(final String name) throws IOException {
+    String source = INLINE.get(name);
+    if (source == null) {
+      source = loader().sourceAt("bench/" + name).content();
+    }
+    return source;
+  }
+
+  /**
+   * @return A template loader for the benchmark templates.
+   */
+  public static ClassPathTemplateLoader loader() {
+    return new ClassPathTemplateLoader("/");
+  }
+}
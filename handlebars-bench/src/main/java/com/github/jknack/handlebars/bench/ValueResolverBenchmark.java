@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jknack.handlebars.JsonNodeValueResolver;
+import com.github.jknack.handlebars.ValueResolver;
+import com.github.jknack.handlebars.context.FieldValueResolver;
+import com.github.jknack.handlebars.context.JavaBeanValueResolver;
+import com.github.jknack.handlebars.context.MapValueResolver;
+import com.github.jknack.handlebars.context.MethodValueResolver;
+
+/**
+ * Property lookup for each {@link ValueResolver}: a hit, a miss and the property set.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueResolverBenchmark {
+
+  /**
+   * Page as Java Bean.
+   */
+  private Object bean;
+
+  /**
+   * Page as map.
+   */
+  private Object map;
+
+  /**
+   * Page as JSON.
+   */
+  private Object json;
+
+  /**
+   * Prepare the benchmark.
+   */
+  @Setup
+  public void setup() {
+    bean = Model.page(10);
+    map = Model.map(10);
+    json = Model.json(10);
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object javaBean() {
+    return JavaBeanValueResolver.INSTANCE.resolve(bean, "title");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object javaBeanMiss() {
+    return JavaBeanValueResolver.INSTANCE.resolve(bean, "missing");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object javaBeanPropertySet() {
+    return JavaBeanValueResolver.INSTANCE.propertySet(bean);
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object field() {
+    return FieldValueResolver.INSTANCE.resolve(bean, "title");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object fieldMiss() {
+    return FieldValueResolver.INSTANCE.resolve(bean, "missing");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object method() {
+    return MethodValueResolver.INSTANCE.resolve(bean, "getTitle");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object map() {
+    return MapValueResolver.INSTANCE.resolve(map, "title");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object mapMiss() {
+    return MapValueResolver.INSTANCE.resolve(map, "missing");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object jsonNode() {
+    return JsonNodeValueResolver.INSTANCE.resolve(json, "title");
+  }
+
+  /**
+   * @return The value.
+   */
+  @Benchmark
+  public Object jsonNodeMiss() {
+    return JsonNodeValueResolver.INSTANCE.resolve(json, "missing");
+  }
+}
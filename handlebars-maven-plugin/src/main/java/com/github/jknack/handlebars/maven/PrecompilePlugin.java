@@ -36,17 +36,23 @@ import static org.apache.commons.lang3.Validate.notNull;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 
 import org.apache.maven.plugin.MojoFailureException;
@@ -61,10 +67,11 @@ import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.HelperRegistry;
 import com.github.jknack.handlebars.Options;
-import com.github.jknack.handlebars.TagType;
 import com.github.jknack.handlebars.Template;
 import com.github.jknack.handlebars.helper.I18nHelper;
 import com.github.jknack.handlebars.helper.PrecompileHelper;
+import com.github.jknack.handlebars.internal.Hashes;
+import com.github.jknack.handlebars.internal.JSEngine;
 import com.github.jknack.handlebars.io.FileTemplateLoader;
 import com.google.javascript.jscomp.CheckLevel;
 import com.google.javascript.jscomp.ClosureCodingConvention;
@@ -85,6 +92,11 @@ import com.google.javascript.jscomp.SourceFile;
 @Mojo(name = "precompile", defaultPhase = LifecyclePhase.PREPARE_PACKAGE, threadSafe = true)
 public class PrecompilePlugin extends HandlebarsPlugin {
 
+  /**
+   * Name of the data attribute where a template collects its extras (like i18nJs output).
+   */
+  private static final String EXTRAS = PrecompilePlugin.class.getName() + ".extras";
+
   /**
    * A prefix location, default is ${basedir}/src/main/webapp.
    */
@@ -139,6 +151,27 @@ public class PrecompilePlugin extends HandlebarsPlugin {
   @Parameter
   private String encoding = "UTF-8";
 
+  /**
+   * Number of templates to precompile in parallel. Each worker uses its own JavaScript engine.
+   * Default is: number of available processors.
+   */
+  @Parameter
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * True, if templates whose content didn't change since the last build must be taken from
+   * {@link #cacheFile} (no precompilation). Default is: false.
+   */
+  @Parameter
+  private boolean incremental;
+
+  /**
+   * The cache of precompiled templates for incremental builds. Default is:
+   * ${project.build.directory}/handlebars-precompile.cache.
+   */
+  @Parameter(defaultValue = "${project.build.directory}/handlebars-precompile.cache")
+  private String cacheFile;
+
   @Override
   protected void doExecute() throws Exception {
     notNull(prefix, "The prefix parameter is required.");
@@ -156,7 +189,8 @@ public class PrecompilePlugin extends HandlebarsPlugin {
       Handlebars handlebars = new Handlebars(new FileTemplateLoader(basedir, suffix));
       handlebars.handlebarsJsFile(handlebarsJsFile);
 
-      final List<CharSequence> extras = new ArrayList<CharSequence>();
+      // all the entries are the same i18nJs output
+      List<CharSequence> extras = new ArrayList<CharSequence>();
 
       @SuppressWarnings("unchecked")
       List<String> classpathElements = project.getRuntimeClasspathElements();
@@ -165,7 +199,7 @@ public class PrecompilePlugin extends HandlebarsPlugin {
         classpath[i] = new File(classpathElements.get(i)).toURI().toURL();
       }
 
-      i18nJs(handlebars, extras, classpath);
+      i18nJs(handlebars, classpath);
 
       i18n(handlebars);
 
@@ -205,31 +239,63 @@ public class PrecompilePlugin extends HandlebarsPlugin {
       getLog().debug("  suffix: " + suffix);
       getLog().debug("  minimize: " + minimize);
       getLog().debug("  runtime: " + runtime);
+      getLog().debug("  threads: " + threads);
+      getLog().debug("  incremental: " + incremental);
 
       if (!amd) {
         writer.append("(function () {\n");
       }
-      Context nullContext = Context.newContext(null);
-      for (File file : files) {
-        String templateName = file.getPath().replace(realPrefix, "").replace(suffix, "");
-        if (templateName.startsWith(File.separator)) {
-          templateName = templateName.substring(File.separator.length());
+      Properties cache = incremental ? loadCache(output) : null;
+      ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+      try {
+        JSEngine.Pool engines = new JSEngine.Pool(Math.max(1, threads));
+        List<String> names = new ArrayList<String>();
+        List<String> hashes = new ArrayList<String>();
+        // unchanged templates (from cache) or precompilation tasks
+        List<Precompiled> unchanged = new ArrayList<Precompiled>();
+        List<Future<Precompiled>> precompiled = new ArrayList<Future<Precompiled>>();
+        for (File file : files) {
+          String templateName = file.getPath().replace(realPrefix, "").replace(suffix, "");
+          if (templateName.startsWith(File.separator)) {
+            templateName = templateName.substring(File.separator.length());
+          }
+          templateName = templateName.replace(File.separator, "/");
+          getLog().debug("compiling: " + templateName);
+
+          names.add(templateName);
+          String hash = cache == null ? null : hash(file);
+          hashes.add(hash);
+          Precompiled cached = cache == null
+              || !hash.equals(cache.getProperty(templateName + ".hash"))
+              ? null : Precompiled.load(cache, templateName);
+          unchanged.add(cached);
+          if (cached == null) {
+            precompiled.add(executor.submit(precompile(handlebars, engines, templateName)));
+          } else {
+            // no compilation at all
+            getLog().debug("  unchanged: " + templateName);
+            precompiled.add(null);
+          }
         }
-        templateName = templateName.replace(File.separator, "/");
-        getLog().debug("compiling: " + templateName);
 
-        handlebars.compile(templateName).apply(nullContext);
-
-        Template template = handlebars.compileInline("{{precompile \"" + templateName + "\"}}");
-        Map<String, Object> hash = new HashMap<String, Object>();
-        hash.put("wrapper", amd ? "amd" : "none");
-        Options opts = new Options
-            .Builder(handlebars, PrecompileHelper.NAME, TagType.VAR, nullContext, template)
-                .setHash(hash)
-                .build();
-
-        writer.append("// Source: ").append(file.getPath()).append("\n");
-        writer.append(PrecompileHelper.INSTANCE.apply(templateName, opts)).append("\n\n");
+        Properties newCache = new Properties();
+        for (int i = 0; i < files.size(); i++) {
+          // syntax errors are reported in order
+          Precompiled template = unchanged.get(i) == null
+              ? get(precompiled.get(i)) : unchanged.get(i);
+          writer.append("// Source: ").append(files.get(i).getPath()).append("\n");
+          writer.append(template.js).append("\n\n");
+          extras.addAll(template.extras);
+          if (cache != null) {
+            newCache.setProperty(names.get(i) + ".hash", hashes.get(i));
+            template.save(newCache, names.get(i));
+          }
+        }
+        if (cache != null) {
+          saveCache(output, newCache);
+        }
+      } finally {
+        executor.shutdownNow();
       }
       // extras
       for (CharSequence extra : extras) {
@@ -258,6 +324,130 @@ public class PrecompilePlugin extends HandlebarsPlugin {
     }
   }
 
+  /**
+   * Creates a precompilation task for a template.
+   *
+   * @param handlebars The handlebars object.
+   * @param engines The JavaScript engines to use.
+   * @param templateName The template's name.
+   * @return A precompilation task.
+   */
+  private Callable<Precompiled> precompile(final Handlebars handlebars,
+      final JSEngine.Pool engines, final String templateName) {
+    return new Callable<Precompiled>() {
+      @Override
+      public Precompiled call() throws Exception {
+        Template template = handlebars.compile(templateName);
+        // collect extras (like i18nJs) and report syntax errors
+        List<CharSequence> extras = new ArrayList<CharSequence>();
+        template.apply(Context.newContext(null).data(EXTRAS, extras));
+        String name = amd ? templateName + handlebars.getLoader().getSuffix() : templateName;
+        return new Precompiled(PrecompileHelper.wrap(amd ? "amd" : "none", name,
+            engines.toJavaScript(handlebars.handlebarsJsFile(), template.text())), extras);
+      }
+    };
+  }
+
+  /**
+   * Wait for a precompilation task and report its error (if any).
+   *
+   * @param future A precompilation task.
+   * @return The precompiled template.
+   * @throws Exception If the task fails.
+   */
+  private static Precompiled get(final Future<Precompiled> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Hash the content of a template.
+   *
+   * @param file The template file.
+   * @return A content hash.
+   * @throws IOException If the file can't be read.
+   */
+  private static String hash(final File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      return Hashes.md5(IOUtil.toByteArray(in));
+    } finally {
+      IOUtil.close(in);
+    }
+  }
+
+  /**
+   * The cache file for incremental builds.
+   *
+   * @param output The output file.
+   * @return The cache file.
+   */
+  private File cacheFile(final File output) {
+    return cacheFile == null ? new File(output.getPath() + ".cache") : new File(cacheFile);
+  }
+
+  /**
+   * Load precompiled templates of a previous build. A cache built with different options is
+   * discarded.
+   *
+   * @param output The output file.
+   * @return The cache (might be empty).
+   * @throws IOException If the cache can't be read.
+   */
+  private Properties loadCache(final File output) throws IOException {
+    Properties cache = new Properties();
+    File file = cacheFile(output);
+    if (file.exists()) {
+      InputStream in = new FileInputStream(file);
+      try {
+        cache.load(in);
+      } finally {
+        IOUtil.close(in);
+      }
+      if (!cacheKey().equals(cache.getProperty("options"))) {
+        getLog().debug("  options have changed, ignoring: " + file);
+        cache.clear();
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Save precompiled templates for the next build.
+   *
+   * @param output The output file.
+   * @param cache The precompiled templates.
+   * @throws IOException If the cache can't be written.
+   */
+  private void saveCache(final File output, final Properties cache) throws IOException {
+    File file = cacheFile(output);
+    File parent = file.getParentFile();
+    if (parent != null && !parent.exists()) {
+      parent.mkdirs();
+    }
+    cache.setProperty("options", cacheKey());
+    OutputStream out = new FileOutputStream(file);
+    try {
+      cache.store(out, "handlebars precompile cache");
+    } finally {
+      IOUtil.close(out);
+    }
+  }
+
+  /**
+   * @return The options that affect the output of precompiled templates.
+   */
+  private String cacheKey() {
+    return handlebarsJsFile + "|" + amd + "|" + suffix;
+  }
+
   /**
    * Silent any missing helper.
    *
@@ -295,11 +485,9 @@ public class PrecompilePlugin extends HandlebarsPlugin {
    * Override i18nJs helper.
    *
    * @param handlebars The handlebars object
-   * @param extras Append output here.
    * @param classpath The project classpath.
    */
-  private void i18nJs(final Handlebars handlebars, final List<CharSequence> extras,
-      final URL[] classpath) {
+  private void i18nJs(final Handlebars handlebars, final URL[] classpath) {
     handlebars.registerHelper(I18nHelper.i18nJs.name(), new Helper<String>() {
       @Override
       public CharSequence apply(final String context, final Options options) throws IOException {
@@ -319,6 +507,8 @@ public class PrecompilePlugin extends HandlebarsPlugin {
             + "}\n"
             + "i18nOpts.locale = options.hash.locale;\n"
             + "return I18n.t(key, i18nOpts);"));
+        // extras of the current template
+        List<CharSequence> extras = options.data(EXTRAS);
         extras.add(output);
         return null;
       }
@@ -400,6 +590,29 @@ public class PrecompilePlugin extends HandlebarsPlugin {
     this.amd = amd;
   }
 
+  /**
+   * @param threads Number of templates to precompile in parallel. Default is: number of available
+   *        processors.
+   */
+  public void setThreads(final int threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * @param incremental True, if templates whose content didn't change since the last build must
+   *        not be precompiled again. Default is: false.
+   */
+  public void setIncremental(final boolean incremental) {
+    this.incremental = incremental;
+  }
+
+  /**
+   * @param cacheFile The cache of precompiled templates for incremental builds.
+   */
+  public void setCacheFile(final String cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
   /**
    * @param prefix A prefix location, default is ${basedir}/src/main/webapp.
    */
@@ -450,4 +663,63 @@ public class PrecompilePlugin extends HandlebarsPlugin {
     this.handlebarsJsFile = handlebarsJsFile;
   }
 
+  /**
+   * A precompiled template and its extras (like i18nJs output).
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private static class Precompiled {
+
+    /** The template's JavaScript. */
+    private final CharSequence js;
+
+    /** Extras produced by the template. */
+    private final List<CharSequence> extras;
+
+    /**
+     * Creates a new {@link Precompiled}.
+     *
+     * @param js The template's JavaScript.
+     * @param extras Extras produced by the template.
+     */
+    public Precompiled(final CharSequence js, final List<CharSequence> extras) {
+      this.js = js;
+      this.extras = extras;
+    }
+
+    /**
+     * Load a precompiled template from cache.
+     *
+     * @param cache The cache.
+     * @param name The template's name.
+     * @return A precompiled template or <code>null</code>.
+     */
+    public static Precompiled load(final Properties cache, final String name) {
+      String js = cache.getProperty(name + ".js");
+      if (js == null) {
+        return null;
+      }
+      int size = Integer.parseInt(cache.getProperty(name + ".extras", "0"));
+      List<CharSequence> extras = new ArrayList<CharSequence>(size);
+      for (int i = 0; i < size; i++) {
+        extras.add(cache.getProperty(name + ".extras." + i));
+      }
+      return new Precompiled(js, extras);
+    }
+
+    /**
+     * Save the precompiled template in the cache.
+     *
+     * @param cache The cache.
+     * @param name The template's name.
+     */
+    public void save(final Properties cache, final String name) {
+      cache.setProperty(name + ".js", js.toString());
+      cache.setProperty(name + ".extras", Integer.toString(extras.size()));
+      for (int i = 0; i < extras.size(); i++) {
+        cache.setProperty(name + ".extras." + i, extras.get(i).toString());
+      }
+    }
+  }
 }
@@ -196,6 +196,129 @@ public class PrecompilePluginTest {
         FileUtils.fileRead("target/helpers.js"));
   }
 
+  @Test
+  public void parallel() throws Exception {
+    PrecompilePlugin plugin = new PrecompilePlugin();
+    plugin.setPrefix("src/test/resources/partials");
+    plugin.setSuffix(".html");
+    plugin.setOutput("target/helpers-parallel.js");
+    plugin.setThreads(4);
+    plugin.setProject(newProject());
+    plugin.setHandlebarsJsFile("/handlebars-v1.3.0.js");
+
+    plugin.execute();
+
+    assertEquals(FileUtils.fileRead("src/test/resources/helpers.expected"),
+        FileUtils.fileRead("target/helpers-parallel.js"));
+  }
+
+  @Test
+  public void incremental() throws Exception {
+    new File("target/incremental.cache").delete();
+    for (int i = 0; i < 2; i++) {
+      PrecompilePlugin plugin = new PrecompilePlugin();
+      plugin.setPrefix("src/test/resources/templates");
+      plugin.setSuffix(".hbs");
+      plugin.setOutput("target/incremental.js");
+      plugin.addTemplate("a");
+      plugin.addTemplate("c");
+      plugin.setIncremental(true);
+      plugin.setCacheFile("target/incremental.cache");
+      plugin.setProject(newProject());
+      plugin.setHandlebarsJsFile("/handlebars-v1.3.0.js");
+
+      plugin.execute();
+
+      assertTrue(new File("target/incremental.cache").exists());
+      assertEquals(FileUtils.fileRead("src/test/resources/specific-files.expected"),
+          FileUtils.fileRead("target/incremental.js"));
+    }
+  }
+
+  @Test
+  public void incrementalMustIgnoreCacheWhenOptionsChange() throws Exception {
+    new File("target/incremental-options.cache").delete();
+    PrecompilePlugin amd = new PrecompilePlugin();
+    amd.setPrefix("src/test/resources/templates");
+    amd.setSuffix(".hbs");
+    amd.setOutput("target/incremental-options.js");
+    amd.addTemplate("a");
+    amd.addTemplate("c");
+    amd.setAmd(true);
+    amd.setIncremental(true);
+    amd.setCacheFile("target/incremental-options.cache");
+    amd.setProject(newProject());
+    amd.setHandlebarsJsFile("/handlebars-v1.3.0.js");
+    amd.execute();
+
+    PrecompilePlugin plugin = new PrecompilePlugin();
+    plugin.setPrefix("src/test/resources/templates");
+    plugin.setSuffix(".hbs");
+    plugin.setOutput("target/incremental-options.js");
+    plugin.addTemplate("a");
+    plugin.addTemplate("c");
+    plugin.setIncremental(true);
+    plugin.setCacheFile("target/incremental-options.cache");
+    plugin.setProject(newProject());
+    plugin.setHandlebarsJsFile("/handlebars-v1.3.0.js");
+    plugin.execute();
+
+    assertEquals(FileUtils.fileRead("src/test/resources/specific-files.expected"),
+        FileUtils.fileRead("target/incremental-options.js"));
+  }
+
+  @Test
+  public void incrementalKeepsExtras() throws Exception {
+    new File("target/incremental-i18njs.cache").delete();
+    for (int i = 0; i < 2; i++) {
+      PrecompilePlugin plugin = new PrecompilePlugin();
+      plugin.setPrefix("src/test/resources/i18nJs");
+      plugin.setSuffix(".html");
+      plugin.setOutput("target/incremental-i18njs.js");
+      plugin.setIncremental(true);
+      plugin.setCacheFile("target/incremental-i18njs.cache");
+      plugin.setProject(newProject());
+      plugin.setHandlebarsJsFile("/handlebars-v1.3.0.js");
+
+      plugin.execute();
+
+      assertEquals(FileUtils.fileRead("src/test/resources/helpers-i18njs.expected"),
+          FileUtils.fileRead("target/incremental-i18njs.js"));
+    }
+  }
+
+  @Test
+  public void incrementalSkipsUnchangedTemplates() throws Exception {
+    File basedir = new File("target/incremental-skip");
+    FileUtils.deleteDirectory(basedir);
+    basedir.mkdirs();
+    FileUtils.fileWrite(new File(basedir, "main.hbs").getPath(), "{{> partial}}");
+    FileUtils.fileWrite(new File(basedir, "partial.hbs").getPath(), "partial");
+
+    String expected = null;
+    for (int i = 0; i < 2; i++) {
+      PrecompilePlugin plugin = new PrecompilePlugin();
+      plugin.setPrefix(basedir.getPath());
+      plugin.setSuffix(".hbs");
+      plugin.setOutput("target/incremental-skip.js");
+      plugin.addTemplate("main");
+      plugin.setIncremental(true);
+      plugin.setCacheFile("target/incremental-skip.cache");
+      plugin.setProject(newProject());
+      plugin.setHandlebarsJsFile("/handlebars-v1.3.0.js");
+
+      plugin.execute();
+
+      String output = FileUtils.fileRead("target/incremental-skip.js");
+      if (expected == null) {
+        expected = output;
+        // main is unchanged: it must not be compiled (and its partial is never resolved)
+        new File(basedir, "partial.hbs").delete();
+      }
+      assertEquals(expected, output);
+    }
+  }
+
   private MavenProject newProject(final String... classpath)
       throws DependencyResolutionRequiredException {
     MavenProject project = createMock(MavenProject.class);
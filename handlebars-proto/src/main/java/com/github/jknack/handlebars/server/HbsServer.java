@@ -48,6 +48,7 @@ import com.github.jknack.handlebars.HelperRegistry;
 import com.github.jknack.handlebars.HumanizeHelper;
 import com.github.jknack.handlebars.Jackson2Helper;
 import com.github.jknack.handlebars.MarkdownHelper;
+import com.github.jknack.handlebars.cache.BoundedTemplateCache;
 import com.github.jknack.handlebars.helper.StringHelpers;
 import com.github.jknack.handlebars.io.FileTemplateLoader;
 import com.github.jknack.handlebars.io.TemplateLoader;
@@ -121,6 +122,10 @@ public class HbsServer {
         usage = "set the charset used it while rendering, default is: UTF-8",
         metaVar = " ")
     public String encoding = "UTF-8";
+
+    @Option(name = "-cache",
+        usage = "cache compiled templates and model files, reload them when they change")
+    public boolean cache;
   }
 
   public static void main(final String[] args) throws Exception {
@@ -159,6 +164,9 @@ public class HbsServer {
     loader.setPrefix(new File(args.dir, args.prefix).getAbsolutePath());
     loader.setSuffix(args.suffix);
     Handlebars handlebars = new Handlebars(loader);
+    if (args.cache) {
+      handlebars.with(new BoundedTemplateCache());
+    }
 
     /**
      * Helper wont work in the stand-alone version, so we add a default helper
@@ -200,6 +208,11 @@ public class HbsServer {
             args.port,
             args.contextPath.equals(CONTEXT) ? "" : args.contextPath,
             args.suffix });
+        logger.info("Measure the render throughput of a page with:");
+        logger.info("  http://localhost:{}{}/[page]{}?load=1000&threads=4", new Object[]{
+            args.port,
+            args.contextPath.equals(CONTEXT) ? "" : args.contextPath,
+            args.suffix });
       }
     });
 
@@ -19,15 +19,24 @@ package com.github.jknack.handlebars.server;
 
 import static org.apache.commons.io.FilenameUtils.removeExtension;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -35,7 +44,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullWriter;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
@@ -67,6 +78,26 @@ public class HbsServlet extends HttpServlet {
    */
   private static final long serialVersionUID = 1L;
 
+  /**
+   * Max number of renders of a load test.
+   */
+  private static final int MAX_RENDERS = 1000000;
+
+  /**
+   * Max number of threads of a load test.
+   */
+  private static final int MAX_THREADS = 64;
+
+  /**
+   * Nanoseconds per millisecond.
+   */
+  private static final double NANOS_PER_MILLI = 1000000.0;
+
+  /**
+   * Milliseconds per second.
+   */
+  private static final double MILLIS_PER_SECOND = 1000.0;
+
   /**
    * The logging system.
    */
@@ -93,6 +124,12 @@ public class HbsServlet extends HttpServlet {
    */
   private final Options args;
 
+  /**
+   * Parsed model files and their last modified date, used in cache mode.
+   */
+  private final ConcurrentMap<String, Pair<Long, Object>> models =
+      new ConcurrentHashMap<String, Pair<Long, Object>>();
+
   /**
    * Creates a new {@link HbsServlet}.
    *
@@ -114,15 +151,23 @@ public class HbsServlet extends HttpServlet {
     Writer writer = null;
 
     try {
-      Template template = handlebars.compile(removeExtension(requestURI(request)));
+      String location = removeExtension(requestURI(request));
+      Template template = handlebars.compile(location);
+
+      Object model = model(jsonFilename(request), ymlFilename(request));
 
-      Object model = model(request);
+      String load = request.getParameter("load");
+      if (load != null) {
+        load(location, Integer.parseInt(load), request, response);
+        return;
+      }
 
-      String output = template.apply(model);
       response.setCharacterEncoding(args.encoding);
       response.setContentType(args.contentType);
       writer = response.getWriter();
-      writer.write(output);
+      template.apply(model, writer);
+    } catch (NumberFormatException ex) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
     } catch (HandlebarsException ex) {
       handlebarsError(ex, response);
     } catch (JsonParseException ex) {
@@ -144,20 +189,106 @@ public class HbsServlet extends HttpServlet {
     }
   }
 
+  /**
+   * Render a page many times and report the render throughput as plain text. Each render goes
+   * through the same steps of a request: compile the template, load the model and apply the
+   * template. Usage:
+   *
+   * <pre>
+   *   http://localhost:6780/page.hbs?load=1000&amp;threads=4
+   * </pre>
+   *
+   * @param location The template's location.
+   * @param renders Number of renders.
+   * @param request The current request.
+   * @param response The http response.
+   * @throws Exception If something goes wrong.
+   */
+  private void load(final String location, final int renders, final HttpServletRequest request,
+      final HttpServletResponse response) throws Exception {
+    String threadsParam = request.getParameter("threads");
+    int threads = threadsParam == null ? 1 : Integer.parseInt(threadsParam);
+    if (renders < 1 || renders > MAX_RENDERS || threads < 1 || threads > MAX_THREADS) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected 1 <= load <= "
+          + MAX_RENDERS + " and 1 <= threads <= " + MAX_THREADS);
+      return;
+    }
+    final String jsonFilename = jsonFilename(request);
+    final String ymlFilename = ymlFilename(request);
+    final Callable<Integer> render = new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        Template template = handlebars.compile(location);
+        template.apply(model(jsonFilename, ymlFilename), NullWriter.NULL_WRITER);
+        return 1;
+      }
+    };
+    // warm up
+    int warmup = Math.max(1, renders / 10);
+    for (int i = 0; i < warmup; i++) {
+      render.call();
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Integer>> results = new ArrayList<Future<Integer>>(threads);
+      final int perThread = renders / threads;
+      long start = System.nanoTime();
+      for (int t = 0; t < threads; t++) {
+        final int count = perThread + (t < renders % threads ? 1 : 0);
+        results.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            for (int i = 0; i < count; i++) {
+              render.call();
+            }
+            return count;
+          }
+        }));
+      }
+      int done = 0;
+      for (Future<Integer> result : results) {
+        try {
+          done += result.get();
+        } catch (ExecutionException ex) {
+          Throwable cause = ex.getCause();
+          if (cause instanceof Exception) {
+            throw (Exception) cause;
+          }
+          throw (Error) cause;
+        }
+      }
+      long elapsed = System.nanoTime() - start;
+      double millis = elapsed / NANOS_PER_MILLI;
+
+      response.setCharacterEncoding(args.encoding);
+      response.setContentType("text/plain");
+      PrintWriter writer = response.getWriter();
+      writer.printf("page:       %s%n", requestURI(request));
+      writer.printf("renders:    %d (warm up: %d)%n", done, warmup);
+      writer.printf("threads:    %d%n", threads);
+      writer.printf("cache:      %s%n", args.cache ? "on" : "off");
+      writer.printf("total:      %.1f ms%n", millis);
+      writer.printf("average:    %.3f ms%n", millis * threads / done);
+      writer.printf("throughput: %.0f renders/s%n", done / (millis / MILLIS_PER_SECOND));
+      writer.close();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   /**
    * Attempt to load a json or yml file.
    *
-   * @param request The original request.
+   * @param jsonFilename The json file.
+   * @param ymlFilename The yml file.
    * @return The associated model.
    * @throws IOException If something goes wrong.
    */
-  private Object model(final HttpServletRequest request) throws IOException {
-    String jsonFilename = jsonFilename(request);
-    String ymlFilename = ymlFilename(request);
-
-    Object data = json(jsonFilename);
+  private Object model(final String jsonFilename, final String ymlFilename) throws IOException {
+    Object data = data(jsonFilename);
     if (data == null) {
-      data = yml(ymlFilename);
+      data = data(ymlFilename);
     }
     if (data == null) {
       String errorMessage = "file not found: {}";
@@ -213,6 +344,10 @@ public class HbsServlet extends HttpServlet {
   private void handlebarsError(final HandlebarsException ex,
       final HttpServletResponse response) throws IOException {
 
+    if (!response.isCommitted()) {
+      // discard the output rendered before the error
+      response.resetBuffer();
+    }
     HandlebarsError error = ex.getError();
     int firstLine = 1;
     if (error != null) {
@@ -311,6 +446,44 @@ public class HbsServlet extends HttpServlet {
     IOUtils.closeQuietly(writer);
   }
 
+  /**
+   * Parse a <code>json</code> or <code>yml</code> file. In cache mode, the parsed data is reused
+   * until the file changes.
+   *
+   * @param filename The file to parse.
+   * @return The parsed data or <code>null</code> if the file doesn't exist.
+   * @throws IOException If the file can't be parsed.
+   */
+  private Object data(final String filename) throws IOException {
+    if (!args.cache) {
+      return parse(filename);
+    }
+    long lastModified = new File(args.dir, filename).lastModified();
+    if (lastModified == 0) {
+      return null;
+    }
+    Pair<Long, Object> entry = models.get(filename);
+    if (entry != null && entry.getKey() == lastModified) {
+      return entry.getValue();
+    }
+    Object data = parse(filename);
+    if (data != null) {
+      models.put(filename, Pair.of(lastModified, data));
+    }
+    return data;
+  }
+
+  /**
+   * Parse a <code>json</code> or <code>yml</code> file.
+   *
+   * @param filename The file to parse.
+   * @return The parsed data or <code>null</code> if the file doesn't exist.
+   * @throws IOException If the file can't be parsed.
+   */
+  private Object parse(final String filename) throws IOException {
+    return filename.endsWith(".json") ? json(filename) : yml(filename);
+  }
+
   /**
    * Try to load a <code>json</code> file that matches the given request.
    *
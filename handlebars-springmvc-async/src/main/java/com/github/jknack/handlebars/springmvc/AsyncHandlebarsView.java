@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.springmvc;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.github.jknack.handlebars.Context;
+
+/**
+ * A handlebars view that writes the response with Servlet 3.1 non-blocking I/O. The template is
+ * rendered on the current thread into a bounded in-memory buffer, then the request goes async and
+ * the buffer is written by a {@link WriteListener} as the client drains the socket. Slow clients
+ * don't pin a request thread.
+ *
+ * The view falls back to blocking I/O if the request doesn't support async processing or if the
+ * output doesn't fit in the buffer. It works with <code>DeferredResult</code> and
+ * <code>Callable</code> handlers (Spring 3.2+) too: the view is rendered on the async dispatch.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class AsyncHandlebarsView extends HandlebarsView {
+
+  /**
+   * Default max size of the in-memory buffer: 1mb.
+   */
+  public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+  /**
+   * Size of each chunk of the in-memory buffer.
+   */
+  private static final int CHUNK_SIZE = 8 * 1024;
+
+  /**
+   * Max size in bytes of the in-memory buffer.
+   */
+  private int maxBufferSize = DEFAULT_MAX_BUFFER_SIZE;
+
+  @Override
+  protected void renderMergedTemplateModel(final Map<String, Object> model,
+      final HttpServletRequest request, final HttpServletResponse response)
+      throws IOException {
+    if (!request.isAsyncSupported()) {
+      super.renderMergedTemplateModel(model, request, response);
+      return;
+    }
+    Charset charset = Charset.forName(response.getCharacterEncoding());
+    BoundedOutputStream buffer = new BoundedOutputStream(response, maxBufferSize, CHUNK_SIZE);
+    Writer writer = new OutputStreamWriter(buffer, charset);
+    Context context = newContext(model);
+    try {
+      getTemplate().apply(context, writer);
+      writer.flush();
+    } finally {
+      context.destroy();
+    }
+    if (buffer.spilled()) {
+      // too big for the buffer, already written with blocking I/O
+      return;
+    }
+    response.setContentLength(buffer.size());
+    AsyncContext async = request.startAsync(request, response);
+    ServletOutputStream out = response.getOutputStream();
+    out.setWriteListener(new ChunkWriteListener(async, out, buffer.chunks()));
+  }
+
+  /**
+   * Set the max size of the in-memory buffer. Bigger outputs are written with blocking I/O.
+   *
+   * @param maxBufferSize Max size in bytes, positive.
+   */
+  void setMaxBufferSize(final int maxBufferSize) {
+    isTrue(maxBufferSize > 0, "Invalid buffer size: %s", maxBufferSize);
+    this.maxBufferSize = maxBufferSize;
+  }
+
+}
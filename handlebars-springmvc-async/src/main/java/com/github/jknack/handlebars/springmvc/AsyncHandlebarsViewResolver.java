@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.springmvc;
+
+import java.io.IOException;
+
+import org.springframework.web.servlet.view.AbstractUrlBasedView;
+
+/**
+ * A {@link HandlebarsViewResolver} for {@link AsyncHandlebarsView}: views are written with
+ * Servlet 3.1 non-blocking I/O.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class AsyncHandlebarsViewResolver extends HandlebarsViewResolver {
+
+  /**
+   * Max size in bytes of the in-memory buffer of a view.
+   */
+  private int maxBufferSize = AsyncHandlebarsView.DEFAULT_MAX_BUFFER_SIZE;
+
+  /**
+   * Creates a new {@link AsyncHandlebarsViewResolver}.
+   */
+  public AsyncHandlebarsViewResolver() {
+    super(AsyncHandlebarsView.class);
+  }
+
+  @Override
+  protected AbstractUrlBasedView configure(final HandlebarsView view) throws IOException {
+    ((AsyncHandlebarsView) view).setMaxBufferSize(maxBufferSize);
+    return super.configure(view);
+  }
+
+  @Override
+  protected Class<?> requiredViewClass() {
+    return AsyncHandlebarsView.class;
+  }
+
+  /**
+   * Set the max size of the in-memory buffer of a view. Bigger outputs are written with blocking
+   * I/O. Default is: 1mb.
+   *
+   * @param maxBufferSize Max size in bytes, positive.
+   */
+  public void setMaxBufferSize(final int maxBufferSize) {
+    this.maxBufferSize = maxBufferSize;
+  }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.springmvc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Keep the rendered output in memory, as a list of chunks, up to a max size. Once the output
+ * gets bigger, buffered bytes and the rest of the output are written to
+ * {@link HttpServletResponse#getOutputStream()} (blocking I/O).
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+class BoundedOutputStream extends OutputStream {
+
+  /**
+   * The HTTP response.
+   */
+  private final HttpServletResponse response;
+
+  /**
+   * Max number of bytes to keep in memory.
+   */
+  private final int maxSize;
+
+  /**
+   * Size of each chunk.
+   */
+  private final int chunkSize;
+
+  /**
+   * Buffered chunks.
+   */
+  private final List<byte[]> chunks = new ArrayList<byte[]>();
+
+  /**
+   * Number of bytes in the last chunk.
+   */
+  private int count;
+
+  /**
+   * Number of buffered bytes.
+   */
+  private int size;
+
+  /**
+   * The response's output stream, once the output got bigger than the max size.
+   */
+  private OutputStream out;
+
+  /**
+   * Creates a new {@link BoundedOutputStream}.
+   *
+   * @param response The HTTP response.
+   * @param maxSize Max number of bytes to keep in memory.
+   * @param chunkSize Size of each chunk.
+   */
+  public BoundedOutputStream(final HttpServletResponse response, final int maxSize,
+      final int chunkSize) {
+    this.response = response;
+    this.maxSize = maxSize;
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    write(new byte[]{(byte) b }, 0, 1);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    if (out == null && size + len > maxSize) {
+      spill();
+    }
+    if (out != null) {
+      out.write(b, off, len);
+      return;
+    }
+    int offset = off;
+    int remaining = len;
+    while (remaining > 0) {
+      if (chunks.isEmpty() || count == chunkSize) {
+        chunks.add(new byte[chunkSize]);
+        count = 0;
+      }
+      byte[] chunk = chunks.get(chunks.size() - 1);
+      int n = Math.min(remaining, chunkSize - count);
+      System.arraycopy(b, offset, chunk, count, n);
+      count += n;
+      offset += n;
+      remaining -= n;
+      size += n;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (out != null) {
+      out.flush();
+    }
+  }
+
+  /**
+   * Write the buffered bytes to the response and switch to blocking I/O.
+   *
+   * @throws IOException If the response can't be written.
+   */
+  private void spill() throws IOException {
+    out = response.getOutputStream();
+    for (byte[] chunk : chunks()) {
+      out.write(chunk);
+    }
+    chunks.clear();
+    size = 0;
+  }
+
+  /**
+   * @return True, if the output didn't fit in memory and it was written to the response.
+   */
+  public boolean spilled() {
+    return out != null;
+  }
+
+  /**
+   * @return Number of buffered bytes.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return The buffered chunks. The last one is trimmed.
+   */
+  public List<byte[]> chunks() {
+    List<byte[]> result = new ArrayList<byte[]>(chunks);
+    int last = result.size() - 1;
+    if (last >= 0 && count < chunkSize) {
+      result.set(last, Arrays.copyOf(result.get(last), count));
+    }
+    return result;
+  }
+}
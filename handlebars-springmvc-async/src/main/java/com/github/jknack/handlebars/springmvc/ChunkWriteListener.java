@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.springmvc;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Write chunks of bytes as the client drains the socket, then complete the async request. The
+ * container calls {@link #onWritePossible()} every time the output stream is ready again, so no
+ * thread waits on a slow client.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+class ChunkWriteListener implements WriteListener {
+
+  /**
+   * The logging system.
+   */
+  private final Log logger = LogFactory.getLog(getClass());
+
+  /**
+   * The async request.
+   */
+  private final AsyncContext async;
+
+  /**
+   * The response's output stream.
+   */
+  private final ServletOutputStream out;
+
+  /**
+   * The chunks to write. Written chunks are released.
+   */
+  private final List<byte[]> chunks;
+
+  /**
+   * Index of the next chunk to write.
+   */
+  private int index;
+
+  /**
+   * Creates a new {@link ChunkWriteListener}.
+   *
+   * @param async The async request.
+   * @param out The response's output stream.
+   * @param chunks The chunks to write.
+   */
+  public ChunkWriteListener(final AsyncContext async, final ServletOutputStream out,
+      final List<byte[]> chunks) {
+    this.async = async;
+    this.out = out;
+    this.chunks = chunks;
+  }
+
+  @Override
+  public void onWritePossible() throws IOException {
+    while (out.isReady()) {
+      if (index == chunks.size()) {
+        async.complete();
+        return;
+      }
+      out.write(chunks.set(index++, null));
+    }
+  }
+
+  @Override
+  public void onError(final Throwable cause) {
+    logger.debug("Response wasn't fully written", cause);
+    async.complete();
+  }
+
+}
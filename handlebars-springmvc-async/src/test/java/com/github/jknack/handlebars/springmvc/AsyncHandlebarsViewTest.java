@@ -0,0 +1,184 @@
+package com.github.jknack.handlebars.springmvc;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.context.MapValueResolver;
+
+public class AsyncHandlebarsViewTest {
+
+  /**
+   * An output stream that accepts one write every time the client "drains" the socket.
+   */
+  static class SlowOutputStream extends ServletOutputStream {
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    WriteListener listener;
+
+    int permits;
+
+    @Override
+    public boolean isReady() {
+      return permits > 0;
+    }
+
+    @Override
+    public void setWriteListener(final WriteListener listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      bytes.write(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      permits--;
+      bytes.write(b, off, len);
+    }
+
+    void drain() throws IOException {
+      permits = 1;
+      listener.onWritePossible();
+    }
+  }
+
+  @Test
+  public void writeAsSocketDrains() throws Exception {
+    Map<String, Object> model = model(5000);
+    String expected = expected(5000);
+
+    SlowOutputStream out = new SlowOutputStream();
+
+    HttpServletRequest request = createMock(HttpServletRequest.class);
+    HttpServletResponse response = createMock(HttpServletResponse.class);
+    AsyncContext async = createMock(AsyncContext.class);
+
+    expect(request.isAsyncSupported()).andReturn(true);
+    expect(request.startAsync(request, response)).andReturn(async);
+    expect(response.getCharacterEncoding()).andReturn("UTF-8");
+    response.setContentLength(expected.length());
+    expect(response.getOutputStream()).andReturn(out);
+    async.complete();
+    expectLastCall().once();
+
+    replay(request, response, async);
+
+    AsyncHandlebarsView view = view("{{#each items}}{{this}},{{/each}}");
+    view.renderMergedTemplateModel(model, request, response);
+
+    // nothing was written by the rendering thread
+    assertNotNull(out.listener);
+    assertEquals(0, out.bytes.size());
+
+    int rounds = 0;
+    while (out.bytes.size() < expected.length()) {
+      out.drain();
+      rounds++;
+    }
+    // one chunk per round, then complete
+    assertEquals((expected.length() + 8191) / 8192, rounds);
+    out.drain();
+
+    assertEquals(expected, out.bytes.toString("UTF-8"));
+
+    verify(request, response, async);
+  }
+
+  @Test
+  public void blockingWhenOutputDoesNotFit() throws Exception {
+    Map<String, Object> model = model(1000);
+    String expected = expected(1000);
+
+    SlowOutputStream out = new SlowOutputStream();
+
+    HttpServletRequest request = createMock(HttpServletRequest.class);
+    HttpServletResponse response = createMock(HttpServletResponse.class);
+
+    expect(request.isAsyncSupported()).andReturn(true);
+    expect(response.getCharacterEncoding()).andReturn("UTF-8");
+    expect(response.getOutputStream()).andReturn(out);
+
+    replay(request, response);
+
+    AsyncHandlebarsView view = view("{{#each items}}{{this}},{{/each}}");
+    view.setMaxBufferSize(100);
+    view.renderMergedTemplateModel(model, request, response);
+
+    assertNull(out.listener);
+    assertEquals(expected, out.bytes.toString("UTF-8"));
+
+    verify(request, response);
+  }
+
+  @Test
+  public void blockingWhenAsyncIsNotSupported() throws Exception {
+    StringWriter writer = new StringWriter();
+
+    HttpServletRequest request = createMock(HttpServletRequest.class);
+    HttpServletResponse response = createMock(HttpServletResponse.class);
+
+    expect(request.isAsyncSupported()).andReturn(false);
+    expect(response.getWriter()).andReturn(new PrintWriter(writer));
+
+    replay(request, response);
+
+    AsyncHandlebarsView view = view("{{#each items}}{{this}},{{/each}}");
+    view.renderMergedTemplateModel(model(3), request, response);
+
+    assertEquals(expected(3), writer.toString());
+
+    verify(request, response);
+  }
+
+  private AsyncHandlebarsView view(final String template) throws IOException {
+    AsyncHandlebarsView view = new AsyncHandlebarsView();
+    view.setValueResolver(MapValueResolver.INSTANCE);
+    view.setTemplate(new Handlebars().compileInline(template));
+    return view;
+  }
+
+  private Map<String, Object> model(final int size) {
+    List<Integer> items = new ArrayList<Integer>();
+    for (int i = 0; i < size; i++) {
+      items.add(i);
+    }
+    Map<String, Object> model = new HashMap<String, Object>();
+    model.put("items", items);
+    return model;
+  }
+
+  private String expected(final int size) {
+    StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < size; i++) {
+      buffer.append(i).append(",");
+    }
+    return buffer.toString();
+  }
+}
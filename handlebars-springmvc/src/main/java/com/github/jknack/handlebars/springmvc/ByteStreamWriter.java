@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.springmvc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import com.github.jknack.handlebars.StaticTextWriter;
+
+/**
+ * A {@link Writer} that encodes chars into a byte buffer and writes it to
+ * {@link HttpServletResponse#getOutputStream()}. Static text is encoded once and the bytes are
+ * reused by later renders, dynamic values are encoded on the fly.
+ *
+ * The response is committed the first time the buffer gets full. If the whole output fits in the
+ * buffer, the content length is set by {@link #close()}.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+class ByteStreamWriter extends Writer implements StaticTextWriter {
+
+  /**
+   * Collect the bytes produced by the encoder.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private class Sink extends OutputStream {
+
+    @Override
+    public void write(final int b) throws IOException {
+      if (count == buffer.length) {
+        drain();
+      }
+      buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      bytes(b, off, len);
+    }
+
+    @Override
+    public void flush() {
+      // nothing to do: bytes are in the buffer, see ByteStreamWriter#flush()
+    }
+  }
+
+  /**
+   * The HTTP response.
+   */
+  private final HttpServletResponse response;
+
+  /**
+   * The response's charset.
+   */
+  private final Charset charset;
+
+  /**
+   * Static text already encoded with the response's charset.
+   */
+  private final Map<String, byte[]> encoded;
+
+  /**
+   * The byte buffer.
+   */
+  private final byte[] buffer;
+
+  /**
+   * Number of bytes in the buffer.
+   */
+  private int count;
+
+  /**
+   * Encode dynamic values.
+   */
+  private final Writer encoder;
+
+  /**
+   * True, if the response must be flushed every time the buffer is written.
+   */
+  private final boolean flushBuffer;
+
+  /**
+   * The response's output stream or <code>null</code>, if the response isn't committed yet.
+   */
+  private OutputStream out;
+
+  /**
+   * Creates a new {@link ByteStreamWriter}.
+   *
+   * @param response The HTTP response.
+   * @param charset The response's charset.
+   * @param encoded Static text already encoded with the response's charset. New entries are
+   *        added as they are found.
+   * @param bufferSize The buffer size in bytes.
+   * @param flushBuffer True, if the response must be flushed every time the buffer is written.
+   */
+  public ByteStreamWriter(final HttpServletResponse response, final Charset charset,
+      final Map<String, byte[]> encoded, final int bufferSize, final boolean flushBuffer) {
+    this.response = response;
+    this.charset = charset;
+    this.encoded = encoded;
+    this.buffer = new byte[bufferSize];
+    this.flushBuffer = flushBuffer;
+    this.encoder = new OutputStreamWriter(new Sink(), charset);
+  }
+
+  @Override
+  public void writeStatic(final String text) throws IOException {
+    byte[] bytes = encoded.get(text);
+    if (bytes == null) {
+      bytes = text.getBytes(charset);
+      encoded.put(text, bytes);
+    }
+    // pending chars go first
+    encoder.flush();
+    bytes(bytes, 0, bytes.length);
+  }
+
+  @Override
+  public void write(final int c) throws IOException {
+    encoder.write(c);
+  }
+
+  @Override
+  public void write(final char[] cbuf, final int off, final int len) throws IOException {
+    encoder.write(cbuf, off, len);
+  }
+
+  @Override
+  public void write(final String str, final int off, final int len) throws IOException {
+    encoder.write(str, off, len);
+  }
+
+  /**
+   * Write the buffer and flush the response. The response is committed.
+   *
+   * @throws IOException If the response can't be written.
+   */
+  @Override
+  public void flush() throws IOException {
+    encoder.flush();
+    drain();
+    out().flush();
+  }
+
+  /**
+   * Write the buffer to the response. If the response isn't committed yet, the content length is
+   * set too. The response's output stream is left open.
+   *
+   * @throws IOException If the response can't be written.
+   */
+  @Override
+  public void close() throws IOException {
+    encoder.flush();
+    if (out == null) {
+      response.setContentLength(count);
+    }
+    if (count > 0) {
+      out().write(buffer, 0, count);
+      count = 0;
+    }
+  }
+
+  /**
+   * Append bytes to the buffer, the buffer is written to the response when it gets full.
+   *
+   * @param bytes The bytes.
+   * @param off Offset of the first byte.
+   * @param len Number of bytes.
+   * @throws IOException If the response can't be written.
+   */
+  private void bytes(final byte[] bytes, final int off, final int len) throws IOException {
+    if (len > buffer.length - count) {
+      drain();
+      if (len >= buffer.length) {
+        // too big for the buffer, don't copy it
+        out.write(bytes, off, len);
+        if (flushBuffer) {
+          out.flush();
+        }
+        return;
+      }
+    }
+    System.arraycopy(bytes, off, buffer, count, len);
+    count += len;
+  }
+
+  /**
+   * Write the buffer to the response and flush it, if required.
+   *
+   * @throws IOException If the response can't be written.
+   */
+  private void drain() throws IOException {
+    OutputStream stream = out();
+    if (count > 0) {
+      stream.write(buffer, 0, count);
+      count = 0;
+      if (flushBuffer) {
+        stream.flush();
+      }
+    }
+  }
+
+  /**
+   * @return The response's output stream.
+   * @throws IOException If the output stream can't be opened.
+   */
+  private OutputStream out() throws IOException {
+    if (out == null) {
+      out = response.getOutputStream();
+    }
+    return out;
+  }
+}
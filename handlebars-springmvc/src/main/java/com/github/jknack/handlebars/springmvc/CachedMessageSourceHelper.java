@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.springmvc;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import com.github.jknack.handlebars.Options;
+
+/**
+ * A {@link MessageSourceHelper} that caches what it gets from the {@link MessageSource}:
+ * <ul>
+ * <li>Messages without arguments are cached by code and locale.</li>
+ * <li>Messages with arguments are cached as a parsed {@link MessageFormat} by code and locale. A
+ * format is cached only if it renders the same output as the message source the first time,
+ * otherwise the message source is always called for that code.</li>
+ * <li>Messages with a default value or with {@link MessageSourceResolvable} arguments are never
+ * cached.</li>
+ * </ul>
+ * The cache is cleared every time the application context is refreshed or by calling
+ * {@link #clear()}. Don't use it with message sources that reload messages on their own or with
+ * <code>alwaysUseMessageFormat</code> turned on.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ * @see HandlebarsViewResolver#setCacheMessages(boolean)
+ */
+public class CachedMessageSourceHelper extends MessageSourceHelper
+    implements ApplicationListener<ContextRefreshedEvent> {
+
+  /**
+   * Mark a code whose format can't be cached.
+   */
+  private static final Object UNCACHEABLE = new Object();
+
+  /**
+   * The message source.
+   */
+  private final MessageSource source;
+
+  /**
+   * Messages without arguments by locale and code.
+   */
+  private final ConcurrentMap<Locale, ConcurrentMap<String, Object>> messages =
+      new ConcurrentHashMap<Locale, ConcurrentMap<String, Object>>();
+
+  /**
+   * Parsed formats by locale and code.
+   */
+  private final ConcurrentMap<Locale, ConcurrentMap<String, Object>> formats =
+      new ConcurrentHashMap<Locale, ConcurrentMap<String, Object>>();
+
+  /**
+   * Creates a new {@link CachedMessageSourceHelper}.
+   *
+   * @param messageSource The message source. Required.
+   */
+  public CachedMessageSourceHelper(final MessageSource messageSource) {
+    super(messageSource);
+    this.source = messageSource;
+  }
+
+  @Override
+  public CharSequence apply(final String code, final Options options)
+      throws IOException {
+    Object[] args = options.params;
+    if (options.hash("default") != null || resolvable(args)) {
+      return super.apply(code, options);
+    }
+    Locale locale = currentLocale();
+    if (args.length == 0) {
+      ConcurrentMap<String, Object> table = table(messages, locale);
+      Object message = table.get(code);
+      if (message == null) {
+        message = source.getMessage(code, args, null, locale);
+        if (message != null) {
+          table.putIfAbsent(code, message);
+        }
+      }
+      return (String) message;
+    }
+    ConcurrentMap<String, Object> table = table(formats, locale);
+    Object format = table.get(code);
+    if (format == null) {
+      String message = source.getMessage(code, args, null, locale);
+      table.putIfAbsent(code, parse(code, args, locale, message));
+      return message;
+    }
+    if (format == UNCACHEABLE) {
+      return source.getMessage(code, args, null, locale);
+    }
+    synchronized (format) {
+      return ((MessageFormat) format).format(args);
+    }
+  }
+
+  /**
+   * Parse the message pattern and check it renders the same output as the message source.
+   *
+   * @param code The message's code.
+   * @param args The message's arguments.
+   * @param locale The current locale.
+   * @param message The message rendered by the message source.
+   * @return A message format or {@link #UNCACHEABLE}.
+   */
+  private Object parse(final String code, final Object[] args, final Locale locale,
+      final String message) {
+    String pattern = source.getMessage(code, null, null, locale);
+    if (pattern == null || message == null) {
+      return UNCACHEABLE;
+    }
+    try {
+      MessageFormat format = new MessageFormat(pattern, locale);
+      return message.equals(format.format(args)) ? format : UNCACHEABLE;
+    } catch (IllegalArgumentException ex) {
+      return UNCACHEABLE;
+    }
+  }
+
+  /**
+   * True, if any of the arguments must be resolved by the message source.
+   *
+   * @param args The message's arguments.
+   * @return True, if any of the arguments must be resolved by the message source.
+   */
+  private static boolean resolvable(final Object[] args) {
+    for (Object arg : args) {
+      if (arg instanceof MessageSourceResolvable) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the cache table of a locale.
+   *
+   * @param cache The cache.
+   * @param locale The locale.
+   * @return The cache table of the locale.
+   */
+  private static ConcurrentMap<String, Object> table(
+      final ConcurrentMap<Locale, ConcurrentMap<String, Object>> cache, final Locale locale) {
+    ConcurrentMap<String, Object> table = cache.get(locale);
+    if (table == null) {
+      table = new ConcurrentHashMap<String, Object>();
+      ConcurrentMap<String, Object> existing = cache.putIfAbsent(locale, table);
+      if (existing != null) {
+        table = existing;
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Remove all the cached messages and formats.
+   */
+  public void clear() {
+    messages.clear();
+    formats.clear();
+  }
+
+  /**
+   * Clear the cache on application context refresh.
+   *
+   * @param event The refresh event.
+   */
+  @Override
+  public void onApplicationEvent(final ContextRefreshedEvent event) {
+    clear();
+  }
+}
@@ -17,12 +17,16 @@
  */
 package com.github.jknack.handlebars.springmvc;
 
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notEmpty;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -32,9 +36,13 @@ import org.springframework.web.servlet.view.AbstractTemplateView;
 import com.github.jknack.handlebars.Context;
 import com.github.jknack.handlebars.Template;
 import com.github.jknack.handlebars.ValueResolver;
+import com.github.jknack.handlebars.context.DispatchingValueResolver;
 
 /**
- * A handlebars view implementation.
+ * A handlebars view implementation. By default, it renders through
+ * {@link HttpServletResponse#getWriter()}. With a buffer size, it writes bytes to
+ * {@link HttpServletResponse#getOutputStream()} instead: static text is encoded once, dynamic
+ * values on the fly and the content length is set if the output fits in the buffer.
  *
  * @author edgar.espina
  * @since 0.1.0
@@ -47,9 +55,26 @@ public class HandlebarsView extends AbstractTemplateView {
   private Template template;
 
   /**
-   * The value's resolvers.
+   * The value's resolvers, created once per view.
    */
-  private ValueResolver[] valueResolvers;
+  private ValueResolver valueResolver;
+
+  /**
+   * Buffer size in bytes of the byte-streaming rendering or zero to render through
+   * {@link HttpServletResponse#getWriter()}.
+   */
+  private int bufferSize;
+
+  /**
+   * True, if the byte-streaming rendering flushes the response every time the buffer is written.
+   */
+  private boolean flushBuffer;
+
+  /**
+   * Static text of the template already encoded, by charset.
+   */
+  private final ConcurrentMap<Charset, Map<String, byte[]>> encoded =
+      new ConcurrentHashMap<Charset, Map<String, byte[]>>();
 
   /**
    * Merge model into the view. {@inheritDoc}
@@ -58,16 +83,52 @@ public class HandlebarsView extends AbstractTemplateView {
   protected void renderMergedTemplateModel(final Map<String, Object> model,
       final HttpServletRequest request, final HttpServletResponse response)
       throws IOException {
-    Context context = Context.newBuilder(model)
-        .resolver(valueResolvers)
-        .build();
+    Context context = newContext(model);
     try {
-      template.apply(context, response.getWriter());
+      if (bufferSize > 0) {
+        Charset charset = Charset.forName(response.getCharacterEncoding());
+        ByteStreamWriter writer = new ByteStreamWriter(response, charset, encoded(charset),
+            bufferSize, flushBuffer);
+        template.apply(context, writer);
+        writer.close();
+      } else {
+        template.apply(context, response.getWriter());
+      }
     } finally {
       context.destroy();
     }
   }
 
+  /**
+   * Creates the rendering context of a model. The caller must destroy it.
+   *
+   * @param model The merged model.
+   * @return A new context.
+   */
+  protected Context newContext(final Map<String, Object> model) {
+    return Context.newBuilder(model)
+        .resolver(valueResolver)
+        .build();
+  }
+
+  /**
+   * Get the encoded static text for a charset.
+   *
+   * @param charset The response's charset.
+   * @return The encoded static text.
+   */
+  private Map<String, byte[]> encoded(final Charset charset) {
+    Map<String, byte[]> text = encoded.get(charset);
+    if (text == null) {
+      text = new ConcurrentHashMap<String, byte[]>();
+      Map<String, byte[]> existing = encoded.putIfAbsent(charset, text);
+      if (existing != null) {
+        text = existing;
+      }
+    }
+    return text;
+  }
+
   /**
    * @return The underlying template for this view.
    */
@@ -90,13 +151,35 @@ public class HandlebarsView extends AbstractTemplateView {
   }
 
   /**
-   * Set the value resolvers.
+   * Set the value resolvers. They are combined into a {@link DispatchingValueResolver}, which
+   * learns per model class the resolvers it can skip and lives as long as this view.
    *
    * @param valueResolvers The value resolvers. Required.
    */
   void setValueResolver(final ValueResolver... valueResolvers) {
-    this.valueResolvers = notEmpty(valueResolvers,
-        "At least one value-resolver must be present.");
+    this.valueResolver = new DispatchingValueResolver(notEmpty(valueResolvers,
+        "At least one value-resolver must be present."));
+  }
+
+  /**
+   * Set the buffer size of the byte-streaming rendering. Zero (the default) renders through
+   * {@link HttpServletResponse#getWriter()}.
+   *
+   * @param bufferSize Buffer size in bytes, zero or positive.
+   */
+  void setBufferSize(final int bufferSize) {
+    isTrue(bufferSize >= 0, "Invalid buffer size: %s", bufferSize);
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Set the flush policy of the byte-streaming rendering.
+   *
+   * @param flushBuffer True, for flushing the response every time the buffer is written. False
+   *        (the default), lets the container decide.
+   */
+  void setFlushBuffer(final boolean flushBuffer) {
+    this.flushBuffer = flushBuffer;
   }
 
   @Override
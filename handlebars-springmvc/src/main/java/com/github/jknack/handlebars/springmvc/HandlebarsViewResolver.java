@@ -17,6 +17,7 @@
  */
 package com.github.jknack.handlebars.springmvc;
 
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notEmpty;
 import static org.apache.commons.lang3.Validate.notNull;
 
@@ -36,6 +37,7 @@ import java.util.Set;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.MessageSource;
 import org.springframework.web.servlet.ViewResolver;
 import org.springframework.web.servlet.view.AbstractTemplateViewResolver;
@@ -46,6 +48,9 @@ import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.HelperRegistry;
 import com.github.jknack.handlebars.ValueResolver;
+import com.github.jknack.handlebars.cache.BoundedTemplateCache;
+import com.github.jknack.handlebars.cache.NullTemplateCache;
+import com.github.jknack.handlebars.cache.TemplateCache;
 import com.github.jknack.handlebars.helper.DefaultHelperRegistry;
 import com.github.jknack.handlebars.helper.I18nHelper;
 import com.github.jknack.handlebars.helper.I18nSource;
@@ -66,6 +71,12 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
    */
   public static final String DEFAULT_CONTENT_TYPE = "text/html;charset=UTF-8";
 
+  /**
+   * The default bean's name of the {@link TemplateCacheStatistics}.
+   */
+  public static final String DEFAULT_CACHE_STATISTICS_BEAN_NAME =
+      "handlebarsTemplateCacheStatistics";
+
   /**
    * The handlebars object.
    */
@@ -89,6 +100,9 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
   /** True, if the message helper (based on {@link MessageSource}) should be registered. */
   private boolean registerMessageHelper = true;
 
+  /** True, if the message helper should cache messages. */
+  private boolean cacheMessages;
+
   /**
    * If true, the i18n helpers will use a {@link MessageSource} instead of a plain
    * {@link ResourceBundle} .
@@ -115,6 +129,24 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
   /** Location of the handlebars.js file. */
   private String handlebarsJsFile;
 
+  /** Buffer size of the byte-streaming rendering or zero. */
+  private int bufferSize;
+
+  /** Flush policy of the byte-streaming rendering. */
+  private boolean flushBuffer;
+
+  /** Maximum number of templates of the default template cache or zero. */
+  private int templateCacheSize = BoundedTemplateCache.DEFAULT_MAXIMUM_SIZE;
+
+  /** The tenant/theme discriminator or null. */
+  private TemplateDiscriminator discriminator;
+
+  /** Bean's name of the template cache statistics or null. */
+  private String cacheStatisticsBeanName = DEFAULT_CACHE_STATISTICS_BEAN_NAME;
+
+  /** The template cache statistics or null. */
+  private TemplateCacheStatistics cacheStatistics;
+
   /**
    * Creates a new {@link HandlebarsViewResolver}.
    *
@@ -161,6 +193,8 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
     try {
       view.setTemplate(handlebars.compile(url));
       view.setValueResolver(valueResolvers);
+      view.setBufferSize(bufferSize);
+      view.setFlushBuffer(flushBuffer);
     } catch (IOException ex) {
       if (failOnMissingFile) {
         throw ex;
@@ -170,6 +204,23 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
     return view;
   }
 
+  /**
+   * Add the current tenant/theme discriminator (if any) to the default cache key, so each
+   * discriminator gets its own views.
+   *
+   * @param viewName The view's name.
+   * @param locale The locale.
+   * @return A cache key.
+   */
+  @Override
+  protected Object getCacheKey(final String viewName, final Locale locale) {
+    String name = discriminator == null ? null : discriminator.discriminator();
+    if (name == null || name.length() == 0) {
+      return super.getCacheKey(viewName, locale);
+    }
+    return name + "/" + super.getCacheKey(viewName, locale);
+  }
+
   /**
    * The required view class.
    *
@@ -191,6 +242,15 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
 
     handlebars.with(registry);
 
+    if (templateCacheSize > 0 && handlebars.getCache() == NullTemplateCache.INSTANCE) {
+      handlebars.with(new BoundedTemplateCache(templateCacheSize));
+    }
+    TemplateCache cache = handlebars.getCache();
+    if (cache instanceof BoundedTemplateCache) {
+      cacheStatistics = new TemplateCacheStatistics((BoundedTemplateCache) cache);
+      registerCacheStatistics(getApplicationContext(), cacheStatistics);
+    }
+
     if (handlebarsJsFile != null) {
       handlebars.handlebarsJsFile(handlebarsJsFile);
     }
@@ -203,7 +263,7 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
 
     if (registerMessageHelper) {
       // Add a message source helper
-      handlebars.registerHelper("message", new MessageSourceHelper(getApplicationContext()));
+      handlebars.registerHelper("message", createMessageHelper(getApplicationContext()));
     }
 
     if (bindI18nToMessageSource) {
@@ -217,6 +277,43 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
     handlebars.setDeletePartialAfterMerge(deletePartialAfterMerge);
   }
 
+  /**
+   * Creates the message helper. A cached helper is cleared on application context refresh.
+   *
+   * @param context The application context.
+   * @return A new message helper.
+   */
+  private MessageSourceHelper createMessageHelper(final ApplicationContext context) {
+    if (!cacheMessages) {
+      return new MessageSourceHelper(context);
+    }
+    CachedMessageSourceHelper helper = new CachedMessageSourceHelper(context);
+    if (context instanceof ConfigurableApplicationContext) {
+      ((ConfigurableApplicationContext) context).addApplicationListener(helper);
+    }
+    return helper;
+  }
+
+  /**
+   * Publish the template cache statistics as a singleton bean, unless a bean with the same name
+   * already exists.
+   *
+   * @param context The application context.
+   * @param statistics The template cache statistics.
+   */
+  private void registerCacheStatistics(final ApplicationContext context,
+      final TemplateCacheStatistics statistics) {
+    if (cacheStatisticsBeanName == null || !(context instanceof ConfigurableApplicationContext)) {
+      return;
+    }
+    if (context.containsBean(cacheStatisticsBeanName)) {
+      logger.debug("Bean already exists: " + cacheStatisticsBeanName);
+      return;
+    }
+    ((ConfigurableApplicationContext) context).getBeanFactory()
+        .registerSingleton(cacheStatisticsBeanName, statistics);
+  }
+
   /**
    * Creates a new i18n source.
    *
@@ -262,7 +359,8 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
    */
   protected URLTemplateLoader createTemplateLoader(
       final ApplicationContext context) {
-    URLTemplateLoader templateLoader = new SpringTemplateLoader(context);
+    SpringTemplateLoader templateLoader = new SpringTemplateLoader(context);
+    templateLoader.setDiscriminator(discriminator);
     // Override prefix and suffix.
     templateLoader.setPrefix(getPrefix());
     templateLoader.setSuffix(getSuffix());
@@ -282,6 +380,16 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
     return handlebars;
   }
 
+  /**
+   * The statistics of the default template cache.
+   *
+   * @return The statistics of the default template cache or <code>null</code> if the template
+   *         cache was disabled or replaced.
+   */
+  public TemplateCacheStatistics getCacheStatistics() {
+    return cacheStatistics;
+  }
+
   /**
    * Set the value resolvers.
    *
@@ -509,6 +617,16 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
     this.registerMessageHelper = registerMessageHelper;
   }
 
+  /**
+   * True, if the message helper should cache messages and formats, see
+   * {@link CachedMessageSourceHelper}. Default is: false.
+   *
+   * @param cacheMessages True, if the message helper should cache messages and formats.
+   */
+  public void setCacheMessages(final boolean cacheMessages) {
+    this.cacheMessages = cacheMessages;
+  }
+
   /**
    * @param bindI18nToMessageSource If true, the i18n helpers will use a {@link MessageSource}
    *        instead of a plain {@link ResourceBundle}. Default is: false.
@@ -532,4 +650,62 @@ public class HandlebarsViewResolver extends AbstractTemplateViewResolver
   public void setDeletePartialAfterMerge(final boolean deletePartialAfterMerge) {
     this.deletePartialAfterMerge = deletePartialAfterMerge;
   }
+
+  /**
+   * Render views to {@link javax.servlet.http.HttpServletResponse#getOutputStream()} through a
+   * byte buffer of the given size. Static text of templates is encoded once and reused, dynamic
+   * values are encoded on the fly. If the output fits in the buffer, the content length is set.
+   * Default is: zero, which renders through
+   * {@link javax.servlet.http.HttpServletResponse#getWriter()}.
+   *
+   * @param bufferSize Buffer size in bytes, zero or positive.
+   */
+  public void setBufferSize(final int bufferSize) {
+    isTrue(bufferSize >= 0, "Invalid buffer size: %s", bufferSize);
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Flush policy of the byte-streaming rendering, see {@link #setBufferSize(int)}.
+   *
+   * @param flushBuffer True, for flushing the response every time the buffer is written, useful
+   *        for sending large pages progressively. Default is: false, which lets the container
+   *        decide.
+   */
+  public void setFlushBuffer(final boolean flushBuffer) {
+    this.flushBuffer = flushBuffer;
+  }
+
+  /**
+   * Maximum number of templates (including partials) kept by the default template cache. The
+   * cache is installed only if {@link #createHandlebars(URLTemplateLoader)} didn't set one.
+   * Default is: {@link BoundedTemplateCache#DEFAULT_MAXIMUM_SIZE}.
+   *
+   * @param templateCacheSize Maximum number of templates or zero to turn off the default cache.
+   */
+  public void setTemplateCacheSize(final int templateCacheSize) {
+    isTrue(templateCacheSize >= 0, "Invalid template cache size: %s", templateCacheSize);
+    this.templateCacheSize = templateCacheSize;
+  }
+
+  /**
+   * Set a tenant/theme discriminator. Views are cached per discriminator and templates are looked
+   * up first under a directory named as the discriminator, see {@link TemplateDiscriminator}.
+   *
+   * @param discriminator The discriminator or <code>null</code> to use the shared templates only.
+   */
+  public void setDiscriminator(final TemplateDiscriminator discriminator) {
+    this.discriminator = discriminator;
+  }
+
+  /**
+   * Bean's name of the {@link TemplateCacheStatistics}. Default is:
+   * {@link #DEFAULT_CACHE_STATISTICS_BEAN_NAME}.
+   *
+   * @param cacheStatisticsBeanName The bean's name or <code>null</code> to not publish the
+   *        statistics.
+   */
+  public void setCacheStatisticsBeanName(final String cacheStatisticsBeanName) {
+    this.cacheStatisticsBeanName = cacheStatisticsBeanName;
+  }
 }
@@ -17,6 +17,7 @@
  */
 package com.github.jknack.handlebars.springmvc;
 
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import java.io.IOException;
@@ -48,6 +49,11 @@ public class SpringTemplateLoader extends URLTemplateLoader {
    */
   private ResourceLoader loader;
 
+  /**
+   * The tenant/theme discriminator or null.
+   */
+  private TemplateDiscriminator discriminator;
+
   /**
    * Creates a new {@link SpringTemplateLoader}.
    *
@@ -66,6 +72,17 @@ public class SpringTemplateLoader extends URLTemplateLoader {
     this((ResourceLoader) applicationContext);
   }
 
+  /**
+   * Set a tenant/theme discriminator. Templates are looked up first under a directory named as
+   * the current discriminator and then under the shared prefix. Discriminator values can't
+   * contain <code>..</code>, <code>/</code> or <code>\</code>.
+   *
+   * @param discriminator The discriminator or <code>null</code> to use the shared templates only.
+   */
+  public void setDiscriminator(final TemplateDiscriminator discriminator) {
+    this.discriminator = discriminator;
+  }
+
   @Override
   protected URL getResource(final String location) throws IOException {
     Resource resource = loader.getResource(location);
@@ -75,18 +92,50 @@ public class SpringTemplateLoader extends URLTemplateLoader {
     return resource.getURL();
   }
 
+  /**
+   * Resolve a location. If there is a discriminator and the location exists under the
+   * discriminator's directory, the discriminator's location is returned. Lookups, error messages
+   * and template dependencies all go through here, so they agree on the same location.
+   *
+   * @param location The candidate location.
+   * @return The resolved location.
+   */
   @Override
   public String resolve(final String location) {
-    String protocol = null;
+    String protocol = protocol(location);
+    if (protocol != null) {
+      return protocol + super.resolve(location.substring(protocol.length()));
+    }
+    String name = discriminator == null ? null : discriminator.discriminator();
+    if (name != null && name.length() > 0) {
+      isTrue(!name.contains("..") && name.indexOf('/') < 0 && name.indexOf('\\') < 0,
+          "Invalid discriminator: %s", name);
+      String candidate = super.resolve(name + "/" + normalize(location));
+      try {
+        if (getResource(candidate) != null) {
+          return candidate;
+        }
+      } catch (IOException ex) {
+        // fallback to the shared template
+        return super.resolve(location);
+      }
+    }
+    return super.resolve(location);
+  }
+
+  /**
+   * Find the Spring resource protocol of a location.
+   *
+   * @param location The candidate location.
+   * @return The resource protocol or <code>null</code>.
+   */
+  private static String protocol(final String location) {
     if (location.startsWith(ResourceUtils.CLASSPATH_URL_PREFIX)) {
-      protocol = ResourceUtils.CLASSPATH_URL_PREFIX;
+      return ResourceUtils.CLASSPATH_URL_PREFIX;
     } else if (location.startsWith(ResourceUtils.FILE_URL_PREFIX)) {
-      protocol = ResourceUtils.FILE_URL_PREFIX;
-    }
-    if (protocol == null) {
-      return super.resolve(location);
+      return ResourceUtils.FILE_URL_PREFIX;
     }
-    return protocol + super.resolve(location.substring(protocol.length()));
+    return null;
   }
 
 }
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.springmvc;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.github.jknack.handlebars.cache.BoundedTemplateCache;
+
+/**
+ * Expose the statistics of the {@link BoundedTemplateCache} of a {@link HandlebarsViewResolver}
+ * as a Spring bean. The bean is annotated for the Spring JMX exporter, so it can be published as
+ * an MBean without any extra configuration.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ * @see HandlebarsViewResolver#setCacheStatisticsBeanName(String)
+ */
+@ManagedResource(description = "Handlebars template cache")
+public class TemplateCacheStatistics {
+
+  /**
+   * The template cache.
+   */
+  private final BoundedTemplateCache cache;
+
+  /**
+   * Creates a new {@link TemplateCacheStatistics}.
+   *
+   * @param cache The template cache. Required.
+   */
+  public TemplateCacheStatistics(final BoundedTemplateCache cache) {
+    this.cache = notNull(cache, "The cache is required.");
+  }
+
+  /**
+   * Number of templates currently in the cache.
+   *
+   * @return Number of templates currently in the cache.
+   */
+  @ManagedAttribute(description = "Number of templates currently in the cache")
+  public int getSize() {
+    return cache.size();
+  }
+
+  /**
+   * The maximum number of templates to keep.
+   *
+   * @return The maximum number of templates to keep.
+   */
+  @ManagedAttribute(description = "The maximum number of templates to keep")
+  public int getMaximumSize() {
+    return cache.maximumSize();
+  }
+
+  /**
+   * Number of templates found in the cache.
+   *
+   * @return Number of templates found in the cache.
+   */
+  @ManagedAttribute(description = "Number of templates found in the cache")
+  public long getHitCount() {
+    return cache.hitCount();
+  }
+
+  /**
+   * Number of templates parsed because they weren't in the cache.
+   *
+   * @return Number of templates parsed because they weren't in the cache.
+   */
+  @ManagedAttribute(description = "Number of templates parsed because they weren't in the cache")
+  public long getMissCount() {
+    return cache.missCount();
+  }
+
+  /**
+   * Number of templates parsed again because the source changed.
+   *
+   * @return Number of templates parsed again because the source changed.
+   */
+  @ManagedAttribute(description = "Number of templates parsed again because the source changed")
+  public long getReloadCount() {
+    return cache.reloadCount();
+  }
+
+  /**
+   * Number of templates removed because the cache was full.
+   *
+   * @return Number of templates removed because the cache was full.
+   */
+  @ManagedAttribute(description = "Number of templates removed because the cache was full")
+  public long getEvictionCount() {
+    return cache.evictionCount();
+  }
+
+  /**
+   * Ratio of lookups served from the cache.
+   *
+   * @return Ratio of lookups served from the cache.
+   */
+  @ManagedAttribute(description = "Ratio of lookups served from the cache")
+  public double getHitRate() {
+    return cache.hitRate();
+  }
+
+  /**
+   * Time spent parsing templates in milliseconds.
+   *
+   * @return Time spent parsing templates in milliseconds.
+   */
+  @ManagedAttribute(description = "Time spent parsing templates in milliseconds")
+  public long getLoadTimeMillis() {
+    return cache.loadTime(TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Remove all the templates from the cache.
+   */
+  @ManagedOperation(description = "Remove all the templates from the cache")
+  public void clear() {
+    cache.clear();
+  }
+
+  @Override
+  public String toString() {
+    return cache.toString();
+  }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.springmvc;
+
+/**
+ * Resolve the tenant, theme or any other discriminator of the current request. Templates of a
+ * discriminator live in a directory with the same name under the prefix of the view resolver and
+ * fallback to the shared templates when missing, like:
+ *
+ * <pre>
+ * /WEB-INF/views/home.hbs
+ * /WEB-INF/views/acme/home.hbs
+ * </pre>
+ *
+ * Implementations are usually backed by a request or thread scoped value, like a
+ * {@link org.springframework.web.context.request.RequestContextHolder request attribute}.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ * @see HandlebarsViewResolver#setDiscriminator(TemplateDiscriminator)
+ */
+public interface TemplateDiscriminator {
+
+  /**
+   * The discriminator of the current request.
+   *
+   * @return The discriminator of the current request or <code>null</code> for the shared
+   *         templates.
+   */
+  String discriminator();
+
+}
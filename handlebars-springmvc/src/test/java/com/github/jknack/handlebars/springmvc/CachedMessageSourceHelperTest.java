@@ -0,0 +1,123 @@
+package com.github.jknack.handlebars.springmvc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.support.StaticMessageSource;
+
+import com.github.jknack.handlebars.Handlebars;
+
+public class CachedMessageSourceHelperTest {
+
+  static class CountingMessageSource implements MessageSource {
+    MessageSource source;
+
+    int calls;
+
+    CountingMessageSource(final MessageSource source) {
+      this.source = source;
+    }
+
+    @Override
+    public String getMessage(final String code, final Object[] args, final String defaultMessage,
+        final Locale locale) {
+      calls++;
+      return source.getMessage(code, args, defaultMessage, locale);
+    }
+
+    @Override
+    public String getMessage(final String code, final Object[] args, final Locale locale) {
+      calls++;
+      return source.getMessage(code, args, locale);
+    }
+
+    @Override
+    public String getMessage(final MessageSourceResolvable resolvable, final Locale locale) {
+      calls++;
+      return source.getMessage(resolvable, locale);
+    }
+  }
+
+  private StaticMessageSource messageSource;
+
+  private CountingMessageSource counting;
+
+  private CachedMessageSourceHelper helper;
+
+  private Handlebars handlebars;
+
+  @Before
+  public void setup() {
+    LocaleContextHolder.setLocale(Locale.ENGLISH);
+    messageSource = new StaticMessageSource();
+    messageSource.addMessage("hello", Locale.ENGLISH, "Hello!");
+    messageSource.addMessage("hello", Locale.GERMAN, "Hallo!");
+    messageSource.addMessage("hello.0", Locale.ENGLISH, "Hello {0}!");
+    messageSource.addMessage("quote.0", Locale.ENGLISH, "It''s {0}");
+    counting = new CountingMessageSource(messageSource);
+    helper = new CachedMessageSourceHelper(counting);
+    handlebars = new Handlebars().registerHelper("message", helper);
+  }
+
+  @After
+  public void cleanup() {
+    LocaleContextHolder.resetLocaleContext();
+  }
+
+  @Test
+  public void messageWithoutArguments() throws IOException {
+    assertEquals("Hello!", apply("{{message \"hello\"}}"));
+    assertEquals("Hello!", apply("{{message \"hello\"}}"));
+    assertEquals(1, counting.calls);
+
+    LocaleContextHolder.setLocale(Locale.GERMAN);
+    assertEquals("Hallo!", apply("{{message \"hello\"}}"));
+    assertEquals(2, counting.calls);
+  }
+
+  @Test
+  public void messageWithArguments() throws IOException {
+    assertEquals("Hello x!", apply("{{message \"hello.0\" \"x\"}}"));
+    int calls = counting.calls;
+    assertEquals("Hello y!", apply("{{message \"hello.0\" \"y\"}}"));
+    assertEquals("Hello 1,000!", apply("{{message \"hello.0\" 1000}}"));
+    assertEquals(calls, counting.calls);
+  }
+
+  @Test
+  public void messageWithDefaultValue() throws IOException {
+    assertEquals("hey", apply("{{message \"hi\" default=\"hey\"}}"));
+    assertEquals("hey", apply("{{message \"hi\" default=\"hey\"}}"));
+    assertEquals(2, counting.calls);
+  }
+
+  @Test
+  public void uncacheableFormat() throws IOException {
+    messageSource.setAlwaysUseMessageFormat(true);
+
+    assertEquals("It's x", apply("{{{message \"quote.0\" \"x\"}}}"));
+    int calls = counting.calls;
+    assertEquals("It's y", apply("{{{message \"quote.0\" \"y\"}}}"));
+    assertEquals(calls + 1, counting.calls);
+  }
+
+  @Test
+  public void clear() throws IOException {
+    apply("{{message \"hello\"}}");
+    helper.clear();
+    apply("{{message \"hello\"}}");
+    assertEquals(2, counting.calls);
+  }
+
+  private String apply(final String template) throws IOException {
+    return handlebars.compileInline(template).apply(new Object());
+  }
+}
@@ -3,6 +3,7 @@ package com.github.jknack.handlebars.springmvc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.Locale;
@@ -12,6 +13,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.web.servlet.View;
@@ -30,6 +32,9 @@ public class HandlebarsViewResolverIntegrationTest {
   @Qualifier("viewResolverWithoutMessageHelper")
   HandlebarsViewResolver viewResolverWithoutMessageHelper;
 
+  @Autowired
+  ApplicationContext applicationContext;
+
   @Test
   public void getHandlebars() throws Exception {
     assertNotNull(viewResolver);
@@ -180,4 +185,33 @@ public class HandlebarsViewResolverIntegrationTest {
     assertNotNull(viewResolverWithoutMessageHelper);
     assertNull(viewResolverWithoutMessageHelper.helper("message"));
   }
+
+  @Test
+  public void templateCacheStatistics() throws Exception {
+    TemplateCacheStatistics statistics = viewResolver.getCacheStatistics();
+    assertNotNull(statistics);
+
+    Object bean = applicationContext
+        .getBean(HandlebarsViewResolver.DEFAULT_CACHE_STATISTICS_BEAN_NAME);
+    assertTrue(bean == statistics || bean == viewResolverWithoutMessageHelper.getCacheStatistics());
+
+    long hits = statistics.getHitCount();
+    viewResolver.resolveViewName("template", Locale.getDefault());
+    viewResolver.resolveViewName("template", Locale.getDefault());
+    assertTrue(statistics.getHitCount() > hits);
+  }
+
+  @Test
+  public void cacheKeyWithDiscriminator() throws Exception {
+    HandlebarsViewResolver viewResolver = new HandlebarsViewResolver();
+    assertEquals("home", viewResolver.getCacheKey("home", Locale.ENGLISH));
+
+    viewResolver.setDiscriminator(new TemplateDiscriminator() {
+      @Override
+      public String discriminator() {
+        return "acme";
+      }
+    });
+    assertEquals("acme/home", viewResolver.getCacheKey("home", Locale.ENGLISH));
+  }
 }
@@ -23,9 +23,14 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
@@ -33,8 +38,10 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.easymock.Capture;
 import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import com.github.jknack.handlebars.Context;
+import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Template;
 import com.github.jknack.handlebars.context.MapValueResolver;
 
@@ -73,4 +80,57 @@ public class HandlebarsViewTest {
 
     verify(template, model, request, response);
   }
+
+  @Test
+  public void renderToOutputStream() throws Exception {
+    Template template = new Handlebars().compileInline("<p>{{name}} \u00e9</p>");
+
+    HandlebarsView view = new HandlebarsView();
+    view.setValueResolver(MapValueResolver.INSTANCE);
+    view.setTemplate(template);
+    view.setBufferSize(1024);
+    for (int i = 0; i < 2; i++) {
+      MockHttpServletResponse response = new MockHttpServletResponse();
+      response.setCharacterEncoding("UTF-8");
+      view.renderMergedTemplateModel(model("name", "\u20ac<"), null, response);
+
+      byte[] expected = "<p>\u20ac&lt; \u00e9</p>".getBytes("UTF-8");
+      assertArrayEquals(expected, response.getContentAsByteArray());
+      assertEquals(expected.length, response.getContentLength());
+    }
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setCharacterEncoding("ISO-8859-1");
+    view.renderMergedTemplateModel(model("name", "x"), null, response);
+    assertArrayEquals("<p>x \u00e9</p>".getBytes("ISO-8859-1"),
+        response.getContentAsByteArray());
+  }
+
+  @Test
+  public void renderToOutputStreamWithSmallBuffer() throws Exception {
+    Template template = new Handlebars()
+        .compileInline("{{#each items}}<li>{{this}}</li>{{/each}} static text \u00e9");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setCharacterEncoding("UTF-8");
+
+    HandlebarsView view = new HandlebarsView();
+    view.setValueResolver(MapValueResolver.INSTANCE);
+    view.setTemplate(template);
+    view.setBufferSize(8);
+    view.setFlushBuffer(true);
+    view.renderMergedTemplateModel(model("items", Arrays.asList("\u20ac", "b", "\ud83d\ude00")),
+        null, response);
+
+    assertArrayEquals(
+        "<li>\u20ac</li><li>b</li><li>\ud83d\ude00</li> static text \u00e9".getBytes("UTF-8"),
+        response.getContentAsByteArray());
+    assertEquals(0, response.getContentLength());
+    assertTrue(response.isCommitted());
+  }
+
+  private Map<String, Object> model(final String name, final Object value) {
+    Map<String, Object> model = new HashMap<String, Object>();
+    model.put(name, value);
+    return model;
+  }
 }
@@ -1,5 +1,6 @@
 package com.github.jknack.handlebars.springmvc;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.IOException;
@@ -25,4 +26,57 @@ public class SpringTemplateLoaderTest {
   public void fileNotFound() throws IOException {
     new SpringTemplateLoader(new DefaultResourceLoader()).sourceAt("missingFile");
   }
+
+  @Test
+  public void sourceAtWithDiscriminator() throws IOException {
+    final String[] tenant = {"acme" };
+    SpringTemplateLoader loader =
+        new SpringTemplateLoader(new DefaultResourceLoader());
+    loader.setDiscriminator(new TemplateDiscriminator() {
+      @Override
+      public String discriminator() {
+        return tenant[0];
+      }
+    });
+
+    assertEquals("/acme/template.hbs", loader.sourceAt("template").filename());
+
+    tenant[0] = "other";
+    assertEquals("/template.hbs", loader.sourceAt("template").filename());
+
+    tenant[0] = null;
+    assertEquals("/template.hbs", loader.sourceAt("/template").filename());
+  }
+
+  @Test
+  public void resolveWithDiscriminator() throws IOException {
+    final String[] tenant = {"acme" };
+    SpringTemplateLoader loader =
+        new SpringTemplateLoader(new DefaultResourceLoader());
+    loader.setDiscriminator(new TemplateDiscriminator() {
+      @Override
+      public String discriminator() {
+        return tenant[0];
+      }
+    });
+
+    assertEquals("/acme/template.hbs", loader.resolve("template"));
+
+    tenant[0] = "other";
+    assertEquals("/template.hbs", loader.resolve("template"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void badDiscriminator() throws IOException {
+    SpringTemplateLoader loader =
+        new SpringTemplateLoader(new DefaultResourceLoader());
+    loader.setDiscriminator(new TemplateDiscriminator() {
+      @Override
+      public String discriminator() {
+        return "../acme";
+      }
+    });
+
+    loader.sourceAt("template");
+  }
 }
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.jknack.handlebars.io.TemplateSource;
+
+/**
+ * Outcome of compiling one template with {@link Handlebars#compileAll}: the template or the error
+ * that prevented it from being compiled, plus the time it took.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class CompileResult {
+
+  /**
+   * The template source.
+   */
+  private final TemplateSource source;
+
+  /**
+   * The compiled template or null.
+   */
+  private final Template template;
+
+  /**
+   * The compilation error or null.
+   */
+  private final Throwable error;
+
+  /**
+   * Compilation time in nanoseconds.
+   */
+  private final long nanos;
+
+  /**
+   * Creates a new {@link CompileResult}.
+   *
+   * @param source The template source. Required.
+   * @param template The compiled template or null.
+   * @param error The compilation error or null.
+   * @param nanos Compilation time in nanoseconds.
+   */
+  public CompileResult(final TemplateSource source, final Template template,
+      final Throwable error, final long nanos) {
+    this.source = notNull(source, "The source is required.");
+    this.template = template;
+    this.error = error;
+    this.nanos = nanos;
+  }
+
+  /**
+   * @return The template source.
+   */
+  public TemplateSource source() {
+    return source;
+  }
+
+  /**
+   * @return The compiled template or null, if the template failed to compile.
+   */
+  public Template template() {
+    return template;
+  }
+
+  /**
+   * @return The compilation error or null, if the template was compiled. Syntax errors are
+   *         reported as {@link HandlebarsException}. Errors, like a {@link StackOverflowError} on
+   *         deeply nested input, are reported too.
+   */
+  public Throwable error() {
+    return error;
+  }
+
+  /**
+   * @return True, if the template failed to compile.
+   */
+  public boolean failed() {
+    return error != null;
+  }
+
+  /**
+   * The time it took to compile the template, including the time spent waiting for the
+   * {@link com.github.jknack.handlebars.cache.TemplateCache}.
+   *
+   * @param unit The time unit. Required.
+   * @return The compilation time in the given unit.
+   */
+  public long time(final TimeUnit unit) {
+    return unit.convert(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    String status = error == null ? "ok" : error.getClass().getSimpleName();
+    return source.filename() + ": " + status + " in " + time(TimeUnit.MILLISECONDS) + "ms";
+  }
+}
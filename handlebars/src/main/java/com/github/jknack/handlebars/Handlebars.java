@@ -31,9 +31,11 @@ import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -41,6 +43,7 @@ import org.slf4j.Logger;
 import com.github.jknack.handlebars.cache.NullTemplateCache;
 import com.github.jknack.handlebars.cache.TemplateCache;
 import com.github.jknack.handlebars.helper.DefaultHelperRegistry;
+import com.github.jknack.handlebars.internal.BulkCompiler;
 import com.github.jknack.handlebars.internal.FormatterChain;
 import com.github.jknack.handlebars.internal.HbsParserFactory;
 import com.github.jknack.handlebars.io.ClassPathTemplateLoader;
@@ -190,6 +193,9 @@ public class Handlebars implements HelperRegistry {
       if (value instanceof Iterable) {
         return !((Iterable) value).iterator().hasNext();
       }
+      if (value instanceof Iterator) {
+        return !((Iterator) value).hasNext();
+      }
       if (value instanceof Boolean) {
         return !((Boolean) value).booleanValue();
       }
@@ -285,6 +291,11 @@ public class Handlebars implements HelperRegistry {
    */
   private TemplateCache cache = NullTemplateCache.INSTANCE;
 
+  /**
+   * The template dependency graph.
+   */
+  private final TemplateDependencies dependencies = new TemplateDependencies();
+
   /**
    * If true, missing helper parameters will be resolve to their names.
    */
@@ -409,8 +420,11 @@ public class Handlebars implements HelperRegistry {
       final String endDelimiter) throws IOException {
     notNull(input, "The input is required.");
     String filename = "inline@" + Integer.toHexString(Math.abs(input.hashCode()));
-    return compile(new StringTemplateSource(filename, input),
+    Template template = compile(new StringTemplateSource(filename, input),
         startDelimiter, endDelimiter);
+    // inline templates aren't loader-backed, don't keep them in the dependency graph
+    dependencies.remove(filename);
+    return template;
   }
 
   /**
@@ -443,6 +457,61 @@ public class Handlebars implements HelperRegistry {
     return template;
   }
 
+  /**
+   * <p>
+   * Compile many templates in parallel on the given executor and wait for them. Sources with the
+   * same filename are compiled once. Templates are compiled with
+   * {@link #compile(TemplateSource)}, so they end up in the configured {@link TemplateCache} and
+   * templates already in the cache (like partials shared by previous batches) aren't parsed
+   * again. Templates become visible in the cache one by one, as they are compiled.
+   * </p>
+   * <p>
+   * A template that fails to compile doesn't fail the batch: see {@link CompileResult#error()}.
+   * If the current thread is interrupted, it keeps waiting and the interrupt status is restored
+   * on return.
+   * </p>
+   *
+   * <pre>
+   * ExecutorService executor = Executors.newFixedThreadPool(4);
+   * for (CompileResult result : handlebars.compileAll(sources, executor)) {
+   *   if (result.failed()) {
+   *     log.error("Can't compile: " + result.source().filename(), result.error());
+   *   }
+   * }
+   * </pre>
+   *
+   * @param sources The template sources. Required.
+   * @param executor The executor used for compiling. Required.
+   * @return One result per source, in the same order.
+   */
+  public List<CompileResult> compileAll(final Collection<? extends TemplateSource> sources,
+      final Executor executor) {
+    return BulkCompiler.compileAll(this, sources, executor);
+  }
+
+  /**
+   * Compile the templates of a loader that match a glob pattern, in parallel on the given
+   * executor. The loader's prefix must be a directory, like in
+   * {@link com.github.jknack.handlebars.io.FileTemplateLoader}.
+   *
+   * <pre>
+   * handlebars.compileAll(new FileTemplateLoader("/tenants"), "acme/**", executor);
+   * </pre>
+   *
+   * @param loader The template loader. Required.
+   * @param glob A glob pattern matched against template locations (no prefix, no suffix):
+   *        <code>**</code> matches any path, <code>*</code> any name and <code>?</code> one char.
+   *        Required.
+   * @param executor The executor used for compiling. Required.
+   * @return One result per matching template, sorted by location.
+   * @throws IOException If templates can't be listed.
+   * @see #compileAll(Collection, Executor)
+   */
+  public List<CompileResult> compileAll(final TemplateLoader loader, final String glob,
+      final Executor executor) throws IOException {
+    return BulkCompiler.compileAll(this, BulkCompiler.list(loader, glob), executor);
+  }
+
   /**
    * Find a helper by name.
    *
@@ -750,6 +819,16 @@ public class Handlebars implements HelperRegistry {
     return cache;
   }
 
+  /**
+   * The partials, <code>block</code> and <code>embedded</code> templates used by the compiled
+   * templates.
+   *
+   * @return The template dependency graph.
+   */
+  public TemplateDependencies dependencies() {
+    return dependencies;
+  }
+
   /**
    * The escaping strategy.
    *
@@ -21,6 +21,7 @@ import static org.apache.commons.lang3.Validate.notEmpty;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -49,6 +50,145 @@ import java.util.Set;
  */
 public class Options {
 
+  /**
+   * Output buffer for helpers. A buffer is created with {@link Options#buffer()} and it is
+   * returned by the helper once it is done:
+   *
+   * <pre>
+   *   Buffer buffer = options.buffer();
+   *   for (Object item : items) {
+   *     buffer.append(options.fn(item));
+   *   }
+   *   return buffer;
+   * </pre>
+   *
+   * If the helper was invoked from a block, content appended to the buffer is written to the
+   * output immediately and the buffer itself is always empty. Otherwise, the buffer is backed by
+   * memory.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  public interface Buffer extends Appendable, CharSequence {
+  }
+
+  /**
+   * A memory {@link Buffer}.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private static class InMemoryBuffer implements Buffer {
+
+    /**
+     * The memory storage.
+     */
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Override
+    public Appendable append(final CharSequence csq) {
+      buffer.append(csq);
+      return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end) {
+      buffer.append(csq, start, end);
+      return this;
+    }
+
+    @Override
+    public Appendable append(final char c) {
+      buffer.append(c);
+      return this;
+    }
+
+    @Override
+    public int length() {
+      return buffer.length();
+    }
+
+    @Override
+    public char charAt(final int index) {
+      return buffer.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+      return buffer.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return buffer.toString();
+    }
+  }
+
+  /**
+   * A {@link Buffer} who writes directly to the output {@link Writer}. The buffer is always
+   * empty.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private static class NativeBuffer implements Buffer {
+
+    /**
+     * The output writer.
+     */
+    private final Writer writer;
+
+    /**
+     * Creates a new {@link NativeBuffer}.
+     *
+     * @param writer The output writer. Required.
+     */
+    public NativeBuffer(final Writer writer) {
+      this.writer = writer;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+      if (csq != null) {
+        writer.append(csq);
+      }
+      return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+        throws IOException {
+      writer.append(csq, start, end);
+      return this;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+      writer.append(c);
+      return this;
+    }
+
+    @Override
+    public int length() {
+      return 0;
+    }
+
+    @Override
+    public char charAt(final int index) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+      return "".subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return "";
+    }
+  }
+
   /**
    * An {@link Options} builder.
    *
@@ -97,6 +237,9 @@ public class Options {
     /** The name of the helper. */
     private String helperName;
 
+    /** The output writer. Optional. */
+    private Writer writer;
+
     /**
      * Creates a new {@link Builder}.
      *
@@ -123,8 +266,10 @@ public class Options {
     public Options build() {
       Options options = new Options(handlebars, helperName, tagType, context, fn, inverse, params,
           hash);
+      options.writer = writer;
       // clear out references
       handlebars = null;
+      writer = null;
       tagType = null;
       context = null;
       fn = null;
@@ -166,6 +311,17 @@ public class Options {
       this.params = notNull(params, "The params is required.");
       return this;
     }
+
+    /**
+     * Set the output writer. Helpers can write directly to it using {@link Options#buffer()}.
+     *
+     * @param writer The output writer. Required.
+     * @return This builder.
+     */
+    public Builder setWriter(final Writer writer) {
+      this.writer = notNull(writer, "The writer is required.");
+      return this;
+    }
   }
 
   /**
@@ -206,6 +362,9 @@ public class Options {
   /** The name of the helper. */
   public final String helperName;
 
+  /** The output writer. Optional. */
+  private Writer writer;
+
   /**
    * Creates a new Handlebars {@link Options}.
    *
@@ -252,6 +411,16 @@ public class Options {
     return apply(fn, context);
   }
 
+  /**
+   * Creates a {@link Buffer} for the helper's output. If an output writer is present, content
+   * appended to the buffer is written immediately, so a block helper can stream its output.
+   *
+   * @return A new buffer.
+   */
+  public Buffer buffer() {
+    return writer == null ? new InMemoryBuffer() : new NativeBuffer(writer);
+  }
+
   /**
    * Apply the {@link #inverse} template using the default context.
    *
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars;
+
+import java.io.IOException;
+
+/**
+ * A {@link java.io.Writer} that handles the static text of a template on its own. Templates call
+ * {@link #writeStatic(String)} instead of {@link java.io.Writer#append(CharSequence)} for plain
+ * text, which is the same on every call to {@link Template#apply(Context, java.io.Writer)}: a
+ * writer can, for example, encode it once and reuse the bytes.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public interface StaticTextWriter {
+
+  /**
+   * Write a chunk of static text. The same {@link String} instance is written every time the
+   * template is applied.
+   *
+   * @param text The static text.
+   * @throws IOException If the text can't be written.
+   */
+  void writeStatic(String text) throws IOException;
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * Keep track of the partials, <code>block</code> and <code>embedded</code> templates used by a
+ * template. The graph is updated every time a template is compiled, so it only knows about
+ * templates that have been compiled and dependencies with a static name. Inline templates (see
+ * {@link Handlebars#compileInline(String)}) aren't tracked.
+ * </p>
+ * <p>
+ * Templates are identified by their {@link com.github.jknack.handlebars.io.TemplateSource}
+ * filename.
+ * </p>
+ *
+ * <pre>
+ *   Set&lt;String&gt; affected = handlebars.dependencies().dependentsOf("/templates/header.hbs");
+ * </pre>
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class TemplateDependencies {
+
+  /**
+   * Dependencies by template.
+   */
+  private final Map<String, Set<String>> dependencies = new HashMap<String, Set<String>>();
+
+  /**
+   * Dependents by template.
+   */
+  private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+
+  /**
+   * Set the dependencies of a template. Previous dependencies are discarded.
+   *
+   * @param template The template's filename. Required.
+   * @param uses The filenames of the templates used by the given template. Required.
+   */
+  public synchronized void update(final String template, final Collection<String> uses) {
+    notNull(template, "The template is required.");
+    notNull(uses, "The dependencies are required.");
+    if (uses.isEmpty() && !dependencies.containsKey(template)) {
+      // nothing to do
+      return;
+    }
+    remove(template);
+    Set<String> edges = new LinkedHashSet<String>(uses);
+    edges.remove(template);
+    dependencies.put(template, edges);
+    for (String dependency : edges) {
+      Set<String> parents = dependents.get(dependency);
+      if (parents == null) {
+        parents = new LinkedHashSet<String>();
+        dependents.put(dependency, parents);
+      }
+      parents.add(template);
+    }
+  }
+
+  /**
+   * Remove the dependencies of a template. Templates depending on it aren't modified.
+   *
+   * @param template The template's filename. Required.
+   */
+  public synchronized void remove(final String template) {
+    notNull(template, "The template is required.");
+    Set<String> edges = dependencies.remove(template);
+    if (edges != null) {
+      for (String dependency : edges) {
+        Set<String> parents = dependents.get(dependency);
+        if (parents != null) {
+          parents.remove(template);
+          if (parents.isEmpty()) {
+            dependents.remove(dependency);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove all the dependencies.
+   */
+  public synchronized void clear() {
+    dependencies.clear();
+    dependents.clear();
+  }
+
+  /**
+   * The templates used directly by a template.
+   *
+   * @param template The template's filename. Required.
+   * @return The templates used directly by a template.
+   */
+  public synchronized Set<String> dependenciesOf(final String template) {
+    notNull(template, "The template is required.");
+    Set<String> edges = dependencies.get(template);
+    if (edges == null) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableSet(new LinkedHashSet<String>(edges));
+  }
+
+  /**
+   * The templates using a template directly or indirectly. The given template isn't included.
+   *
+   * @param template The template's filename. Required.
+   * @return The templates using a template directly or indirectly.
+   */
+  public synchronized Set<String> dependentsOf(final String template) {
+    notNull(template, "The template is required.");
+    Set<String> result = new LinkedHashSet<String>();
+    LinkedList<String> queue = new LinkedList<String>();
+    queue.add(template);
+    while (!queue.isEmpty()) {
+      Set<String> parents = dependents.get(queue.removeFirst());
+      if (parents != null) {
+        for (String parent : parents) {
+          if (!parent.equals(template) && result.add(parent)) {
+            queue.addLast(parent);
+          }
+        }
+      }
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Sort the given templates so dependencies come before the templates using them. Cycles are
+   * broken in the order the templates are provided. Useful for compiling templates ahead of time.
+   *
+   * @param templates The template's filenames. Required.
+   * @return The templates sorted in dependency order. Dependencies not present in the given
+   *         collection are ignored.
+   */
+  public synchronized List<String> order(final Collection<String> templates) {
+    notNull(templates, "The templates are required.");
+    Set<String> candidates = new LinkedHashSet<String>(templates);
+    List<String> result = new ArrayList<String>(candidates.size());
+    Set<String> visited = new HashSet<String>();
+    for (String template : candidates) {
+      order(template, candidates, visited, result);
+    }
+    return result;
+  }
+
+  /**
+   * Depth first visit of a template dependencies.
+   *
+   * @param template The template to visit.
+   * @param candidates The templates to sort.
+   * @param visited The visited templates.
+   * @param result The sorted templates.
+   */
+  private void order(final String template, final Set<String> candidates,
+      final Set<String> visited, final List<String> result) {
+    if (!visited.add(template)) {
+      return;
+    }
+    Set<String> edges = dependencies.get(template);
+    if (edges != null) {
+      for (String dependency : edges) {
+        if (candidates.contains(dependency)) {
+          order(dependency, candidates, visited, result);
+        }
+      }
+    }
+    result.add(template);
+  }
+
+  /**
+   * All the templates with dependencies sorted in dependency order.
+   *
+   * @return All the templates with dependencies sorted in dependency order.
+   */
+  public synchronized List<String> order() {
+    Set<String> all = new LinkedHashSet<String>();
+    for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+      all.addAll(entry.getValue());
+      all.add(entry.getKey());
+    }
+    return order(all);
+  }
+
+}
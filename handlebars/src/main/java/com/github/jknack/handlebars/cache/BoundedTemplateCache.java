@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.cache;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.jknack.handlebars.Parser;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.io.TemplateSource;
+
+/**
+ * A size bounded {@link TemplateCache} that keeps track of its own usage.
+ * <p>
+ * Entries are keyed by {@link TemplateSource#filename()} and evicted in least recently used order
+ * once {@link #maximumSize()} is reached. A template is parsed again if the
+ * {@link TemplateSource#lastModified()} of the source changed since it was cached: the last
+ * modified date is read before parsing and kept with the template.
+ * </p>
+ * <p>
+ * Hits, misses, reloads, evictions and the time spent parsing are counted and available at any
+ * time, useful for monitoring how well the cache is sized.
+ * </p>
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class BoundedTemplateCache implements TemplateCache {
+
+  /**
+   * The default maximum number of templates.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 500;
+
+  /**
+   * The logging system.
+   */
+  private static final Logger logger = LoggerFactory.getLogger(BoundedTemplateCache.class);
+
+  /**
+   * The LRU cache of last modified dates and templates. Access must be synchronized on the map
+   * itself.
+   */
+  private final Map<String, Pair<Long, Template>> cache;
+
+  /**
+   * The maximum number of templates.
+   */
+  private final int maximumSize;
+
+  /** Number of templates found in the cache. */
+  private final AtomicLong hits = new AtomicLong();
+
+  /** Number of templates parsed because they weren't in the cache. */
+  private final AtomicLong misses = new AtomicLong();
+
+  /** Number of templates parsed again because the source changed. */
+  private final AtomicLong reloads = new AtomicLong();
+
+  /** Number of templates removed because the cache was full. */
+  private final AtomicLong evictions = new AtomicLong();
+
+  /** Time spent parsing templates, in nanoseconds. */
+  private final AtomicLong loadTime = new AtomicLong();
+
+  /**
+   * Creates a new BoundedTemplateCache.
+   *
+   * @param maximumSize The maximum number of templates to keep. Must be greater than zero.
+   */
+  public BoundedTemplateCache(final int maximumSize) {
+    isTrue(maximumSize > 0, "The maximum size must be greater than zero.");
+    this.maximumSize = maximumSize;
+    this.cache = new LinkedHashMap<String, Pair<Long, Template>>(16, 0.75f, true) {
+      /** Default serial UID. */
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Pair<Long, Template>> eldest) {
+        if (size() > BoundedTemplateCache.this.maximumSize) {
+          evictions.incrementAndGet();
+          logger.debug("Evicting: {}", eldest.getKey());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Creates a new BoundedTemplateCache of {@link #DEFAULT_MAXIMUM_SIZE}.
+   */
+  public BoundedTemplateCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  @Override
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  @Override
+  public void evict(final TemplateSource source) {
+    synchronized (cache) {
+      cache.remove(source.filename());
+    }
+  }
+
+  @Override
+  public Template get(final TemplateSource source, final Parser parser) throws IOException {
+    notNull(source, "The source is required.");
+    notNull(parser, "The parser is required.");
+
+    String key = source.filename();
+    long lastModified = source.lastModified();
+    Pair<Long, Template> entry;
+    synchronized (cache) {
+      entry = cache.get(key);
+    }
+    if (entry != null && lastModified == entry.getKey().longValue()) {
+      logger.debug("Found in cache: {}", source);
+      hits.incrementAndGet();
+      return entry.getValue();
+    }
+    if (entry == null) {
+      logger.debug("Loading: {}", source);
+      misses.incrementAndGet();
+    } else {
+      logger.debug("Reloading: {}", source);
+      reloads.incrementAndGet();
+    }
+    // parse outside the lock, concurrent loads of the same source are harmless. The date was
+    // read before parsing: a change while parsing is detected on next call
+    long start = System.nanoTime();
+    Template template = parser.parse(source);
+    loadTime.addAndGet(System.nanoTime() - start);
+    synchronized (cache) {
+      cache.put(key, Pair.of(lastModified, template));
+    }
+    return template;
+  }
+
+  /**
+   * Number of templates currently in the cache.
+   *
+   * @return Number of templates currently in the cache.
+   */
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /**
+   * The maximum number of templates to keep.
+   *
+   * @return The maximum number of templates to keep.
+   */
+  public int maximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Number of templates found in the cache.
+   *
+   * @return Number of templates found in the cache.
+   */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /**
+   * Number of templates parsed because they weren't in the cache.
+   *
+   * @return Number of templates parsed because they weren't in the cache.
+   */
+  public long missCount() {
+    return misses.get();
+  }
+
+  /**
+   * Number of templates parsed again because the source changed.
+   *
+   * @return Number of templates parsed again because the source changed.
+   */
+  public long reloadCount() {
+    return reloads.get();
+  }
+
+  /**
+   * Number of templates removed because the cache was full.
+   *
+   * @return Number of templates removed because the cache was full.
+   */
+  public long evictionCount() {
+    return evictions.get();
+  }
+
+  /**
+   * Ratio of lookups served from the cache, between <code>0</code> and <code>1</code>.
+   *
+   * @return Ratio of lookups served from the cache, between <code>0</code> and <code>1</code>.
+   */
+  public double hitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get() + reloads.get();
+    return total == 0 ? 1.0 : (double) hitCount / total;
+  }
+
+  /**
+   * Time spent parsing templates.
+   *
+   * @param unit The time unit. Required.
+   * @return Time spent parsing templates.
+   */
+  public long loadTime(final TimeUnit unit) {
+    return notNull(unit, "The unit is required.").convert(loadTime.get(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return "BoundedTemplateCache{size=" + size() + ", maximumSize=" + maximumSize + ", hits="
+        + hits + ", misses=" + misses + ", reloads=" + reloads + ", evictions=" + evictions + "}";
+  }
+}
@@ -0,0 +1,544 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.cache;
+
+import static org.apache.commons.lang3.Validate.notEmpty;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.jknack.handlebars.Parser;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.TemplateDependencies;
+import com.github.jknack.handlebars.io.IndexedFileTemplateLoader;
+import com.github.jknack.handlebars.io.TemplateSource;
+
+/**
+ * A {@link TemplateCache} that listen for file changes under one or more root directories (like
+ * the base directory of a {@link com.github.jknack.handlebars.io.FileTemplateLoader}) and evict
+ * templates when (and only when) their files change. A cache hit doesn't touch the file system:
+ * {@link TemplateSource#lastModified()} is never called.
+ *
+ * Changes are detected by a daemon thread on top of the NIO <code>WatchService</code>. This
+ * library runs on Java 6, so the NIO API is resolved at runtime: if it isn't available (Java 6),
+ * the cache falls back to compare {@link TemplateSource#lastModified()} on every call (like
+ * {@link ConcurrentMapTemplateCache}).
+ *
+ * Partials are resolved while rendering, so a template calling a partial will see a new version
+ * of the partial as soon as the partial is evicted.
+ *
+ * Usage:
+ *
+ * <pre>
+ *   FileWatchTemplateCache cache = new FileWatchTemplateCache(basedir);
+ *   Handlebars handlebars = new Handlebars(new FileTemplateLoader(basedir)).with(cache);
+ *   ...
+ *   // on shutdown
+ *   cache.close();
+ * </pre>
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class FileWatchTemplateCache implements TemplateCache, Closeable {
+
+  /**
+   * Reflective access to the NIO watch service API (Java 7+).
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private static final class Watcher implements Closeable {
+
+    /** java.io.File.toPath(). */
+    private final Method toPath;
+
+    /** java.nio.file.Path.register(WatchService, WatchEvent.Kind...). */
+    private final Method register;
+
+    /** java.nio.file.Path.resolve(Path). */
+    private final Method resolve;
+
+    /** java.nio.file.Path.toFile(). */
+    private final Method toFile;
+
+    /** java.nio.file.WatchService.take(). */
+    private final Method take;
+
+    /** java.nio.file.WatchService.close(). */
+    private final Method closeService;
+
+    /** java.nio.file.WatchKey.pollEvents(). */
+    private final Method pollEvents;
+
+    /** java.nio.file.WatchKey.watchable(). */
+    private final Method watchable;
+
+    /** java.nio.file.WatchKey.reset(). */
+    private final Method reset;
+
+    /** java.nio.file.WatchEvent.context(). */
+    private final Method context;
+
+    /** java.nio.file.WatchEvent.kind(). */
+    private final Method kind;
+
+    /** The events we are interested in: create, delete and modify. */
+    private final Object kinds;
+
+    /** The overflow event. */
+    private final Object overflow;
+
+    /** The watch service. */
+    private final Object service;
+
+    /**
+     * Creates a new {@link Watcher}.
+     *
+     * @throws Exception If the NIO API isn't available.
+     */
+    public Watcher() throws Exception {
+      Class<?> pathType = Class.forName("java.nio.file.Path");
+      Class<?> serviceType = Class.forName("java.nio.file.WatchService");
+      Class<?> keyType = Class.forName("java.nio.file.WatchKey");
+      Class<?> eventType = Class.forName("java.nio.file.WatchEvent");
+      Class<?> kindType = Class.forName("java.nio.file.WatchEvent$Kind");
+      Class<?> kindsType = Class.forName("java.nio.file.StandardWatchEventKinds");
+      Class<?> fileSystemType = Class.forName("java.nio.file.FileSystem");
+
+      toPath = File.class.getMethod("toPath");
+      register = pathType.getMethod("register", serviceType,
+          Array.newInstance(kindType, 0).getClass());
+      resolve = pathType.getMethod("resolve", pathType);
+      toFile = pathType.getMethod("toFile");
+      take = serviceType.getMethod("take");
+      closeService = serviceType.getMethod("close");
+      pollEvents = keyType.getMethod("pollEvents");
+      watchable = keyType.getMethod("watchable");
+      reset = keyType.getMethod("reset");
+      context = eventType.getMethod("context");
+      kind = eventType.getMethod("kind");
+
+      kinds = Array.newInstance(kindType, 3);
+      Array.set(kinds, 0, kindsType.getField("ENTRY_CREATE").get(null));
+      Array.set(kinds, 1, kindsType.getField("ENTRY_DELETE").get(null));
+      Array.set(kinds, 2, kindsType.getField("ENTRY_MODIFY").get(null));
+      overflow = kindsType.getField("OVERFLOW").get(null);
+
+      Object fileSystem = Class.forName("java.nio.file.FileSystems").getMethod("getDefault")
+          .invoke(null);
+      service = fileSystemType.getMethod("newWatchService").invoke(fileSystem);
+    }
+
+    /**
+     * Watch a directory and all its sub-directories.
+     *
+     * @param dir A directory.
+     * @throws Exception If the directory can't be registered.
+     */
+    public void register(final File dir) throws Exception {
+      register(dir, new ArrayList<File>());
+    }
+
+    /**
+     * Watch a directory and all its sub-directories.
+     *
+     * @param dir A directory.
+     * @param found Collect files found under the directory.
+     * @throws Exception If the directory can't be registered.
+     */
+    private void register(final File dir, final List<File> found) throws Exception {
+      register.invoke(toPath.invoke(dir), service, kinds);
+      File[] children = dir.listFiles();
+      if (children != null) {
+        for (File child : children) {
+          found.add(child);
+          if (child.isDirectory()) {
+            register(child, found);
+          }
+        }
+      }
+    }
+
+    /**
+     * Wait for changes.
+     *
+     * @return Changed files or <code>null</code> if some events were lost (overflow).
+     * @throws Exception If the watch service was closed or the current thread was interrupted.
+     */
+    public List<File> take() throws Exception {
+      Object key = take.invoke(service);
+      try {
+        Object dir = watchable.invoke(key);
+        List<File> files = new ArrayList<File>();
+        for (Object event : (List<?>) pollEvents.invoke(key)) {
+          if (kind.invoke(event) == overflow) {
+            return null;
+          }
+          File file = (File) toFile.invoke(resolve.invoke(dir, context.invoke(event)));
+          files.add(file);
+          if (file.isDirectory()) {
+            // files might be created before we start watching the new directory
+            register(file, files);
+          }
+        }
+        return files;
+      } finally {
+        reset.invoke(key);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        closeService.invoke(service);
+      } catch (Exception ex) {
+        throw new IOException("Can't close: " + service, ex);
+      }
+    }
+  }
+
+  /**
+   * The logging system.
+   */
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /**
+   * Cached templates by file name.
+   */
+  private final ConcurrentMap<String, Template> cache = new ConcurrentHashMap<String, Template>();
+
+  /**
+   * Last modified date of cached templates by file name, read before parsing (fallback mode
+   * only).
+   */
+  private final ConcurrentMap<String, Long> modified = new ConcurrentHashMap<String, Long>();
+
+  /**
+   * File names by absolute path.
+   */
+  private final ConcurrentMap<File, Set<String>> files = new ConcurrentHashMap<File, Set<String>>();
+
+  /**
+   * Number of changes, used to detect changes while parsing.
+   */
+  private final AtomicLong changes = new AtomicLong();
+
+  /**
+   * The file watcher or <code>null</code> if the watch service isn't available.
+   */
+  private final Watcher watcher;
+
+  /**
+   * The thread listening for changes.
+   */
+  private final Thread thread;
+
+  /**
+   * The template dependency graph or <code>null</code>.
+   */
+  private volatile TemplateDependencies dependencies;
+
+  /**
+   * Template loaders whose index is updated on changes.
+   */
+  private final List<IndexedFileTemplateLoader> loaders =
+      new CopyOnWriteArrayList<IndexedFileTemplateLoader>();
+
+  /**
+   * Creates a new {@link FileWatchTemplateCache}.
+   *
+   * @param roots Directories to watch (sub-directories are watched too). At least one is
+   *        required.
+   */
+  public FileWatchTemplateCache(final File... roots) {
+    this(true, roots);
+  }
+
+  /**
+   * Creates a new {@link FileWatchTemplateCache}.
+   *
+   * @param watch False, to compare last modified dates like if the watch service wasn't
+   *        available.
+   * @param roots Directories to watch (sub-directories are watched too). At least one is
+   *        required.
+   */
+  FileWatchTemplateCache(final boolean watch, final File... roots) {
+    notEmpty(roots, "At least one root directory is required.");
+    Watcher watcher = null;
+    if (watch) {
+      try {
+        watcher = new Watcher();
+        for (File root : roots) {
+          watcher.register(notNull(root, "The root directory is required."));
+        }
+      } catch (Exception ex) {
+        logger.warn("Watch service isn't available, falling back to last modified checks", ex);
+        closeQuietly(watcher);
+        watcher = null;
+      }
+    }
+    this.watcher = watcher;
+    if (watcher == null) {
+      thread = null;
+    } else {
+      thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          watch();
+        }
+      }, "handlebars-template-watcher");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * True, if changes are detected by the watch service. False, if the cache fallback to last
+   * modified checks.
+   *
+   * @return True, if changes are detected by the watch service.
+   */
+  public boolean isWatching() {
+    return watcher != null;
+  }
+
+  /**
+   * Cascade evictions to the templates using the evicted one (directly or indirectly).
+   *
+   * <pre>
+   * FileWatchTemplateCache cache = new FileWatchTemplateCache(root);
+   * Handlebars handlebars = new Handlebars(loader).with(cache);
+   * cache.with(handlebars.dependencies());
+   * </pre>
+   *
+   * @param dependencies The template dependency graph. Required.
+   * @return This template cache.
+   */
+  public FileWatchTemplateCache with(final TemplateDependencies dependencies) {
+    this.dependencies = notNull(dependencies, "The dependencies are required.");
+    return this;
+  }
+
+  /**
+   * Report changes to a template loader, so it can serve lookups from its index without touching
+   * the file system. Nothing is reported if the watch service isn't available.
+   *
+   * <pre>
+   * IndexedFileTemplateLoader loader = new IndexedFileTemplateLoader(root);
+   * FileWatchTemplateCache cache = new FileWatchTemplateCache(root).with(loader);
+   * </pre>
+   *
+   * @param loader The template loader. Required.
+   * @return This template cache.
+   */
+  public FileWatchTemplateCache with(final IndexedFileTemplateLoader loader) {
+    notNull(loader, "The loader is required.");
+    if (watcher != null) {
+      loader.setWatched(true);
+      loaders.add(loader);
+    }
+    return this;
+  }
+
+  @Override
+  public void clear() {
+    changes.incrementAndGet();
+    for (IndexedFileTemplateLoader loader : loaders) {
+      loader.clear();
+    }
+    cache.clear();
+    modified.clear();
+    files.clear();
+  }
+
+  @Override
+  public void evict(final TemplateSource source) {
+    remove(source.filename());
+  }
+
+  /**
+   * Remove a template and the templates using it.
+   *
+   * @param filename The template's file name.
+   */
+  private void remove(final String filename) {
+    cache.remove(filename);
+    modified.remove(filename);
+    TemplateDependencies graph = dependencies;
+    if (graph != null) {
+      for (String dependent : graph.dependentsOf(filename)) {
+        logger.debug("Evicting: {}, it depends on: {}", dependent, filename);
+        cache.remove(dependent);
+        modified.remove(dependent);
+      }
+    }
+  }
+
+  @Override
+  public Template get(final TemplateSource source, final Parser parser) throws IOException {
+    notNull(source, "The source is required.");
+    notNull(parser, "The parser is required.");
+
+    String filename = source.filename();
+    Template template = cache.get(filename);
+    if (template != null && watcher == null) {
+      Long lastModified = modified.get(filename);
+      if (lastModified == null || lastModified.longValue() != source.lastModified()) {
+        logger.debug("Reloading: {}", source);
+        template = null;
+      }
+    }
+    if (template == null) {
+      logger.debug("Loading: {}", source);
+      if (watcher == null) {
+        // read before parsing: a change while parsing is detected on next call
+        long lastModified = source.lastModified();
+        template = parser.parse(source);
+        cache.put(filename, template);
+        modified.put(filename, lastModified);
+      } else {
+        index(filename);
+        long version = changes.get();
+        template = parser.parse(source);
+        cache.put(filename, template);
+        TemplateDependencies graph = dependencies;
+        if (graph != null) {
+          // partials might not be compiled yet, but changes on them must be tracked
+          for (String dependency : graph.dependenciesOf(filename)) {
+            index(dependency);
+          }
+        }
+        if (version != changes.get()) {
+          // something changed while parsing, don't keep a stale template
+          cache.remove(filename, template);
+        }
+      }
+    } else {
+      logger.debug("Found in cache: {}", source);
+    }
+    return template;
+  }
+
+  /**
+   * Keep track of the file behind a template.
+   *
+   * @param filename The template's file name.
+   */
+  private void index(final String filename) {
+    File file = new File(filename).getAbsoluteFile();
+    Set<String> filenames = files.get(file);
+    if (filenames == null) {
+      filenames = new CopyOnWriteArraySet<String>();
+      Set<String> existing = files.putIfAbsent(file, filenames);
+      if (existing != null) {
+        filenames = existing;
+      }
+    }
+    filenames.add(filename);
+  }
+
+  /**
+   * Evict all the templates of a file. Call it to force a reload.
+   *
+   * @param file A changed file.
+   */
+  public void changed(final File file) {
+    changes.incrementAndGet();
+    for (IndexedFileTemplateLoader loader : loaders) {
+      loader.changed(file);
+    }
+    Set<String> filenames = files.get(file.getAbsoluteFile());
+    if (filenames != null) {
+      for (String filename : filenames) {
+        logger.debug("Changed: {}", filename);
+        remove(filename);
+      }
+    }
+  }
+
+  /**
+   * Listen for changes until the watcher is closed.
+   */
+  private void watch() {
+    while (true) {
+      try {
+        List<File> modified = watcher.take();
+        if (modified == null) {
+          logger.debug("Some changes were lost, clearing the cache");
+          clear();
+        } else {
+          for (File file : modified) {
+            changed(file);
+          }
+        }
+      } catch (InvocationTargetException ex) {
+        // closed watch service or interrupted
+        logger.debug("Template watcher stopped", ex.getCause());
+        return;
+      } catch (Exception ex) {
+        logger.error("Template watcher stopped", ex);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Stop listening for changes.
+   *
+   * @throws IOException If the watch service can't be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (watcher != null) {
+      thread.interrupt();
+      watcher.close();
+    }
+  }
+
+  /**
+   * Close a watcher and ignore errors.
+   *
+   * @param watcher The watcher or <code>null</code>.
+   */
+  private void closeQuietly(final Watcher watcher) {
+    if (watcher != null) {
+      try {
+        watcher.close();
+      } catch (IOException ex) {
+        logger.debug("Can't close watcher", ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.context;
+
+import static org.apache.commons.lang3.Validate.notEmpty;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.jknack.handlebars.ValueResolver;
+
+/**
+ * A chain of {@link ValueResolver} that learns, per model class and attribute's name, which
+ * resolvers at the beginning of the chain can never answer and skips them on the next lookups.
+ * <p>
+ * Only resolvers whose misses depend on the model class are skipped: a
+ * {@link MemberValueResolver} and the {@link MapValueResolver} for non {@link Map} models. Any
+ * other resolver is always asked, so the resolution order is the same as calling the resolvers
+ * one by one.
+ * </p>
+ * <p>
+ * A dispatcher is thread-safe and meant to be created once and shared, like:
+ * </p>
+ *
+ * <pre>
+ * ValueResolver resolver = new DispatchingValueResolver(ValueResolver.VALUE_RESOLVERS);
+ * ...
+ * Context context = Context.newBuilder(model).resolver(resolver).build();
+ * </pre>
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class DispatchingValueResolver implements ValueResolver {
+
+  /**
+   * The value resolvers.
+   */
+  private final ValueResolver[] resolvers;
+
+  /**
+   * Index of the first resolver to ask, by model class and attribute's name.
+   */
+  private final ConcurrentMap<Class<?>, ConcurrentMap<String, Integer>> dispatch =
+      new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Integer>>();
+
+  /**
+   * Creates a new {@link DispatchingValueResolver}.
+   *
+   * @param resolvers The value resolvers. Required.
+   */
+  public DispatchingValueResolver(final ValueResolver... resolvers) {
+    this.resolvers = notEmpty(resolvers, "At least one value-resolver must be present.").clone();
+  }
+
+  @Override
+  public Object resolve(final Object context, final String name) {
+    if (context == null) {
+      return resolve(context, name, 0);
+    }
+    ConcurrentMap<String, Integer> names = names(context.getClass());
+    Integer start = names.get(name);
+    if (start != null) {
+      return resolve(context, name, start);
+    }
+    // first lookup: ask everybody and learn the leading resolvers that will always miss
+    Object value = UNRESOLVED;
+    int skip = 0;
+    boolean learning = true;
+    for (int i = 0; i < resolvers.length && value == UNRESOLVED; i++) {
+      value = resolvers[i].resolve(context, name);
+      learning = learning && value == UNRESOLVED && fixedMiss(resolvers[i], context);
+      if (learning) {
+        skip = i + 1;
+      }
+    }
+    // names with nothing to skip (like map keys) aren't recorded
+    if (skip > 0) {
+      names.putIfAbsent(name, skip);
+    }
+    return value;
+  }
+
+  /**
+   * Ask the resolvers in order, starting at the given index.
+   *
+   * @param context The context object.
+   * @param name The attribute's name.
+   * @param start Index of the first resolver to ask.
+   * @return The resolved value or {@link #UNRESOLVED}.
+   */
+  private Object resolve(final Object context, final String name, final int start) {
+    for (int i = start; i < resolvers.length; i++) {
+      Object value = resolvers[i].resolve(context, name);
+      if (value != UNRESOLVED) {
+        return value;
+      }
+    }
+    return UNRESOLVED;
+  }
+
+  /**
+   * Get the attribute's dispatch table of a model class.
+   *
+   * @param type The model class.
+   * @return The attribute's dispatch table.
+   */
+  private ConcurrentMap<String, Integer> names(final Class<?> type) {
+    ConcurrentMap<String, Integer> names = dispatch.get(type);
+    if (names == null) {
+      names = new ConcurrentHashMap<String, Integer>();
+      ConcurrentMap<String, Integer> existing = dispatch.putIfAbsent(type, names);
+      if (existing != null) {
+        names = existing;
+      }
+    }
+    return names;
+  }
+
+  /**
+   * True, if a miss of the resolver depends on the model class only.
+   *
+   * @param resolver The value resolver.
+   * @param context The context object.
+   * @return True, if a miss of the resolver depends on the model class only.
+   */
+  private static boolean fixedMiss(final ValueResolver resolver, final Object context) {
+    if (resolver instanceof MemberValueResolver) {
+      return true;
+    }
+    return resolver == MapValueResolver.INSTANCE && !(context instanceof Map);
+  }
+
+  @Override
+  public Object resolve(final Object context) {
+    for (ValueResolver resolver : resolvers) {
+      Object value = resolver.resolve(context);
+      if (value != UNRESOLVED) {
+        return value;
+      }
+    }
+    return UNRESOLVED;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> propertySet(final Object context) {
+    Set<Entry<String, Object>> propertySet = new LinkedHashSet<Map.Entry<String, Object>>();
+    for (ValueResolver resolver : resolvers) {
+      propertySet.addAll(resolver.propertySet(context));
+    }
+    return propertySet;
+  }
+
+}
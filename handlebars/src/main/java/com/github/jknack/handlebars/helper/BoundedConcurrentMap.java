@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.helper;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ConcurrentHashMap} with a max number of entries, for caches keyed by data-driven
+ * values (patterns, locales, bundles). Reads are lock-free, like in a plain
+ * {@link ConcurrentHashMap}. Once the map is full, an arbitrary entry is evicted on insert.
+ * Concurrent inserts might exceed the max size by a few entries.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+class BoundedConcurrentMap<K, V> extends ConcurrentHashMap<K, V> {
+
+  /** Default serial UID. */
+  private static final long serialVersionUID = 1L;
+
+  /** Max number of entries. */
+  private final int maxSize;
+
+  /**
+   * Creates a new {@link BoundedConcurrentMap}.
+   *
+   * @param maxSize Max number of entries.
+   */
+  public BoundedConcurrentMap(final int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public V put(final K key, final V value) {
+    evict(key);
+    return super.put(key, value);
+  }
+
+  @Override
+  public V putIfAbsent(final K key, final V value) {
+    evict(key);
+    return super.putIfAbsent(key, value);
+  }
+
+  /**
+   * Remove an entry if the map is full and the key is a new one.
+   *
+   * @param key The key to insert.
+   */
+  private void evict(final K key) {
+    if (size() >= maxSize && !containsKey(key)) {
+      Iterator<K> keys = keySet().iterator();
+      if (keys.hasNext()) {
+        keys.next();
+        keys.remove();
+      }
+    }
+  }
+
+}
@@ -41,6 +41,7 @@ import java.io.Reader;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -55,6 +56,12 @@ import com.github.jknack.handlebars.js.HandlebarsJs;
 
 /**
  * Default implementation of {@link HelperRegistry}.
+ * <p>
+ * The registry is thread-safe: helpers are kept in an immutable snapshot. Lookups read the
+ * current snapshot without locking, while {@link #registerHelper(String, Helper)} publishes a
+ * new snapshot and increments the {@link #version()}. So, it is safe to register helpers while
+ * templates are being rendered.
+ * </p>
  *
  * @author edgar
  * @since 1.2.0
@@ -62,19 +69,42 @@ import com.github.jknack.handlebars.js.HandlebarsJs;
 public class DefaultHelperRegistry implements HelperRegistry {
 
   /**
-   * The helper registry.
+   * The helper registry. Immutable, it is replaced on every write.
    */
-  private final Map<String, Helper<?>> helpers =
-      new HashMap<String, Helper<?>>();
+  private volatile Map<String, Helper<?>> helpers = Collections.emptyMap();
+
+  /**
+   * The registry version. Incremented on every write.
+   */
+  private volatile long version;
+
+  /**
+   * Writer's lock.
+   */
+  private final Object lock = new Object();
 
   /**
    * A Handlebars.js implementation.
    */
   private HandlebarsJs handlebarsJs = HandlebarsJs.create(this, null);
 
-  {
-    // make sure default helpers are registered
-    registerBuiltinsHelpers(this);
+  /**
+   * Creates a new {@link DefaultHelperRegistry} with the built-in helpers.
+   */
+  public DefaultHelperRegistry() {
+    this(true);
+  }
+
+  /**
+   * Creates a new {@link DefaultHelperRegistry}.
+   *
+   * @param builtins True, if the built-in helpers must be registered.
+   */
+  protected DefaultHelperRegistry(final boolean builtins) {
+    if (builtins) {
+      // make sure default helpers are registered
+      registerBuiltinsHelpers(this);
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -89,13 +119,29 @@ public class DefaultHelperRegistry implements HelperRegistry {
     notEmpty(name, "A helper's name is required.");
     notNull(helper, "A helper is required.");
 
-    Helper<?> oldHelper = helpers.put(name, helper);
+    Helper<?> oldHelper;
+    synchronized (lock) {
+      Map<String, Helper<?>> snapshot = new HashMap<String, Helper<?>>(helpers);
+      oldHelper = snapshot.put(name, helper);
+      helpers = Collections.unmodifiableMap(snapshot);
+      version++;
+    }
     if (oldHelper != null) {
       Handlebars.warn("Helper '%s' has been replaced by '%s'", name, helper);
     }
     return this;
   }
 
+  /**
+   * The registry version. The version changes every time a helper is registered, so it can be
+   * used for detecting when templates must be linked again.
+   *
+   * @return The registry version.
+   */
+  public long version() {
+    return version;
+  }
+
   @Override
   public <H> HelperRegistry registerHelperMissing(final Helper<H> helper) {
     return registerHelper(Handlebars.HELPER_MISSING, helper);
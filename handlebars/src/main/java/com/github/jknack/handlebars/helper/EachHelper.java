@@ -17,9 +17,12 @@
  */
 package com.github.jknack.handlebars.helper;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.RandomAccess;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -27,11 +30,16 @@ import org.apache.commons.lang3.StringUtils;
 import com.github.jknack.handlebars.Context;
 import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.Options;
+import com.github.jknack.handlebars.Options.Buffer;
 
 /**
  * You can iterate over a list using the built-in each helper. Inside the
  * block, you can use <code>this</code> to reference the element being
  * iterated over.
+ * Iterators, enumerations and streams are consumed lazily: each element is
+ * rendered and written to the output before the next one is pulled. Helpers
+ * delegating to this one get the output of lazy sources written already and an
+ * empty result back, the output of collections, maps and objects is returned.
  *
  * @author edgar.espina
  * @since 0.3.0
@@ -55,14 +63,21 @@ public class EachHelper implements Helper<Object> {
     if (context == null) {
       return StringUtils.EMPTY;
     }
+    if (context instanceof List && context instanceof RandomAccess) {
+      return listContext((List) context, options);
+    }
     if (context instanceof Iterable) {
       return iterableContext((Iterable) context, options);
     }
+    if (context instanceof Iterator) {
+      return iteratorContext((Iterator) context, options);
+    }
     return hashContext(context, options);
   }
 
   /**
-   * Iterate over a hash like object.
+   * Iterate over a hash like object (maps too). Properties are listed by the context's value
+   * resolvers.
    *
    * @param context The context object.
    * @param options The helper options.
@@ -81,11 +96,35 @@ public class EachHelper implements Helper<Object> {
           .combine("@first", first ? "first" : "")
           .build();
       buffer.append(options.fn(current));
+      current.destroy();
       first = false;
     }
     return buffer.toString();
   }
 
+  /**
+   * Iterate over a random access list (arrays are transformed to lists too). Elements are
+   * accessed by index and no iterator is created.
+   *
+   * @param context The context object.
+   * @param options The helper options.
+   * @return The string output.
+   * @throws IOException If something goes wrong.
+   */
+  private CharSequence listContext(final List<Object> context, final Options options)
+      throws IOException {
+    int size = context.size();
+    if (size == 0) {
+      return options.inverse();
+    }
+    StringBuilder buffer = new StringBuilder();
+    Context parent = options.context;
+    for (int index = 0; index < size; index++) {
+      buffer.append(iteration(parent, context.get(index), index, index == size - 1, options));
+    }
+    return buffer.toString();
+  }
+
   /**
    * Iterate over an iterable object.
    *
@@ -96,33 +135,87 @@ public class EachHelper implements Helper<Object> {
    */
   private CharSequence iterableContext(final Iterable<Object> context, final Options options)
       throws IOException {
-    StringBuilder buffer = new StringBuilder();
     if (options.isFalsy(context)) {
-      buffer.append(options.inverse());
-    } else {
-      Iterator<Object> iterator = context.iterator();
-      int index = -1;
-      Context parent = options.context;
-      while (iterator.hasNext()) {
-        index += 1;
-        Object element = iterator.next();
-        boolean first = index == 0;
-        boolean even = index % 2 == 0;
-        boolean last = !iterator.hasNext();
-        Context current = Context.newBuilder(parent, element)
-            .combine("@index", index)
-            .combine("@first", first ? "first" : "")
-            .combine("@last", last ? "last" : "")
-            .combine("@odd", even ? "" : "odd")
-            .combine("@even", even ? "even" : "")
-            // 1-based index
-            .combine("@index_1", index + 1)
-            .build();
-        buffer.append(options.fn(current));
-        current.destroy();
-      }
+      return options.inverse();
     }
+    StringBuilder buffer = new StringBuilder();
+    iterate(context.iterator(), buffer, options);
     return buffer.toString();
   }
 
+  /**
+   * Iterate over an iterator (a database cursor, a stream, etc.). Elements are pulled one by one
+   * and the iterator is closed at the end if it is {@link Closeable}.
+   *
+   * @param context The context object.
+   * @param options The helper options.
+   * @return The string output.
+   * @throws IOException If something goes wrong.
+   */
+  private CharSequence iteratorContext(final Iterator<Object> context, final Options options)
+      throws IOException {
+    try {
+      if (!context.hasNext()) {
+        return options.inverse();
+      }
+      // lazy sources are written element by element, straight to the output
+      Buffer buffer = options.buffer();
+      iterate(context, buffer, options);
+      return buffer;
+    } finally {
+      if (context instanceof Closeable) {
+        ((Closeable) context).close();
+      }
+    }
+  }
+
+  /**
+   * Apply the block to each element of a non-empty iterator. Output is appended to the buffer
+   * element by element.
+   *
+   * @param iterator The element's iterator.
+   * @param buffer The output buffer.
+   * @param options The helper options.
+   * @throws IOException If something goes wrong.
+   */
+  private void iterate(final Iterator<Object> iterator, final Appendable buffer,
+      final Options options) throws IOException {
+    int index = -1;
+    Context parent = options.context;
+    while (iterator.hasNext()) {
+      index += 1;
+      Object element = iterator.next();
+      buffer.append(iteration(parent, element, index, !iterator.hasNext(), options));
+    }
+  }
+
+  /**
+   * Apply the block to a single element.
+   *
+   * @param parent The parent context.
+   * @param element The current element.
+   * @param index The element's index.
+   * @param last True, if this is the last element.
+   * @param options The helper options.
+   * @return The block's output.
+   * @throws IOException If something goes wrong.
+   */
+  private CharSequence iteration(final Context parent, final Object element, final int index,
+      final boolean last, final Options options) throws IOException {
+    boolean first = index == 0;
+    boolean even = index % 2 == 0;
+    Context current = Context.newBuilder(parent, element)
+        .combine("@index", index)
+        .combine("@first", first ? "first" : "")
+        .combine("@last", last ? "last" : "")
+        .combine("@odd", even ? "" : "odd")
+        .combine("@even", even ? "even" : "")
+        // 1-based index
+        .combine("@index_1", index + 1)
+        .build();
+    CharSequence result = options.fn(current);
+    current.destroy();
+    return result;
+  }
+
 }
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.helper;
+
+import java.lang.reflect.Method;
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.Format;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.LocaleUtils;
+
+/**
+ * Cache of date and number formatters used by {@link StringHelpers}. A formatter is created once
+ * per pattern, locale and time zone and then cloned on every call, bc {@link DateFormat} and
+ * {@link NumberFormat} aren't thread-safe. Cloning is way cheaper than building a formatter from
+ * scratch (no pattern parsing, no locale data lookup).
+ *
+ * It also converts <code>java.time</code> values to {@link Date}. Types are resolved by name,
+ * so there is no dependency on Java 8.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+final class Formatters {
+
+  /**
+   * Max number of cached formatters and locales. Patterns and locales might be data-driven, so
+   * caches are bounded.
+   */
+  private static final int CACHE_SIZE = 200;
+
+  /** Formatter prototypes. */
+  private static final ConcurrentMap<String, Format> FORMATS =
+      new BoundedConcurrentMap<String, Format>(CACHE_SIZE);
+
+  /** Parsed locales. */
+  private static final ConcurrentMap<String, Locale> LOCALES =
+      new BoundedConcurrentMap<String, Locale>(CACHE_SIZE);
+
+  /** Resolved java.time methods. */
+  private static final ConcurrentMap<String, Method> METHODS =
+      new ConcurrentHashMap<String, Method>();
+
+  /**
+   * Not allowed.
+   */
+  private Formatters() {
+  }
+
+  /**
+   * Parse a locale.
+   *
+   * @param localeStr The locale's name.
+   * @return A locale.
+   */
+  public static Locale locale(final String localeStr) {
+    Locale locale = LOCALES.get(localeStr);
+    if (locale == null) {
+      locale = LocaleUtils.toLocale(localeStr);
+      LOCALES.put(localeStr, locale);
+    }
+    return locale;
+  }
+
+  /**
+   * Get a date format.
+   *
+   * @param pattern A date pattern.
+   * @param style A date style or <code>null</code> for patterns.
+   * @param locale The locale.
+   * @param timeZone The time zone.
+   * @return A date format, ready to use by the caller.
+   */
+  public static DateFormat dateFormat(final String pattern, final Integer style,
+      final Locale locale, final TimeZone timeZone) {
+    String key = "d:" + pattern + "@" + locale + "@" + timeZone.getID();
+    DateFormat dateFormat = (DateFormat) FORMATS.get(key);
+    if (dateFormat == null) {
+      if (style == null) {
+        dateFormat = new SimpleDateFormat(pattern, locale);
+      } else {
+        dateFormat = DateFormat.getDateInstance(style, locale);
+      }
+      dateFormat.setTimeZone(timeZone);
+      FORMATS.put(key, dateFormat);
+    }
+    return (DateFormat) dateFormat.clone();
+  }
+
+  /**
+   * Get a number format.
+   *
+   * @param format A number style or decimal pattern.
+   * @param locale The locale.
+   * @return A number format, ready to use (and modify) by the caller.
+   */
+  public static NumberFormat numberFormat(final String format, final Locale locale) {
+    String key = "n:" + format + "@" + locale;
+    NumberFormat numberFormat = (NumberFormat) FORMATS.get(key);
+    if (numberFormat == null) {
+      try {
+        NumberStyle style = NumberStyle.valueOf(format.toUpperCase().trim());
+        numberFormat = style.numberFormat(locale);
+      } catch (ArrayIndexOutOfBoundsException ex) {
+        numberFormat = NumberStyle.DEFAULT.numberFormat(locale);
+      } catch (IllegalArgumentException ex) {
+        numberFormat = new DecimalFormat(format, new DecimalFormatSymbols(locale));
+      }
+      FORMATS.put(key, numberFormat);
+    }
+    return (NumberFormat) numberFormat.clone();
+  }
+
+  /**
+   * True, if the value is a date or a supported <code>java.time</code> value:
+   * <code>Instant</code>, <code>LocalDate</code>, <code>LocalDateTime</code>,
+   * <code>ZonedDateTime</code> or <code>OffsetDateTime</code>.
+   *
+   * @param value The candidate value.
+   * @return True, if the value is a date.
+   */
+  public static boolean isDate(final Object value) {
+    if (value instanceof Date) {
+      return true;
+    }
+    if (value == null) {
+      return false;
+    }
+    String type = value.getClass().getName();
+    return type.equals("java.time.Instant")
+        || type.equals("java.time.LocalDate")
+        || type.equals("java.time.LocalDateTime")
+        || type.equals("java.time.ZonedDateTime")
+        || type.equals("java.time.OffsetDateTime");
+  }
+
+  /**
+   * The time zone of a value, only zoned <code>java.time</code> values have one.
+   *
+   * @param value A date value.
+   * @return The value's time zone or <code>null</code>.
+   */
+  public static TimeZone timeZone(final Object value) {
+    String type = value.getClass().getName();
+    final String id;
+    if (type.equals("java.time.ZonedDateTime")) {
+      id = invoke(value, "getZone").toString();
+    } else if (type.equals("java.time.OffsetDateTime")) {
+      id = invoke(value, "getOffset").toString();
+    } else {
+      return null;
+    }
+    // offsets ids are: Z, +hh:mm or -hh:mm
+    if (id.equals("Z")) {
+      return TimeZone.getTimeZone("GMT");
+    }
+    if (id.startsWith("+") || id.startsWith("-")) {
+      return TimeZone.getTimeZone("GMT" + id);
+    }
+    return TimeZone.getTimeZone(id);
+  }
+
+  /**
+   * Convert a date value to {@link Date}. Local values (the ones without an offset) are
+   * interpreted in the given time zone.
+   *
+   * @param value A date value.
+   * @param timeZone The time zone for local values.
+   * @return A date.
+   */
+  public static Date toDate(final Object value, final TimeZone timeZone) {
+    if (value instanceof Date) {
+      return (Date) value;
+    }
+    String type = value.getClass().getName();
+    if (type.equals("java.time.Instant")) {
+      return new Date((Long) invoke(value, "toEpochMilli"));
+    }
+    if (type.equals("java.time.LocalDate") || type.equals("java.time.LocalDateTime")) {
+      Object dateTime = type.equals("java.time.LocalDate")
+          ? invoke(value, "atStartOfDay") : value;
+      Calendar calendar = Calendar.getInstance(timeZone);
+      calendar.clear();
+      calendar.set(
+          (Integer) invoke(dateTime, "getYear"),
+          (Integer) invoke(dateTime, "getMonthValue") - 1,
+          (Integer) invoke(dateTime, "getDayOfMonth"),
+          (Integer) invoke(dateTime, "getHour"),
+          (Integer) invoke(dateTime, "getMinute"),
+          (Integer) invoke(dateTime, "getSecond"));
+      calendar.set(Calendar.MILLISECOND, (Integer) invoke(dateTime, "getNano") / 1000000);
+      return calendar.getTime();
+    }
+    // zoned or offset date time
+    return new Date((Long) invoke(invoke(value, "toInstant"), "toEpochMilli"));
+  }
+
+  /**
+   * Invoke a public no-arg method.
+   *
+   * @param value The target.
+   * @param name The method's name.
+   * @return The method's result.
+   */
+  private static Object invoke(final Object value, final String name) {
+    try {
+      String key = value.getClass().getName() + "." + name;
+      Method method = METHODS.get(key);
+      if (method == null) {
+        method = value.getClass().getMethod(name);
+        METHODS.put(key, method);
+      }
+      return method.invoke(value);
+    } catch (Exception ex) {
+      throw new IllegalStateException("Can't invoke: " + value.getClass().getName() + "."
+          + name + "()", ex);
+    }
+  }
+}
@@ -17,7 +17,6 @@
  */
 package com.github.jknack.handlebars.helper;
 
-import static org.apache.commons.lang3.StringUtils.defaultIfEmpty;
 import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notEmpty;
 import static org.apache.commons.lang3.Validate.notNull;
@@ -26,17 +25,23 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.LocaleUtils;
+import org.apache.commons.lang3.StringUtils;
 
 import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.Options;
+import com.github.jknack.handlebars.internal.Hashes;
 
 /**
  * Implementation of i18n helper for Java and JavaScript.
@@ -154,14 +159,10 @@ public enum I18nHelper implements Helper<String> {
     @Override
     public CharSequence apply(final String key, final Options options) throws IOException {
       notEmpty(key, "found: '%s', expected 'bundle's key'", key);
-      Locale locale = LocaleUtils
-          .toLocale((String) options.hash("locale", defaultLocale.toString()));
+      Locale locale = locale((String) options.hash("locale"));
       String baseName = options.hash("bundle", defaultBundle);
       ClassLoader classLoader = options.hash("classLoader", getClass().getClassLoader());
-      I18nSource localSource = source == null
-          ? new DefI18nSource(baseName, locale, classLoader) : source;
-
-      return localSource.message(key, locale, options.params);
+      return source(baseName, locale, classLoader).message(key, locale, options.params);
     }
   },
 
@@ -214,7 +215,7 @@ public enum I18nHelper implements Helper<String> {
      * </p>
      *
      * <pre>
-     *  {{i18nJs [locale] [bundle=messages] [wrap=true]}}
+     *  {{i18nJs [locale] [bundle=messages] [wrap=true] [version=false]}}
      * </pre>
      *
      * If locale argument is present it will translate that locale to JavaScript. Otherwise, the
@@ -222,6 +223,17 @@ public enum I18nHelper implements Helper<String> {
      *
      * Use wrap=true for wrapping the code with a script tag.
      *
+     * Use version=true for printing a content hash of the JavaScript code (not the code itself).
+     * The hash changes only when the bundle changes, so it is useful for building versioned and
+     * long-cacheable URLs, like:
+     *
+     * <pre>
+     *  &lt;script src="/i18n/es_AR.js?v={{i18nJs "es_AR" version=true}}"&gt;&lt;/script&gt;
+     * </pre>
+     *
+     * where <code>/i18n/es_AR.js</code> serves: <code>{{i18nJs "es_AR" wrap=false}}</code>.
+     * Output is cached per bundle and locale when using the default message source.
+     *
      * @param localeName The locale's name. Optional.
      * @param options The helper's options. Not null.
      * @return JavaScript code from {@link ResourceBundle}.
@@ -229,24 +241,44 @@ public enum I18nHelper implements Helper<String> {
      */
     @Override
     public CharSequence apply(final String localeName, final Options options) throws IOException {
-      Locale locale = LocaleUtils.toLocale(defaultIfEmpty(localeName, defaultLocale.toString()));
+      Locale locale = locale(localeName);
       String baseName = options.hash("bundle", defaultBundle);
       ClassLoader classLoader = options.hash("classLoader", getClass().getClassLoader());
-      I18nSource localSource = source == null
-          ? new DefI18nSource(baseName, locale, classLoader) : source;
-      StringBuilder buffer = new StringBuilder();
       Boolean wrap = options.hash("wrap", true);
-      if (wrap) {
-        buffer.append("<script type='text/javascript'>\n");
+      Boolean version = options.hash("version", false);
+      // the default source is immutable until reload, so output depends on bundle and locale
+      String key = baseName + "@" + locale;
+      String[] script = cachedScript(key, classLoader);
+      if (script == null) {
+        script = script(source(baseName, locale, classLoader), baseName, locale);
+        cacheScript(key, classLoader, script);
       }
+      if (version) {
+        return script[2];
+      }
+      return new Handlebars.SafeString(wrap ? script[1] : script[0]);
+    }
+
+    /**
+     * Generate the JavaScript code for a bundle.
+     *
+     * @param source The message source.
+     * @param baseName The bundle's name.
+     * @param locale The locale.
+     * @return The JavaScript code, the same code wrapped by a script tag and the content hash of
+     *         the JavaScript code.
+     */
+    private String[] script(final I18nSource source, final String baseName,
+        final Locale locale) {
+      StringBuilder buffer = new StringBuilder();
       buffer.append("  /* ").append(locale.getDisplayName()).append(" */\n");
       buffer.append("  I18n.translations = I18n.translations || {};\n");
       buffer.append("  I18n.translations['").append(locale.toString()).append("'] = {\n");
       StringBuilder body = new StringBuilder();
       String separator = ",\n";
-      String[] keys = localSource.keys(baseName, locale);
+      String[] keys = source.keys(baseName, locale);
       for (String key : keys) {
-        String message = message(localSource.message(key, locale));
+        String message = message(source.message(key, locale));
         body.append("    \"").append(key).append("\": ");
         body.append("\"").append(message).append("\"").append(separator);
       }
@@ -255,10 +287,9 @@ public enum I18nHelper implements Helper<String> {
         buffer.append(body);
       }
       buffer.append("\n  };\n");
-      if (wrap) {
-        buffer.append("</script>\n");
-      }
-      return new Handlebars.SafeString(buffer);
+      String js = buffer.toString();
+      return new String[]{js, "<script type='text/javascript'>\n" + js + "</script>\n",
+          Hashes.md5(js) };
     }
 
     /**
@@ -293,6 +324,102 @@ public enum I18nHelper implements Helper<String> {
   /** The message source to use. */
   protected I18nSource source;
 
+  /**
+   * Max number of parsed locales, bundles and scripts kept by a helper.
+   */
+  private static final int CACHE_SIZE = 100;
+
+  /**
+   * Parsed locales.
+   */
+  private final Map<String, Locale> locales = new BoundedConcurrentMap<String, Locale>(CACHE_SIZE);
+
+  /**
+   * The default message source (the one built on top of {@link ResourceBundle}) and its cache.
+   */
+  private final DefI18nSources defaults = new DefI18nSources(CACHE_SIZE);
+
+  /**
+   * The message source to use: the one set via {@link #setSource(I18nSource)} or the default
+   * one.
+   *
+   * @param baseName The bundle's name.
+   * @param locale The locale.
+   * @param classLoader The class loader.
+   * @return A message source.
+   */
+  protected I18nSource source(final String baseName, final Locale locale,
+      final ClassLoader classLoader) {
+    return source == null ? defaults.get(baseName, locale, classLoader) : source;
+  }
+
+  /**
+   * Get the JavaScript code of a bundle. Only code of the default message source loaded with the
+   * default class loader is cached.
+   *
+   * @param key The bundle's name and locale.
+   * @param classLoader The class loader.
+   * @return The JavaScript code or <code>null</code>.
+   */
+  protected String[] cachedScript(final String key, final ClassLoader classLoader) {
+    return cacheable(classLoader) ? defaults.script(key) : null;
+  }
+
+  /**
+   * Save the JavaScript code of a bundle. Only code of the default message source loaded with
+   * the default class loader is cached.
+   *
+   * @param key The bundle's name and locale.
+   * @param classLoader The class loader.
+   * @param script The JavaScript code.
+   */
+  protected void cacheScript(final String key, final ClassLoader classLoader,
+      final String[] script) {
+    if (cacheable(classLoader)) {
+      defaults.script(key, script);
+    }
+  }
+
+  /**
+   * True, if the output of the current message source can be cached.
+   *
+   * @param classLoader The class loader.
+   * @return True, if the output of the current message source can be cached.
+   */
+  private boolean cacheable(final ClassLoader classLoader) {
+    return source == null && classLoader == I18nHelper.class.getClassLoader();
+  }
+
+  /**
+   * Parse a locale or fallback to the default locale.
+   *
+   * @param localeName The locale's name. Optional.
+   * @return A locale.
+   */
+  protected Locale locale(final String localeName) {
+    if (StringUtils.isEmpty(localeName)) {
+      return defaultLocale;
+    }
+    Locale locale = locales.get(localeName);
+    if (locale == null) {
+      locale = LocaleUtils.toLocale(localeName);
+      locales.put(localeName, locale);
+    }
+    return locale;
+  }
+
+  /**
+   * Clear cached bundles, messages and scripts of the default message source (the one built on
+   * top of {@link ResourceBundle}) of this helper. Bundles and messages will be loaded again on
+   * next use.
+   *
+   * Custom message sources set via {@link #setSource(I18nSource)} must handle reloading by
+   * themselves.
+   */
+  public void reload() {
+    defaults.reload();
+  }
+
   /**
    * Set the message source.
    *
@@ -302,6 +429,8 @@ public enum I18nHelper implements Helper<String> {
    */
   public void setSource(final I18nSource source) {
     this.source = notNull(source, "The i18n source is required.");
+    // the default source isn't used anymore
+    defaults.reload();
   }
 
   /**
@@ -330,12 +459,106 @@ public enum I18nHelper implements Helper<String> {
 
 }
 
-/** Default implementation of I18nSource. */
+/**
+ * The default message source of a helper. Bundles are cached per bundle's name and locale (when
+ * the bundle is loaded with the default class loader), the JavaScript code of a bundle is cached
+ * too. Both caches are bounded and cleared on {@link #reload()}.
+ */
+class DefI18nSources {
+
+  /** Cached sources for the default class loader. */
+  private final Map<String, DefI18nSource> sources;
+
+  /** Generated JavaScript code, per bundle and locale. */
+  private final Map<String, String[]> scripts;
+
+  /**
+   * Creates a new {@link DefI18nSources}.
+   *
+   * @param size Max number of bundles and scripts to keep.
+   */
+  public DefI18nSources(final int size) {
+    sources = new BoundedConcurrentMap<String, DefI18nSource>(size);
+    scripts = new BoundedConcurrentMap<String, String[]>(size);
+  }
+
+  /**
+   * Get or create a {@link DefI18nSource}. Only sources for the default class loader are cached.
+   *
+   * @param baseName The base name.
+   * @param locale The locale.
+   * @param classLoader The classloader.
+   * @return A message source.
+   */
+  public DefI18nSource get(final String baseName, final Locale locale,
+      final ClassLoader classLoader) {
+    if (classLoader != I18nHelper.class.getClassLoader()) {
+      return new DefI18nSource(baseName, locale, classLoader);
+    }
+    String key = baseName + "@" + locale;
+    DefI18nSource source = sources.get(key);
+    if (source == null) {
+      source = new DefI18nSource(baseName, locale, classLoader);
+      sources.put(key, source);
+    }
+    return source;
+  }
+
+  /**
+   * Get the JavaScript code of a bundle.
+   *
+   * @param key The bundle's name and locale.
+   * @return The JavaScript code or <code>null</code>.
+   */
+  public String[] script(final String key) {
+    return scripts.get(key);
+  }
+
+  /**
+   * Save the JavaScript code of a bundle.
+   *
+   * @param key The bundle's name and locale.
+   * @param script The JavaScript code.
+   */
+  public void script(final String key, final String[] script) {
+    scripts.put(key, script);
+  }
+
+  /**
+   * Clear all the cached sources, scripts and bundles.
+   */
+  public void reload() {
+    sources.clear();
+    scripts.clear();
+    ResourceBundle.clearCache(I18nHelper.class.getClassLoader());
+  }
+}
+
+/**
+ * Default implementation of I18nSource over a single bundle. Messages are cached per key:
+ * argument-free messages are served as constant strings and message formats are parsed once per
+ * thread.
+ */
 class DefI18nSource implements I18nSource {
 
   /** The resource bundle. */
   private ResourceBundle bundle;
 
+  /** The bundle's keys. */
+  private volatile String[] keys;
+
+  /** Argument-free messages. */
+  private final ConcurrentMap<String, String> messages = new ConcurrentHashMap<String, String>();
+
+  /** Parsed message formats of the current thread, bc {@link MessageFormat} isn't thread-safe. */
+  private final ThreadLocal<Map<String, MessageFormat>> formats =
+      new ThreadLocal<Map<String, MessageFormat>>() {
+        @Override
+        protected Map<String, MessageFormat> initialValue() {
+          return new HashMap<String, MessageFormat>();
+        }
+      };
+
   /**
    * Creates a new {@link DefI18nSource}.
    *
@@ -349,24 +572,49 @@ class DefI18nSource implements I18nSource {
 
   @Override
   public String[] keys(final String basename, final Locale locale) {
-    Enumeration<String> keys = bundle.getKeys();
-    List<String> result = new ArrayList<String>();
-    while (keys.hasMoreElements()) {
-      String key = keys.nextElement();
-      result.add(key);
+    String[] keys = this.keys;
+    if (keys == null) {
+      Enumeration<String> enumeration = bundle.getKeys();
+      List<String> result = new ArrayList<String>();
+      while (enumeration.hasMoreElements()) {
+        String key = enumeration.nextElement();
+        result.add(key);
+      }
+      keys = result.toArray(new String[result.size()]);
+      this.keys = keys;
     }
-    return result.toArray(new String[result.size()]);
+    return keys.clone();
   }
 
   @Override
   public String message(final String key, final Locale locale, final Object... args) {
-    isTrue(bundle.containsKey(key), "no message found: '%s' for locale '%s'.", key, locale);
-    String message = bundle.getString(key);
     if (args.length == 0) {
+      String message = messages.get(key);
+      if (message == null) {
+        message = bundleMessage(key, locale);
+        messages.put(key, message);
+      }
       return message;
     }
-    MessageFormat format = new MessageFormat(message, locale);
+    Map<String, MessageFormat> formats = this.formats.get();
+    MessageFormat format = formats.get(key);
+    if (format == null) {
+      format = new MessageFormat(bundleMessage(key, locale), locale);
+      formats.put(key, format);
+    }
     return format.format(args);
   }
 
-};
+  /**
+   * Read a message from the bundle.
+   *
+   * @param key The message's key.
+   * @param locale The current locale.
+   * @return The message.
+   */
+  private String bundleMessage(final String key, final Locale locale) {
+    isTrue(bundle.containsKey(key), "no message found: '%s' for locale '%s'.", key, locale);
+    return bundle.getString(key);
+  }
+
+}
@@ -20,15 +20,22 @@ package com.github.jknack.handlebars.helper;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.Options;
 
 /**
- * Wrap a method as Handlebars helper.
+ * Wrap a method as Handlebars helper. The argument layout is computed once, numbers are
+ * converted to the expected primitive type (a conversion that loses information is rejected)
+ * and varargs methods are supported.
  *
  * @author edgar.espina
  * @see Handlebars#registerHelpers(Object)
@@ -36,6 +43,64 @@ import com.github.jknack.handlebars.Options;
  */
 public class MethodHelper implements Helper<Object> {
 
+  /**
+   * Argument slot filled with the helper's context.
+   */
+  private static final int CONTEXT = -1;
+
+  /**
+   * Argument slot filled with the helper's options.
+   */
+  private static final int OPTIONS = -2;
+
+  /**
+   * Argument slot filled with the varargs array.
+   */
+  private static final int VARARGS = -3;
+
+  /**
+   * No arguments.
+   */
+  private static final Object[] NO_ARGS = {};
+
+  /**
+   * Primitive types and their wrappers.
+   */
+  private static final Map<Class<?>, Class<?>> PRIMITIVES = new HashMap<Class<?>, Class<?>>();
+
+  /**
+   * Wrapper types and their primitives.
+   */
+  private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<Class<?>, Class<?>>();
+
+  /**
+   * Default values of primitive types.
+   */
+  private static final Map<Class<?>, Object> DEFAULTS = new HashMap<Class<?>, Object>();
+
+  static {
+    PRIMITIVES.put(int.class, Integer.class);
+    PRIMITIVES.put(long.class, Long.class);
+    PRIMITIVES.put(double.class, Double.class);
+    PRIMITIVES.put(float.class, Float.class);
+    PRIMITIVES.put(short.class, Short.class);
+    PRIMITIVES.put(byte.class, Byte.class);
+    PRIMITIVES.put(boolean.class, Boolean.class);
+    PRIMITIVES.put(char.class, Character.class);
+    for (Map.Entry<Class<?>, Class<?>> entry : PRIMITIVES.entrySet()) {
+      WRAPPERS.put(entry.getValue(), entry.getKey());
+    }
+
+    DEFAULTS.put(int.class, 0);
+    DEFAULTS.put(long.class, 0L);
+    DEFAULTS.put(double.class, 0D);
+    DEFAULTS.put(float.class, 0F);
+    DEFAULTS.put(short.class, (short) 0);
+    DEFAULTS.put(byte.class, (byte) 0);
+    DEFAULTS.put(boolean.class, false);
+    DEFAULTS.put(char.class, '\0');
+  }
+
   /**
    * The source or instance object. Might be null.
    */
@@ -46,6 +111,29 @@ public class MethodHelper implements Helper<Object> {
    */
   private Method method;
 
+  /**
+   * What goes in each argument slot: {@link #CONTEXT}, {@link #OPTIONS}, {@link #VARARGS} or the
+   * index of a helper's param. Computed once.
+   */
+  private final int[] layout;
+
+  /**
+   * Target type of each argument when a conversion is required (primitives and boxed
+   * primitives) or null.
+   */
+  private final Class<?>[] conversions;
+
+  /**
+   * True, if at least one argument requires a conversion.
+   */
+  private final boolean convert;
+
+  /**
+   * The component type of the varargs (last) parameter or null if the method isn't a varargs
+   * method.
+   */
+  private final Class<?> varargs;
+
   /**
    * Creates a new {@link MethodHelper}.
    *
@@ -55,28 +143,59 @@ public class MethodHelper implements Helper<Object> {
   public MethodHelper(final Method method, final Object source) {
     this.method = notNull(method, "A helper method is required.");
     this.source = source;
+    Class<?>[] paramTypes = method.getParameterTypes();
+    int size = paramTypes.length;
+    this.varargs = method.isVarArgs() ? paramTypes[size - 1].getComponentType() : null;
+    this.layout = new int[size];
+    for (int i = 0; i < size; i++) {
+      // 1st arg is the context, then params
+      layout[i] = i - 1;
+    }
+    if (size > 0) {
+      layout[0] = CONTEXT;
+      if (varargs != null) {
+        // trailing values (context included for a single varargs parameter)
+        layout[size - 1] = VARARGS;
+      } else if (paramTypes[size - 1] == Options.class) {
+        layout[size - 1] = OPTIONS;
+      }
+    }
+    this.conversions = new Class<?>[size];
+    boolean convert = false;
+    for (int i = 0; i < size; i++) {
+      Class<?> type = paramTypes[i];
+      if (layout[i] != OPTIONS && layout[i] != VARARGS
+          && (type.isPrimitive() || WRAPPERS.containsKey(type))) {
+        conversions[i] = type;
+        convert = true;
+      }
+    }
+    this.convert = convert;
+    // skip access checks on every call
+    method.setAccessible(true);
   }
 
   @Override
   public CharSequence apply(final Object context, final Options options) throws IOException {
-    Class<?>[] paramTypes = method.getParameterTypes();
-    Object[] args = new Object[paramTypes.length];
-    if (args.length > 0) {
-      // one arg helper must be: Context or Options
-      if (args.length == 1) {
-        if (paramTypes[0] == Options.class) {
-          args[0] = options;
-        } else {
-          args[0] = context;
-        }
+    int size = layout.length;
+    Object[] args = size == 0 ? NO_ARGS : new Object[size];
+    for (int i = 0; i < size; i++) {
+      int slot = layout[i];
+      if (slot >= 0) {
+        args[i] = options.param(slot, null);
+      } else if (slot == CONTEXT) {
+        args[i] = context;
+      } else if (slot == OPTIONS) {
+        args[i] = options;
       } else {
-        // multi arg helper: 1st arg must be context, then args and may be options
-        args[0] = context;
-        for (int i = 0; i < options.params.length; i++) {
-          args[i + 1] = options.param(i);
-        }
-        if (args.length > options.params.length + 1) {
-          args[args.length - 1] = options;
+        args[i] = varargs(context, options);
+      }
+    }
+    if (convert) {
+      for (int i = 0; i < size; i++) {
+        Class<?> type = conversions[i];
+        if (type != null) {
+          args[i] = convert(args[i], type);
         }
       }
     }
@@ -89,6 +208,123 @@ public class MethodHelper implements Helper<Object> {
     }
   }
 
+  /**
+   * Creates the varargs array: the trailing values of context and params, once the fixed
+   * arguments are set.
+   *
+   * @param context The helper's context.
+   * @param options The helper's options.
+   * @return The varargs array.
+   */
+  private Object varargs(final Object context, final Options options) {
+    // values are: context, param 0, param 1, ...
+    int from = layout.length - 1;
+    int len = Math.max(0, options.params.length + 1 - from);
+    Object array = Array.newInstance(varargs, len);
+    for (int i = 0; i < len; i++) {
+      int index = from + i;
+      Object value = index == 0 ? context : options.param(index - 1, null);
+      if (varargs.isPrimitive() || WRAPPERS.containsKey(varargs)) {
+        value = convert(value, varargs);
+      }
+      Array.set(array, i, value);
+    }
+    return array;
+  }
+
+  /**
+   * Convert numbers to the expected primitive or boxed type. For primitive types, null is
+   * converted to the default value (0 or false). A number that can't be converted without
+   * losing information, like <code>2.5</code> to an <code>int</code>, is rejected with an
+   * {@link IllegalArgumentException}.
+   *
+   * @param value The argument value. Might be null.
+   * @param type The expected type.
+   * @return The converted value or the original value.
+   */
+  private static Object convert(final Object value, final Class<?> type) {
+    Class<?> wrapper = type.isPrimitive() ? PRIMITIVES.get(type) : type;
+    if (value == null) {
+      return type.isPrimitive() ? DEFAULTS.get(type) : null;
+    }
+    if (wrapper.isInstance(value) || !(value instanceof Number)) {
+      return value;
+    }
+    Number number = (Number) value;
+    final Number converted;
+    if (wrapper == Integer.class) {
+      converted = number.intValue();
+    } else if (wrapper == Long.class) {
+      converted = number.longValue();
+    } else if (wrapper == Double.class) {
+      converted = number.doubleValue();
+    } else if (wrapper == Float.class) {
+      converted = number.floatValue();
+    } else if (wrapper == Short.class) {
+      converted = number.shortValue();
+    } else if (wrapper == Byte.class) {
+      converted = number.byteValue();
+    } else {
+      return value;
+    }
+    if (!sameValue(number, converted)) {
+      throw new IllegalArgumentException("Can't convert " + value + " ("
+          + value.getClass().getSimpleName() + ") to " + type.getSimpleName()
+          + " without losing information");
+    }
+    return converted;
+  }
+
+  /**
+   * True, if two numbers have the same (exact) value.
+   *
+   * @param number A number.
+   * @param converted The number converted to another type.
+   * @return True, if two numbers have the same (exact) value.
+   */
+  private static boolean sameValue(final Number number, final Number converted) {
+    BigDecimal expected = decimal(number);
+    BigDecimal actual = decimal(converted);
+    if (expected == null || actual == null) {
+      // NaN and infinite values: kept by double and float only
+      double value = number.doubleValue();
+      return Double.isNaN(value) ? Double.isNaN(converted.doubleValue())
+          : value == converted.doubleValue();
+    }
+    return expected.compareTo(actual) == 0;
+  }
+
+  /**
+   * The exact decimal value of a number.
+   *
+   * @param number A number.
+   * @return The exact decimal value of a number or null for NaN and infinite values.
+   */
+  private static BigDecimal decimal(final Number number) {
+    if (number instanceof BigDecimal) {
+      return (BigDecimal) number;
+    }
+    if (number instanceof BigInteger) {
+      return new BigDecimal((BigInteger) number);
+    }
+    if (number instanceof Double || number instanceof Float) {
+      double value = number.doubleValue();
+      if (Double.isNaN(value) || Double.isInfinite(value)) {
+        return null;
+      }
+      return new BigDecimal(value);
+    }
+    if (number instanceof Integer || number instanceof Long || number instanceof Short
+        || number instanceof Byte) {
+      return BigDecimal.valueOf(number.longValue());
+    }
+    try {
+      return new BigDecimal(number.toString());
+    } catch (NumberFormatException ex) {
+      return decimal(number.doubleValue());
+    }
+  }
+
   /**
    * Return a runtime exception or throw an {@link IOException}.
    *
@@ -176,9 +176,7 @@ public final class PrecompileHelper implements Helper<String> {
       throws IOException {
     notEmpty(path, "found: '%s', expected 'template path'", path);
     String wrapperName = options.hash("wrapper", "anonymous");
-    final JsWrapper wrapper = JsWrapper.wrapper(wrapperName);
-    notNull(wrapper, "found '%s', expected: '%s'",
-        wrapperName, StringUtils.join(JsWrapper.values(), ", ").toLowerCase());
+    final JsWrapper wrapper = wrapper(wrapperName);
 
     Handlebars handlebars = options.handlebars;
     String name = path;
@@ -193,4 +191,31 @@ public final class PrecompileHelper implements Helper<String> {
     return new Handlebars.SafeString(wrapper.wrap(name, precompiled));
   }
 
+  /**
+   * Wrap a template already converted to JavaScript, like the helper does.
+   *
+   * @param wrapperName The wrapper's name: <code>anonymous</code>, <code>amd</code> or
+   *        <code>none</code>.
+   * @param name The template's name.
+   * @param precompiled The precompiled template.
+   * @return The wrapped template.
+   */
+  public static CharSequence wrap(final String wrapperName, final String name,
+      final String precompiled) {
+    return new Handlebars.SafeString(wrapper(wrapperName).wrap(name, precompiled));
+  }
+
+  /**
+   * Find a wrapper by name.
+   *
+   * @param wrapperName The wrapper's name.
+   * @return The wrapper.
+   */
+  private static JsWrapper wrapper(final String wrapperName) {
+    JsWrapper wrapper = JsWrapper.wrapper(wrapperName);
+    notNull(wrapper, "found '%s', expected: '%s'",
+        wrapperName, StringUtils.join(JsWrapper.values(), ", ").toLowerCase());
+    return wrapper;
+  }
+
 }
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.helper;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.HelperRegistry;
+
+/**
+ * A {@link HelperRegistry} layered over a parent registry. Helpers registered here are visible
+ * from this registry only and they take precedence over the parent's helpers. Useful for
+ * registering tenant helpers on top of a shared base registry:
+ *
+ * <pre>
+ *   HelperRegistry base = new DefaultHelperRegistry();
+ *   ...
+ *   Handlebars tenant = new Handlebars()
+ *     .with(new ScopedHelperRegistry(base));
+ * </pre>
+ *
+ * Like {@link DefaultHelperRegistry} this registry is thread-safe.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class ScopedHelperRegistry extends DefaultHelperRegistry {
+
+  /**
+   * The parent registry.
+   */
+  private final HelperRegistry parent;
+
+  /**
+   * Creates a new {@link ScopedHelperRegistry}.
+   *
+   * @param parent The parent registry. Required.
+   */
+  public ScopedHelperRegistry(final HelperRegistry parent) {
+    super(false);
+    this.parent = notNull(parent, "The parent registry is required.");
+  }
+
+  @Override
+  public <C> Helper<C> helper(final String name) {
+    Helper<C> helper = super.helper(name);
+    if (helper == null) {
+      return parent.helper(name);
+    }
+    return helper;
+  }
+
+  @Override
+  public Set<Entry<String, Helper<?>>> helpers() {
+    Map<String, Helper<?>> helpers = new LinkedHashMap<String, Helper<?>>();
+    for (Entry<String, Helper<?>> helper : parent.helpers()) {
+      helpers.put(helper.getKey(), helper.getValue());
+    }
+    for (Entry<String, Helper<?>> helper : super.helpers()) {
+      helpers.put(helper.getKey(), helper.getValue());
+    }
+    return Collections.unmodifiableMap(helpers).entrySet();
+  }
+
+  /**
+   * The registry version, it changes when a helper is registered here or in the parent
+   * registry (when the parent is a {@link DefaultHelperRegistry}).
+   *
+   * @return The registry version.
+   */
+  @Override
+  public long version() {
+    long version = super.version();
+    if (parent instanceof DefaultHelperRegistry) {
+      version += ((DefaultHelperRegistry) parent).version();
+    }
+    return version;
+  }
+
+  /**
+   * The parent registry.
+   *
+   * @return The parent registry.
+   */
+  public HelperRegistry parent() {
+    return parent;
+  }
+
+}
@@ -25,9 +25,7 @@ import java.io.IOException;
 import java.math.RoundingMode;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -37,7 +35,6 @@ import java.util.TimeZone;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang3.LocaleUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.text.WordUtils;
 
@@ -505,6 +502,11 @@ public enum StringHelpers implements Helper<Object> {
    *    {{dateFormat date ["format"] [format="format"][tz=timeZone|timeZoneId]}}
    * </pre>
    *
+   * The date is one of {@link Date}, <code>java.time.Instant</code>,
+   * <code>java.time.LocalDate</code>, <code>java.time.LocalDateTime</code>,
+   * <code>java.time.ZonedDateTime</code> or <code>java.time.OffsetDateTime</code>. Zoned values
+   * are printed in their own time zone, unless a <code>tz</code> is present.
+   *
    * Format parameters is one of:
    * <ul>
    * <li>"full": full date format. For example: Tuesday, June 19, 2012</li>
@@ -533,24 +535,21 @@ public enum StringHelpers implements Helper<Object> {
 
     @Override
     protected CharSequence safeApply(final Object value, final Options options) {
-      isTrue(value instanceof Date, "found '%s', expected 'date'", value);
-      Date date = (Date) value;
-      final DateFormat dateFormat;
+      isTrue(Formatters.isDate(value), "found '%s', expected 'date'", value);
       Object pattern = options.param(0, options.hash("format", "medium"));
       String localeStr = options.param(1, Locale.getDefault().toString());
-      Locale locale = LocaleUtils.toLocale(localeStr);
+      Locale locale = Formatters.locale(localeStr);
       Integer style = styles.get(pattern);
-      if (style == null) {
-        dateFormat = new SimpleDateFormat(pattern.toString(), locale);
-      } else {
-        dateFormat = DateFormat.getDateInstance(style, locale);
-      }
       Object tz = options.hash("tz");
-      if (tz != null) {
-        final TimeZone timeZone = tz instanceof TimeZone ? (TimeZone) tz : TimeZone.getTimeZone(tz
-            .toString());
-        dateFormat.setTimeZone(timeZone);
+      final TimeZone timeZone;
+      if (tz == null) {
+        TimeZone valueTimeZone = Formatters.timeZone(value);
+        timeZone = valueTimeZone == null ? TimeZone.getDefault() : valueTimeZone;
+      } else {
+        timeZone = tz instanceof TimeZone ? (TimeZone) tz : TimeZone.getTimeZone(tz.toString());
       }
+      Date date = Formatters.toDate(value, timeZone);
+      DateFormat dateFormat = Formatters.dateFormat(pattern.toString(), style, locale, timeZone);
       return dateFormat.format(date);
     }
 
@@ -656,21 +655,13 @@ public enum StringHelpers implements Helper<Object> {
      */
     private NumberFormat build(final Options options) {
       if (options.params.length == 0) {
-        return NumberStyle.DEFAULT.numberFormat(Locale.getDefault());
+        return Formatters.numberFormat("default", Locale.getDefault());
       }
       isTrue(options.params[0] instanceof String, "found '%s', expected 'string'",
           options.params[0]);
       String format = options.param(0);
       String localeStr = options.param(1, Locale.getDefault().toString());
-      Locale locale = LocaleUtils.toLocale(localeStr);
-      try {
-        NumberStyle style = NumberStyle.valueOf(format.toUpperCase().trim());
-        return style.numberFormat(locale);
-      } catch (ArrayIndexOutOfBoundsException ex) {
-        return NumberStyle.DEFAULT.numberFormat(locale);
-      } catch (IllegalArgumentException ex) {
-        return new DecimalFormat(format, new DecimalFormatSymbols(locale));
-      }
+      return Formatters.numberFormat(format, Formatters.locale(localeStr));
     }
 
   },
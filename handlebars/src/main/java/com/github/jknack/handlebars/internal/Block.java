@@ -21,10 +21,12 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -124,13 +126,15 @@ class Block extends HelperResolver {
     final String helperName;
     Helper<Object> helper = helper(name);
     Template template = body;
+    final Object value;
     final Object childContext;
     Context currentScope = context;
     if (helper == null) {
-      childContext = transform(context.get(name));
+      value = context.get(name);
+      childContext = transform(value);
       if (inverted) {
         helperName = UnlessHelper.NAME;
-      } else if (childContext instanceof Iterable) {
+      } else if (childContext instanceof Iterable || childContext instanceof Iterator) {
         helperName = EachHelper.NAME;
       } else if (childContext instanceof Boolean) {
         helperName = IfHelper.NAME;
@@ -157,19 +161,28 @@ class Block extends HelperResolver {
       }
     } else {
       helperName = name;
-      childContext = transform(determineContext(context));
+      value = determineContext(context);
+      childContext = transform(value);
     }
     Options options = new Options.Builder(handlebars, helperName, TagType.SECTION, currentScope,
         template)
         .setInverse(inverse == null ? Template.EMPTY : inverse)
         .setParams(params(currentScope))
         .setHash(hash(context))
+        .setWriter(writer)
         .build();
     options.data(Context.PARAM_SIZE, this.params.size());
 
-    CharSequence result = helper.apply(childContext, options);
-    if (!isEmpty(result)) {
-      writer.append(result);
+    try {
+      CharSequence result = helper.apply(childContext, options);
+      if (!isEmpty(result)) {
+        writer.append(result);
+      }
+    } finally {
+      if (childContext != value && childContext instanceof Closeable) {
+        // a stream wrapped by us: close it, even if the helper didn't consume it (if, with, etc.)
+        ((Closeable) childContext).close();
+      }
     }
   }
 
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.internal;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notEmpty;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.jknack.handlebars.CompileResult;
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.io.TemplateLoader;
+import com.github.jknack.handlebars.io.TemplateSource;
+
+/**
+ * Compile many templates in parallel. Sources are deduplicated by filename and compiled through
+ * {@link Handlebars#compile(TemplateSource)}, so they end up in the configured template cache.
+ * Errors are reported per template, they never abort the batch.
+ * <p>
+ * Each template is published to the cache as soon as it is compiled, not when the batch is done:
+ * {@link com.github.jknack.handlebars.cache.TemplateCache} has no way to add many entries at
+ * once, and partials shared by the batch must be visible to the other tasks while they compile.
+ * </p>
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public final class BulkCompiler {
+
+  /**
+   * The logging system.
+   */
+  private static final Logger logger = LoggerFactory.getLogger(BulkCompiler.class);
+
+  /**
+   * Not allowed.
+   */
+  private BulkCompiler() {
+  }
+
+  /**
+   * Compile all the sources on the given executor and wait for them.
+   *
+   * @param handlebars The handlebars instance. Required.
+   * @param sources The template sources. Required.
+   * @param executor The executor. Required.
+   * @return One result per source, in the same order.
+   */
+  public static List<CompileResult> compileAll(final Handlebars handlebars,
+      final Collection<? extends TemplateSource> sources, final Executor executor) {
+    notNull(handlebars, "The handlebars is required.");
+    notNull(sources, "The sources are required.");
+    notNull(executor, "The executor is required.");
+
+    Map<String, TemplateSource> unique = new LinkedHashMap<String, TemplateSource>();
+    for (TemplateSource source : sources) {
+      if (!unique.containsKey(source.filename())) {
+        unique.put(source.filename(), source);
+      }
+    }
+
+    final Map<String, CompileResult> results = new ConcurrentHashMap<String, CompileResult>();
+    final CountDownLatch latch = new CountDownLatch(unique.size());
+    for (final TemplateSource source : unique.values()) {
+      Runnable task = new Runnable() {
+        @Override
+        public void run() {
+          try {
+            results.put(source.filename(), compile(handlebars, source));
+          } finally {
+            latch.countDown();
+          }
+        }
+      };
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException ex) {
+        // compile it here
+        task.run();
+      }
+    }
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          latch.await();
+          break;
+        } catch (InterruptedException ex) {
+          // keep waiting, tasks might still be using the caller's resources
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    List<CompileResult> list = new ArrayList<CompileResult>(sources.size());
+    for (TemplateSource source : sources) {
+      list.add(results.get(source.filename()));
+    }
+    return list;
+  }
+
+  /**
+   * List the templates of a loader. The loader's prefix must be a directory of the file system.
+   *
+   * @param loader The template loader. Required.
+   * @param glob A glob pattern matched against template locations (no prefix, no suffix), like
+   *        <code>tenants/**</code>. <code>*</code> and <code>?</code> don't cross directories.
+   *        Required.
+   * @return The matching template sources, sorted by location.
+   * @throws IOException If a template can't be loaded.
+   */
+  public static List<TemplateSource> list(final TemplateLoader loader, final String glob)
+      throws IOException {
+    notNull(loader, "The loader is required.");
+    notEmpty(glob, "The glob is required.");
+    File basedir = new File(loader.getPrefix());
+    isTrue(basedir.isDirectory(), "Can't list templates, not a directory: %s", basedir);
+
+    Pattern pattern = glob(glob.startsWith("/") ? glob.substring(1) : glob);
+    List<String> locations = new ArrayList<String>();
+    list(basedir, "", loader.getSuffix(), pattern, locations);
+    List<TemplateSource> sources = new ArrayList<TemplateSource>(locations.size());
+    for (String location : locations) {
+      sources.add(loader.sourceAt(location));
+    }
+    return sources;
+  }
+
+  /**
+   * Collect the template locations under a directory.
+   *
+   * @param dir The directory.
+   * @param path The directory's location.
+   * @param suffix The template suffix.
+   * @param glob The glob pattern.
+   * @param locations The matching locations.
+   */
+  private static void list(final File dir, final String path, final String suffix,
+      final Pattern glob, final List<String> locations) {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files);
+    for (File file : files) {
+      String name = file.getName();
+      if (file.isDirectory()) {
+        list(file, path + name + "/", suffix, glob, locations);
+      } else if (name.endsWith(suffix)) {
+        String location = path + name.substring(0, name.length() - suffix.length());
+        if (glob.matcher(location).matches()) {
+          locations.add(location);
+        }
+      }
+    }
+  }
+
+  /**
+   * Convert a glob pattern to a regular expression: <code>**</code> matches any path,
+   * <code>*</code> any name and <code>?</code> one char.
+   *
+   * @param glob The glob pattern.
+   * @return A regular expression.
+   */
+  static Pattern glob(final String glob) {
+    StringBuilder regex = new StringBuilder();
+    int i = 0;
+    while (i < glob.length()) {
+      char ch = glob.charAt(i);
+      if (glob.startsWith("**/", i)) {
+        regex.append("(.*/)?");
+        i += 3;
+      } else if (glob.startsWith("**", i)) {
+        regex.append(".*");
+        i += 2;
+      } else {
+        if (ch == '*') {
+          regex.append("[^/]*");
+        } else if (ch == '?') {
+          regex.append("[^/]");
+        } else {
+          regex.append(Pattern.quote(String.valueOf(ch)));
+        }
+        i += 1;
+      }
+    }
+    return Pattern.compile(regex.toString());
+  }
+
+  /**
+   * Compile a template source and keep track of errors and time.
+   *
+   * @param handlebars The handlebars instance.
+   * @param source The template source.
+   * @return The result.
+   */
+  private static CompileResult compile(final Handlebars handlebars, final TemplateSource source) {
+    long start = System.nanoTime();
+    try {
+      Template template = handlebars.compile(source);
+      return new CompileResult(source, template, null, System.nanoTime() - start);
+    } catch (Throwable ex) {
+      // Errors too: a StackOverflowError on deeply nested input must not kill the task
+      logger.debug("Compilation of {} failed", source.filename(), ex);
+      return new CompileResult(source, null, ex, System.nanoTime() - start);
+    }
+  }
+}
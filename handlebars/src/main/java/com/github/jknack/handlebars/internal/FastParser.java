@@ -0,0 +1,1614 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.CommonToken;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.HandlebarsError;
+import com.github.jknack.handlebars.HandlebarsException;
+import com.github.jknack.handlebars.TagType;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.io.TemplateSource;
+
+/**
+ * Hand-written scanner and recursive descent parser for Handlebars templates. It recognizes the
+ * same language as {@link HbsLexer} and {@link HbsParser} but it doesn't create a parse tree:
+ * tokens are kept as offsets in a few int arrays and templates are created by the
+ * {@link TemplateBuilder} while parsing.
+ *
+ * The scanner applies the {@link WhiteSpaceTrimmer} rules as soon as a tag is recognized, so
+ * spaces and new lines are marked as hidden before the parser runs.
+ *
+ * A {@link FastParser} isn't thread-safe and it must be used once.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+class FastParser {
+
+  /** End of input. */
+  private static final int EOF = 0;
+
+  /** Plain text. */
+  private static final int TEXT = 1;
+
+  /** Spaces and tabs. */
+  private static final int SPACE = 2;
+
+  /** A new line. */
+  private static final int NL = 3;
+
+  /** An escaped mustache: <code>\{{var}}</code>. */
+  private static final int ESC_VAR = 4;
+
+  /** A comment: <code>{{! comment}}</code>. */
+  private static final int COMMENT = 5;
+
+  /** Start of an ampersand var: <code>{{&amp;</code>. */
+  private static final int START_AMP = 6;
+
+  /** Start of a triple var: <code>{{{</code>. */
+  private static final int START_T = 7;
+
+  /** Start of an inverted section or else: <code>{{^</code>. */
+  private static final int UNLESS = 8;
+
+  /** Start of a block: <code>{{#</code>. */
+  private static final int START_BLOCK = 9;
+
+  /** Start of a set delimiters tag: <code>{{=</code>. */
+  private static final int START_DELIM = 10;
+
+  /** Start of a partial: <code>{{&gt;</code>. */
+  private static final int START_PARTIAL = 11;
+
+  /** Start of an end block tag: <code>{{/</code>. */
+  private static final int END_BLOCK = 12;
+
+  /** Start of a var: <code>{{</code>. */
+  private static final int START = 13;
+
+  /** End of a set delimiters tag: <code>=}}</code>. */
+  private static final int END_DELIM = 14;
+
+  /** End of a triple var: <code>}}}</code>. */
+  private static final int END_T = 15;
+
+  /** End of a tag: <code>}}</code>. */
+  private static final int END = 16;
+
+  /** A double quoted string. */
+  private static final int DOUBLE_STRING = 17;
+
+  /** A single quoted string. */
+  private static final int SINGLE_STRING = 18;
+
+  /** The hash separator. */
+  private static final int EQ = 19;
+
+  /** An integer. */
+  private static final int INT = 20;
+
+  /** A boolean. */
+  private static final int BOOLEAN = 21;
+
+  /** The else keyword. */
+  private static final int ELSE = 22;
+
+  /** A qualified id. */
+  private static final int QID = 23;
+
+  /** A partial's path. */
+  private static final int PATH = 24;
+
+  /** Left parenthesis. */
+  private static final int LP = 25;
+
+  /** Right parenthesis. */
+  private static final int RP = 26;
+
+  /** Subtypes of the start delimiter, in {@link HbsLexer} order. */
+  private static final String SUBTYPES = "&{^#=>/";
+
+  /** Initial capacity of the token arrays. */
+  private static final int CAPACITY = 64;
+
+  /** Hidden by the Mustache Spec. */
+  private static final byte STANDALONE = 1;
+
+  /** Hidden by a white space control tag, like: <code>{{~var~}}</code>. */
+  private static final byte TRIM = 2;
+
+  /** The handlebars object. */
+  private final Handlebars handlebars;
+
+  /** The template source. */
+  private final TemplateSource source;
+
+  /** The template content. */
+  private final String input;
+
+  /** The length of the template content. */
+  private final int length;
+
+  /** True, if the Mustache Spec must be applied. */
+  private final boolean prettyPrint;
+
+  /** The current start delimiter. */
+  private String start;
+
+  /** The current end delimiter. */
+  private String end;
+
+  /** New end delimiter, it is applied after the token that follows a set delimiters tag. */
+  private String nextEnd;
+
+  /** The delimiters found by the scanner, in order. */
+  private List<String> delimiters;
+
+  /** The token's types. */
+  private int[] types = new int[CAPACITY];
+
+  /** The token's start offsets. */
+  private int[] starts = new int[CAPACITY];
+
+  /** The token's end offsets. */
+  private int[] ends = new int[CAPACITY];
+
+  /** The token's lines. */
+  private int[] lines = new int[CAPACITY];
+
+  /** The token's columns. */
+  private int[] columns = new int[CAPACITY];
+
+  /** Hidden flags of spaces and new lines. */
+  private byte[] hidden = new byte[CAPACITY];
+
+  /** Number of tokens. */
+  private int size;
+
+  /** Scanner position. */
+  private int pos;
+
+  /** Scanner line. */
+  private int line = 1;
+
+  /** Offset where the current line starts. */
+  private int lineStart;
+
+  /** True, if white space control tags were found. */
+  private boolean whiteSpaceControl;
+
+  /** Mustache Spec: true, if the current line has text. */
+  private boolean nonSpace;
+
+  /** Mustache Spec: the current line has a tag (true), a var (false) or nothing (null). */
+  private Boolean hasTag;
+
+  /** Mustache Spec: spaces and new lines of the current line. */
+  private int[] lineSpaces = new int[CAPACITY];
+
+  /** Mustache Spec: number of spaces and new lines of the current line. */
+  private int lineSpacesSize;
+
+  /** White space control: spaces and new lines since the last tag. */
+  private int[] trimSpaces = new int[CAPACITY];
+
+  /** White space control: number of spaces and new lines since the last tag. */
+  private int trimSpacesSize;
+
+  /** White space control: greater than zero, if a trim-right operation is required. */
+  private int pending;
+
+  /** Open sections: true for blocks, false for inverted sections. */
+  private boolean[] sections = new boolean[CAPACITY];
+
+  /** Number of open sections. */
+  private int sectionsSize;
+
+  /** Parser position. */
+  private int p;
+
+  /** Index of the next delimiters to apply by the parser. */
+  private int delimiter;
+
+  /** The template builder. */
+  private TemplateBuilder builder;
+
+  /**
+   * Creates a new {@link FastParser}.
+   *
+   * @param handlebars The handlebars object.
+   * @param source The template source.
+   * @param startDelimiter The start delimiter.
+   * @param endDelimiter The end delimiter.
+   * @throws IOException If the template's content can't be read.
+   */
+  FastParser(final Handlebars handlebars, final TemplateSource source,
+      final String startDelimiter, final String endDelimiter) throws IOException {
+    this.handlebars = handlebars;
+    this.source = source;
+    this.input = source.content();
+    this.length = input.length();
+    this.prettyPrint = handlebars.prettyPrint();
+    this.start = startDelimiter;
+    this.end = endDelimiter;
+  }
+
+  /**
+   * Parse the template.
+   *
+   * @return A new template.
+   */
+  Template parse() {
+    String startDelimiter = start;
+    String endDelimiter = end;
+    scan();
+
+    // the parser replays delimiters changes
+    this.start = startDelimiter;
+    this.end = endDelimiter;
+    this.builder = new TemplateBuilder(handlebars, source) {
+      @Override
+      protected void reportError(final CommonToken offendingToken, final int line,
+          final int column, final String message) {
+        throw error(line, column, message);
+      }
+    };
+    List<Template> statements = new ArrayList<Template>();
+    statements(statements);
+    expect(EOF);
+    return builder.template(builder.body(statements));
+  }
+
+  /**
+   * Parse statements until the end of a body: an else, an end block or the end of input.
+   *
+   * @param statements The statements.
+   */
+  private void statements(final List<Template> statements) {
+    while (true) {
+      switch (types[p]) {
+        case TEXT:
+          statements.add(builder.text(text(p), lines[p], columns[p]));
+          p++;
+          break;
+        case SPACE:
+          statements.add(builder.spaces(text(p), isHidden(p), lines[p], columns[p]));
+          p++;
+          break;
+        case NL:
+          statements.add(builder.newline(text(p), isHidden(p), lines[p], columns[p]));
+          p++;
+          break;
+        case ESC_VAR:
+          statements.add(builder.escape(input.substring(starts[p] + 1, ends[p]), lines[p],
+              columns[p]));
+          p++;
+          break;
+        case COMMENT:
+          statements.add(Template.EMPTY);
+          p++;
+          break;
+        case START_DELIM:
+          delimiters();
+          statements.add(null);
+          break;
+        case START_BLOCK:
+          statements.add(block());
+          break;
+        case UNLESS:
+          if (type(p + 1) == END) {
+            return;
+          }
+          statements.add(unless());
+          break;
+        case START:
+          if (type(p + 1) == ELSE) {
+            return;
+          }
+          statements.add(var(TagType.VAR, END));
+          break;
+        case START_T:
+          statements.add(var(TagType.TRIPLE_VAR, END_T));
+          break;
+        case START_AMP:
+          statements.add(var(TagType.AMP_VAR, END));
+          break;
+        case START_PARTIAL:
+          statements.add(partial());
+          break;
+        default:
+          return;
+      }
+    }
+  }
+
+  /**
+   * Parse a body.
+   *
+   * @return A template.
+   */
+  private Template body() {
+    List<Template> statements = new ArrayList<Template>();
+    statements(statements);
+    return builder.body(statements);
+  }
+
+  /**
+   * Apply the next delimiters found by the scanner.
+   */
+  private void delimiters() {
+    p++;
+    expect(END_DELIM);
+    start = delimiters.get(delimiter++);
+    end = delimiters.get(delimiter++);
+  }
+
+  /**
+   * Parse a block: <code>{{#name}}...{{else}}...{{/name}}</code>.
+   *
+   * @return A new block.
+   */
+  private Template block() {
+    int open = p++;
+    int name = expect(QID);
+    List<Object> params = params();
+    Map<String, Object> hash = hash();
+    expect(END);
+
+    Block block = builder.startBlock(text(name), lines[name], columns[name], params, hash,
+        startDelimiter(open));
+    Template body = body();
+    String inverseLabel = null;
+    Template inverse = null;
+    if (types[p] == UNLESS || types[p] == START) {
+      if (types[p] == START) {
+        p++;
+      }
+      inverseLabel = text(p);
+      p++;
+      expect(END);
+      inverse = body();
+    }
+    expect(END_BLOCK);
+    int nameEnd = expect(QID);
+    int close = expect(END);
+    builder.nameEnd(text(name), text(nameEnd), lines[nameEnd], columns[nameEnd]);
+    return builder.endBlock(block, body, inverseLabel, inverse, text(close));
+  }
+
+  /**
+   * Parse an inverted section: <code>{{^name}}...{{/name}}</code>.
+   *
+   * @return A new inverted section.
+   */
+  private Template unless() {
+    int open = p++;
+    int name = expect(QID);
+    expect(END);
+
+    Block block = builder.startUnless(text(name), lines[name], columns[name],
+        startDelimiter(open));
+    Template body = body();
+    expect(END_BLOCK);
+    expect(QID);
+    int close = expect(END);
+    return builder.endUnless(block, body, text(close));
+  }
+
+  /**
+   * Parse a var: <code>{{name}}</code>, <code>{{{name}}}</code> or <code>{{&amp;name}}</code>.
+   *
+   * @param tagType The tag's type.
+   * @param endType The end token.
+   * @return A new var.
+   */
+  private Template var(final TagType tagType, final int endType) {
+    int open = p++;
+    int name = expect(QID);
+    List<Object> params = params();
+    Map<String, Object> hash = hash();
+    int close = expect(endType);
+    return builder.var(tagType, text(name), lines[name], columns[name], params, hash)
+        .startDelimiter(text(open))
+        .endDelimiter(text(close));
+  }
+
+  /**
+   * Parse a partial: <code>{{&gt; path context hash}}</code> or
+   * <code>{{&gt; (sexpr) hash}}</code>.
+   *
+   * @return A new partial.
+   */
+  private Template partial() {
+    int open = p++;
+    Template path;
+    String context = null;
+    Map<String, Object> hash;
+    int token;
+    if (types[p] == LP) {
+      int lp = p++;
+      token = expect(QID);
+      List<Object> params = params();
+      Map<String, Object> sexprHash = hash();
+      expect(RP);
+      hash = hash();
+      path = builder.newVar(text(token), lines[token], columns[token], TagType.SUB_EXPRESSION,
+          params, sexprHash)
+          .startDelimiter(text(lp))
+          .endDelimiter(text(p - 1));
+    } else {
+      token = p;
+      if (types[token] != QID && types[token] != PATH) {
+        throw unexpected(token, "path");
+      }
+      p++;
+      path = builder.partialPath(text(token), lines[token], columns[token]);
+      if (types[p] == QID && type(p + 1) != EQ) {
+        if (types[token] == QID) {
+          context = text(p);
+        }
+        p++;
+      }
+      hash = hash();
+    }
+    int close = expect(END);
+    return builder.partial(path, context, hash, startDelimiter(open), text(close),
+        lines[token], columns[token]);
+  }
+
+  /**
+   * Parse params.
+   *
+   * @return The params.
+   */
+  private List<Object> params() {
+    List<Object> params = null;
+    while (isParam()) {
+      if (params == null) {
+        params = new ArrayList<Object>();
+      }
+      params.add(param());
+    }
+    if (params == null) {
+      return Collections.emptyList();
+    }
+    return params;
+  }
+
+  /**
+   * @return True, if the current token starts a param.
+   */
+  private boolean isParam() {
+    switch (types[p]) {
+      case DOUBLE_STRING:
+      case SINGLE_STRING:
+      case INT:
+      case BOOLEAN:
+      case LP:
+        return true;
+      case QID:
+        return type(p + 1) != EQ;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Parse a param.
+   *
+   * @return The param's value.
+   */
+  private Object param() {
+    int token = p++;
+    switch (types[token]) {
+      case DOUBLE_STRING:
+        return TemplateBuilder.stringLiteral(text(token));
+      case SINGLE_STRING:
+        return TemplateBuilder.charLiteral(text(token));
+      case INT:
+        return Integer.parseInt(text(token));
+      case BOOLEAN:
+        return Boolean.valueOf(text(token));
+      case QID:
+        return text(token);
+      case LP:
+        int name = expect(QID);
+        List<Object> params = params();
+        Map<String, Object> hash = hash();
+        int close = expect(RP);
+        return builder.newVar(text(name), lines[name], columns[name], TagType.SUB_EXPRESSION,
+            params, hash)
+            .startDelimiter(text(token))
+            .endDelimiter(text(close));
+      default:
+        throw unexpected(token, "param");
+    }
+  }
+
+  /**
+   * Parse a hash.
+   *
+   * @return The hash.
+   */
+  private Map<String, Object> hash() {
+    Map<String, Object> hash = null;
+    while (types[p] == QID && type(p + 1) == EQ) {
+      if (hash == null) {
+        hash = new LinkedHashMap<String, Object>();
+      }
+      String key = text(p);
+      p += 2;
+      hash.put(key, param());
+    }
+    if (hash == null) {
+      return Collections.emptyMap();
+    }
+    return hash;
+  }
+
+  /**
+   * Consume the current token.
+   *
+   * @param type The expected type.
+   * @return The token's index.
+   */
+  private int expect(final int type) {
+    if (types[p] != type) {
+      throw unexpected(p, expected(type));
+    }
+    return p++;
+  }
+
+  /**
+   * @param type The token's type.
+   * @return A token description for error messages.
+   */
+  private String expected(final int type) {
+    switch (type) {
+      case EOF:
+        return "EOF";
+      case END:
+        return end;
+      case END_T:
+        return "}" + end;
+      case END_DELIM:
+        return "=" + end;
+      case END_BLOCK:
+        return start + "/";
+      case RP:
+        return ")";
+      default:
+        return "id";
+    }
+  }
+
+  /**
+   * @param token The token's index.
+   * @return The token's text.
+   */
+  private String text(final int token) {
+    return input.substring(starts[token], ends[token]);
+  }
+
+  /**
+   * @param token The start token of a block, section or partial.
+   * @return The start delimiter of a block, section or partial.
+   */
+  private String startDelimiter(final int token) {
+    return input.substring(starts[token], ends[token] - 1);
+  }
+
+  /**
+   * @param token A space or new line token.
+   * @return True, if the token must be removed from output.
+   */
+  private boolean isHidden(final int token) {
+    return (hidden[token] & STANDALONE) != 0
+        || whiteSpaceControl && (hidden[token] & TRIM) != 0;
+  }
+
+  /**
+   * Creates a syntax error for an unexpected token.
+   *
+   * @param token The offending token.
+   * @param expected The expected token.
+   * @return A syntax error.
+   */
+  private HandlebarsException unexpected(final int token, final String expected) {
+    String found = "EOF";
+    if (types[token] != EOF) {
+      found = text(token);
+    }
+    return error(lines[token], columns[token],
+        "found: '" + found + "', expected: '" + expected + "'");
+  }
+
+  /**
+   * Creates a syntax error, like {@link HbsErrorReporter} does.
+   *
+   * @param line The offending line.
+   * @param column The offending column.
+   * @param reason The error's reason.
+   * @return A syntax error.
+   */
+  private HandlebarsException error(final int line, final int column, final String reason) {
+    String filename = source.filename();
+    int col = Math.max(1, column);
+    StringBuilder message = new StringBuilder();
+    message.append(filename).append(":").append(line).append(":").append(col).append(": ")
+        .append(reason).append("\n");
+    int evidenceStart = message.length();
+    String[] text = input.split("\n");
+    message.append(text[Math.max(0, Math.min(line - 1, text.length - 1))]).append("\n");
+    for (int i = 0; i < col; i++) {
+      message.append(" ");
+    }
+    message.append("^");
+    int prev = line - 2;
+    if (line > text.length) {
+      prev = text.length;
+    }
+    String evidence = lineAt(text, prev) + "\n" + message.substring(evidenceStart) + "\n"
+        + lineAt(text, line);
+    return new HandlebarsException(new HandlebarsError(filename, line, col, reason, evidence,
+        message.toString()));
+  }
+
+  /**
+   * @param text The source lines.
+   * @param number The line number to extract.
+   * @return The line or an empty string.
+   */
+  private static String lineAt(final String[] text, final int number) {
+    if (number >= 0 && number < text.length) {
+      return text[number];
+    }
+    return "";
+  }
+
+  /**
+   * Split the input in tokens, tags are validated by the parser.
+   */
+  private void scan() {
+    while (pos < length) {
+      char ch = input.charAt(pos);
+      if (isSpace(ch)) {
+        spaces();
+      } else if (ch == '\n' || ch == '\r') {
+        newline();
+      } else {
+        token();
+      }
+    }
+    add(EOF, length, length);
+    if (prettyPrint) {
+      stripSpaces();
+    }
+    trimRight();
+  }
+
+  /**
+   * Scan spaces and tabs.
+   */
+  private void spaces() {
+    int i = pos + 1;
+    while (i < length && isSpace(input.charAt(i))) {
+      i++;
+    }
+    int token = add(SPACE, pos, i);
+    pos = i;
+    applyEnd();
+    if (prettyPrint) {
+      lineSpaces = push(lineSpaces, lineSpacesSize++, token);
+    }
+    trimSpaces = push(trimSpaces, trimSpacesSize++, token);
+  }
+
+  /**
+   * Scan a new line: <code>\r?\n|\r</code>.
+   */
+  private void newline() {
+    int i = pos + 1;
+    if (input.charAt(pos) == '\r' && i < length && input.charAt(i) == '\n') {
+      i++;
+    }
+    int token = add(NL, pos, i);
+    advance(i);
+    applyEnd();
+    if (prettyPrint) {
+      lineSpaces = push(lineSpaces, lineSpacesSize++, token);
+      stripSpaces();
+    }
+    trimSpaces = push(trimSpaces, trimSpacesSize++, token);
+  }
+
+  /**
+   * Scan text, an escaped mustache, a comment or the start of a tag.
+   *
+   * Rules are tried in the same order and with the same side effects than the semantic
+   * predicates of {@link HbsLexer}: a match moves the scanner to the last char of the match, the
+   * next rules are tried from there and the first match gives the token's type.
+   */
+  private void token() {
+    int type = EOF;
+    int at = pos;
+    int len = escape(at);
+    if (len > 0) {
+      type = ESC_VAR;
+      at += len - 1;
+    }
+    len = textLength(at);
+    if (len > 0) {
+      type = first(type, TEXT);
+      at += len - 1;
+    }
+    if (input.startsWith(start, at)) {
+      len = comment(at);
+      if (len > 0) {
+        type = first(type, COMMENT);
+        at += len - 1;
+      }
+      for (int i = 0; i < SUBTYPES.length(); i++) {
+        len = startToken(at, SUBTYPES.charAt(i));
+        if (len > 0) {
+          type = first(type, startType(SUBTYPES.charAt(i)));
+          at += len - 1;
+        }
+      }
+      len = startToken(at);
+      if (len > 0) {
+        type = first(type, START);
+        at += len - 1;
+      }
+    }
+    if (type == EOF || at >= length) {
+      throw error(line, pos - lineStart, "found: '" + input.substring(pos) + "'");
+    }
+    int token = add(type, pos, at + 1);
+    advance(at + 1);
+    applyEnd();
+    switch (type) {
+      case TEXT:
+        nonSpace = true;
+        trim(token, token);
+        break;
+      case ESC_VAR:
+        break;
+      case COMMENT:
+        hasTag(true);
+        trim(token, token);
+        break;
+      case START_DELIM:
+        delimiters(token);
+        break;
+      default:
+        var(token);
+        break;
+    }
+  }
+
+  /**
+   * Apply the end delimiter of a set delimiters tag. Like {@link HbsLexer}, the token that
+   * follows a set delimiters tag is scanned with the new start delimiter and the previous end
+   * delimiter.
+   */
+  private void applyEnd() {
+    if (nextEnd != null) {
+      end = nextEnd;
+      nextEnd = null;
+    }
+  }
+
+  /**
+   * @param type The type of a previous match or {@link #EOF}.
+   * @param candidate The type of the current match.
+   * @return The type of the first match.
+   */
+  private static int first(final int type, final int candidate) {
+    if (type == EOF) {
+      return candidate;
+    }
+    return type;
+  }
+
+  /**
+   * Match an escaped mustache, like: <code>\{{var}}</code>.
+   *
+   * @param at The offset.
+   * @return Length of the match or 0.
+   */
+  private int escape(final int at) {
+    if (charAt(at) != '\\' || !input.startsWith(start, at + 1)) {
+      return 0;
+    }
+    int i = at + start.length();
+    while (i < length) {
+      if (input.startsWith(end, i)) {
+        break;
+      }
+      if (input.startsWith(start, i)) {
+        return 0;
+      }
+      i++;
+    }
+    return i + end.length() - at;
+  }
+
+  /**
+   * Match text until the start delimiter or a white space.
+   *
+   * @param at The offset.
+   * @return Length of the match or 0.
+   */
+  private int textLength(final int at) {
+    char first = start.charAt(0);
+    int i = at;
+    while (i < length) {
+      char ch = input.charAt(i);
+      if (isWhite(ch) || ch == first && input.startsWith(start, i)) {
+        break;
+      }
+      i++;
+    }
+    return i - at;
+  }
+
+  /**
+   * Match a comment: <code>{{! comment}}</code> or <code>{{!-- comment --}}</code>.
+   *
+   * @param at The offset.
+   * @return Length of the match or 0.
+   */
+  private int comment(final int at) {
+    int bang = at + start.length();
+    if (charAt(bang) != '!' || !input.startsWith(start, at)) {
+      return 0;
+    }
+    String close = end;
+    if (input.startsWith("--", bang + 1)) {
+      close = "--" + end;
+    }
+    int closeAt = input.indexOf(close, at);
+    if (closeAt < 0) {
+      closeAt = length;
+    }
+    return closeAt + close.length() - at;
+  }
+
+  /**
+   * Match the start delimiter followed by a subtype, like: <code>{{#</code> or
+   * <code>{{~#</code>.
+   *
+   * @param at The offset.
+   * @param subtype The subtype.
+   * @return Length of the match or 0.
+   */
+  private int startToken(final int at, final char subtype) {
+    if (!input.startsWith(start, at)) {
+      return 0;
+    }
+    int i = at + start.length();
+    if (charAt(i) == subtype) {
+      return i + 1 - at;
+    }
+    if (charAt(i) == '~' && charAt(i + 1) == subtype) {
+      whiteSpaceControl = true;
+      return i + 2 - at;
+    }
+    return 0;
+  }
+
+  /**
+   * Match the start delimiter: <code>{{~</code> or <code>{{</code>.
+   *
+   * @param at The offset.
+   * @return Length of the match or 0.
+   */
+  private int startToken(final int at) {
+    if (!input.startsWith(start, at)) {
+      return 0;
+    }
+    int i = at + start.length();
+    if (charAt(i) == '~') {
+      whiteSpaceControl = true;
+      return i + 1 - at;
+    }
+    return i - at;
+  }
+
+  /**
+   * Scan a set delimiters tag, like: <code>{{=&lt;% %&gt;=}}</code>. The new delimiters are
+   * applied once the tag has been scanned.
+   *
+   * @param open The start token.
+   */
+  private void delimiters(final int open) {
+    skipWhite();
+    int startFrom = pos;
+    while (pos < length && endDelimiter(pos) == 0 && !isWhite(input.charAt(pos))) {
+      pos++;
+    }
+    int startTo = pos;
+    skipWhite();
+    int endFrom = pos;
+    while (pos < length && endDelimiter(pos) == 0 && !isWhite(input.charAt(pos))) {
+      pos++;
+    }
+    int endTo = pos;
+    skipWhite();
+    int close = endDelimiter(pos);
+    if (startFrom == startTo || startTo == endFrom || endFrom == endTo || close == 0) {
+      int column = pos - lineStart;
+      String found = "EOF";
+      if (pos < length) {
+        found = input.substring(pos, pos + 1);
+      }
+      throw error(line, column, "found: '" + found + "', expected: '=" + end + "'");
+    }
+    int token = add(END_DELIM, pos, pos + close);
+    pos += close;
+
+    start = input.substring(startFrom, startTo);
+    nextEnd = input.substring(endFrom, endTo);
+    if (delimiters == null) {
+      delimiters = new ArrayList<String>();
+    }
+    delimiters.add(start);
+    delimiters.add(nextEnd);
+
+    hasTag(true);
+    trim(open, token);
+  }
+
+  /**
+   * @param at The offset.
+   * @return Length of the end of a set delimiters tag at the given offset or 0.
+   */
+  private int endDelimiter(final int at) {
+    if (charAt(at) == '=' && input.startsWith(end, at + 1)) {
+      return end.length() + 1;
+    }
+    if (charAt(at) == '~' && charAt(at + 1) == '=' && input.startsWith(end, at + 2)) {
+      whiteSpaceControl = true;
+      return end.length() + 2;
+    }
+    return 0;
+  }
+
+  /**
+   * Scan the tokens of a mustache until the end delimiter.
+   *
+   * @param open The start token.
+   */
+  private void var(final int open) {
+    skipWhite();
+    while (pos < length && endType() == EOF) {
+      varToken();
+      skipWhite();
+    }
+    closeTag(open, size - 1);
+  }
+
+  /**
+   * Scan the end of a mustache at the current position. Like {@link #token()}, the end of a
+   * triple var is tried first and then the end of a var from the last char of the match.
+   *
+   * @return {@link #END_T}, {@link #END} or {@link #EOF} if there is no end delimiter.
+   */
+  private int endType() {
+    int type = EOF;
+    int at = pos;
+    int len = 0;
+    if (input.charAt(at) == '}') {
+      len = endToken(at + 1);
+      if (len > 0) {
+        type = END_T;
+        at += len;
+      }
+    }
+    len = endToken(at);
+    if (len > 0) {
+      type = first(type, END);
+      at += len - 1;
+    }
+    if (type != EOF) {
+      add(type, pos, at + 1);
+      pos = at + 1;
+    }
+    return type;
+  }
+
+  /**
+   * Match the end delimiter: <code>~}}</code> or <code>}}</code>.
+   *
+   * @param at The offset.
+   * @return Length of the match or 0.
+   */
+  private int endToken(final int at) {
+    if (input.startsWith(end, at)) {
+      return end.length();
+    }
+    if (charAt(at) == '~' && input.startsWith(end, at + 1)) {
+      whiteSpaceControl = true;
+      return end.length() + 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Scan a token inside a mustache. Like a lexer generator, the longest match wins and rule
+   * order breaks ties.
+   */
+  private void varToken() {
+    char ch = input.charAt(pos);
+    int type = EOF;
+    int len = 0;
+    if (ch == '"' || ch == '\'') {
+      len = string(ch);
+      if (ch == '"') {
+        type = DOUBLE_STRING;
+      } else {
+        type = SINGLE_STRING;
+      }
+    } else if (ch == '=') {
+      type = EQ;
+      len = 1;
+    } else if (ch == '(') {
+      type = LP;
+      len = 1;
+    } else if (ch == ')') {
+      type = RP;
+      len = 1;
+    }
+    int candidate = integer(pos);
+    if (candidate > len) {
+      type = INT;
+      len = candidate;
+    }
+    candidate = bool(pos);
+    if (candidate > len) {
+      type = BOOLEAN;
+      len = candidate;
+    }
+    candidate = elseKeyword(pos);
+    if (candidate > len) {
+      type = ELSE;
+      len = candidate;
+    }
+    candidate = qid(pos) - pos;
+    if (candidate > len) {
+      type = QID;
+      len = candidate;
+    }
+    candidate = path(pos);
+    if (candidate > len) {
+      type = PATH;
+      len = candidate;
+    }
+    if (len == 0) {
+      throw error(line, pos - lineStart, "found: '" + ch + "'");
+    }
+    add(type, pos, pos + len);
+    pos += len;
+  }
+
+  /**
+   * @param quote The quote character.
+   * @return Length of the string at the current position or 0.
+   */
+  private int string(final char quote) {
+    int i = pos + 1;
+    while (i < length) {
+      char ch = input.charAt(i);
+      if (ch == '\\' && charAt(i + 1) == quote) {
+        i += 2;
+      } else if (ch == quote) {
+        return i + 1 - pos;
+      } else if (ch == '\n') {
+        break;
+      } else {
+        i++;
+      }
+    }
+    // no escape sequences
+    int at = input.indexOf(quote, pos + 1);
+    if (at > 0 && input.lastIndexOf('\n', at) < pos) {
+      return at + 1 - pos;
+    }
+    return 0;
+  }
+
+  /**
+   * @param at The offset.
+   * @return Length of the integer at the given offset or 0.
+   */
+  private int integer(final int at) {
+    int i = at;
+    if (charAt(i) == '-') {
+      i++;
+    }
+    int digits = i;
+    while (isDigit(charAt(i))) {
+      i++;
+    }
+    if (i == digits) {
+      return 0;
+    }
+    return i - at;
+  }
+
+  /**
+   * @param at The offset.
+   * @return Length of the boolean at the given offset or 0.
+   */
+  private int bool(final int at) {
+    if (input.startsWith("true", at)) {
+      return "true".length();
+    }
+    if (input.startsWith("false", at)) {
+      return "false".length();
+    }
+    return 0;
+  }
+
+  /**
+   * @param at The offset.
+   * @return Length of the else keyword at the given offset or 0.
+   */
+  private int elseKeyword(final int at) {
+    int i = at;
+    if (charAt(i) == '~') {
+      i++;
+    }
+    if (!input.startsWith("else", i)) {
+      return 0;
+    }
+    i += "else".length();
+    if (charAt(i) == '~') {
+      i++;
+    }
+    return i - at;
+  }
+
+  /**
+   * Match a qualified id, like: <code>this.name</code>, <code>../name</code> or
+   * <code>[a name]</code>.
+   *
+   * @param at The offset.
+   * @return End offset of the longest qualified id at the given offset or -1.
+   */
+  private int qid(final int at) {
+    int best = -1;
+    char ch = charAt(at);
+    if (ch == '.') {
+      best = at + 1;
+      if (charAt(at + 1) == '.') {
+        best = at + 2;
+        if (charAt(at + 2) == '/') {
+          best = Math.max(best, qid(at + 3));
+        }
+      }
+      return best;
+    }
+    if (ch == '[') {
+      int id = id(at + 1);
+      if (id > 0 && charAt(id) == ']') {
+        best = id + 1;
+        if (isSeparator(charAt(id + 1))) {
+          best = Math.max(best, qid(id + 2));
+        }
+      }
+    }
+    int id = id(at);
+    if (id > 0) {
+      best = Math.max(best, id);
+      // a separator followed by '[' can't be part of an id
+      if (charAt(id) == '[' && isSeparator(charAt(id - 1))) {
+        best = Math.max(best, qid(id));
+      }
+    }
+    return best;
+  }
+
+  /**
+   * @param at The offset.
+   * @return End offset of the id at the given offset or -1.
+   */
+  private int id(final int at) {
+    int i;
+    if (isIdStart(charAt(at))) {
+      i = at + 1;
+    } else {
+      i = idEscape(at);
+      if (i < 0) {
+        return -1;
+      }
+    }
+    while (true) {
+      char ch = charAt(i);
+      if (isIdStart(ch) || isDigit(ch) || ch == '.' || ch == '/' || ch == '-') {
+        i++;
+      } else if (ch == '[' && input.charAt(i - 1) == '.') {
+        int escape = idEscape(i);
+        if (escape < 0) {
+          return i;
+        }
+        i = escape;
+      } else {
+        return i;
+      }
+    }
+  }
+
+  /**
+   * @param at The offset.
+   * @return End offset of an escaped id, like: <code>[a name]</code> or -1.
+   */
+  private int idEscape(final int at) {
+    if (charAt(at) != '[') {
+      return -1;
+    }
+    int close = input.indexOf(']', at + 1);
+    if (close <= at + 1) {
+      return -1;
+    }
+    return close + 1;
+  }
+
+  /**
+   * @param at The offset.
+   * @return Length of the partial's path at the given offset or 0.
+   */
+  private int path(final int at) {
+    if (charAt(at) == '[') {
+      int segment = pathSegment(at + 1);
+      if (segment > 0 && charAt(at + 1 + segment) == ']') {
+        return segment + 2;
+      }
+    }
+    return pathSegment(at);
+  }
+
+  /**
+   * @param at The offset.
+   * @return Length of the path's segment at the given offset or 0.
+   */
+  private int pathSegment(final int at) {
+    int i = at;
+    while (true) {
+      char ch = charAt(i);
+      if (ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || isDigit(ch)
+          || "_$'/.:-".indexOf(ch) >= 0) {
+        i++;
+      } else {
+        return i - at;
+      }
+    }
+  }
+
+  /**
+   * Apply the Mustache Spec and the white space control rules of a tag.
+   *
+   * @param open The start token.
+   * @param close The end token.
+   */
+  private void closeTag(final int open, final int close) {
+    switch (types[open]) {
+      case START_BLOCK:
+        hasTag(true);
+        trim(open, close);
+        sections = push(sections, sectionsSize++, true);
+        break;
+      case UNLESS:
+        if (type(open + 1) == END) {
+          // else: {{^}}
+          trim(open, open + 1);
+        } else {
+          hasTag(true);
+          trim(open, close);
+          sections = push(sections, sectionsSize++, false);
+        }
+        break;
+      case START:
+        if (type(open + 1) != ELSE) {
+          hasTag(false);
+        }
+        trim(open, close);
+        break;
+      case END_BLOCK:
+        if (sectionsSize > 0) {
+          hasTag(true);
+          if (sections[--sectionsSize]) {
+            trim(open, close);
+          }
+        }
+        break;
+      case START_PARTIAL:
+        trim(open, close);
+        hasTag(true);
+        break;
+      default:
+        // tvar and ampvar
+        hasTag(false);
+        trim(open, close);
+        break;
+    }
+  }
+
+  /**
+   * Mustache Spec: mark the current line with a tag or a var.
+   *
+   * @param hasTag True for tags, false for vars.
+   */
+  private void hasTag(final boolean hasTag) {
+    if (this.hasTag != Boolean.FALSE) {
+      this.hasTag = hasTag;
+    }
+  }
+
+  /**
+   * Mustache Spec: hide spaces and new lines of a standalone line.
+   */
+  private void stripSpaces() {
+    if (hasTag == Boolean.TRUE && !nonSpace) {
+      for (int i = 0; i < lineSpacesSize; i++) {
+        hidden[lineSpaces[i]] |= STANDALONE;
+      }
+    }
+    lineSpacesSize = 0;
+    hasTag = null;
+    nonSpace = false;
+  }
+
+  /**
+   * White space control: trim spaces on left/right of a tag or text.
+   *
+   * @param open The first token.
+   * @param close The last token.
+   */
+  private void trim(final int open, final int close) {
+    trimRight();
+
+    if (tilde(open) > 0) {
+      hideSpaces();
+    }
+
+    if (tilde(close) == 0) {
+      pending += 1;
+    }
+
+    trimSpacesSize = 0;
+  }
+
+  /**
+   * @param token The token's index.
+   * @return Index of the first <code>~</code> in the token's text or -1.
+   */
+  private int tilde(final int token) {
+    for (int i = starts[token]; i < ends[token]; i++) {
+      if (input.charAt(i) == '~') {
+        return i - starts[token];
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * White space control: trim-right, if ONLY if pending &gt; 0.
+   */
+  private void trimRight() {
+    if (pending > 0) {
+      hideSpaces();
+      pending -= 1;
+    }
+  }
+
+  /**
+   * White space control: hide spaces and new lines since the last tag.
+   */
+  private void hideSpaces() {
+    for (int i = 0; i < trimSpacesSize; i++) {
+      hidden[trimSpaces[i]] |= TRIM;
+    }
+  }
+
+  /**
+   * Add a new token at the current line.
+   *
+   * @param type The token's type.
+   * @param from The token's start offset.
+   * @param to The token's end offset.
+   * @return The token's index.
+   */
+  private int add(final int type, final int from, final int to) {
+    if (size == types.length) {
+      int capacity = size * 2;
+      types = Arrays.copyOf(types, capacity);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+      lines = Arrays.copyOf(lines, capacity);
+      columns = Arrays.copyOf(columns, capacity);
+      hidden = Arrays.copyOf(hidden, capacity);
+    }
+    types[size] = type;
+    starts[size] = from;
+    ends[size] = to;
+    lines[size] = line;
+    columns[size] = from - lineStart;
+    return size++;
+  }
+
+  /**
+   * Move the scanner to the given offset and keep track of new lines.
+   *
+   * @param to The new offset.
+   */
+  private void advance(final int to) {
+    for (int i = pos; i < to; i++) {
+      if (input.charAt(i) == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    pos = to;
+  }
+
+  /**
+   * Skip white spaces inside a tag.
+   */
+  private void skipWhite() {
+    int i = pos;
+    while (i < length && isWhite(input.charAt(i))) {
+      i++;
+    }
+    advance(i);
+  }
+
+  /**
+   * @param token The token's index.
+   * @return The token's type or {@link #EOF}.
+   */
+  private int type(final int token) {
+    if (token < size) {
+      return types[token];
+    }
+    return EOF;
+  }
+
+  /**
+   * @param at The offset.
+   * @return The char at the given offset or <code>0</code> at the end of input.
+   */
+  private char charAt(final int at) {
+    if (at < length) {
+      return input.charAt(at);
+    }
+    return 0;
+  }
+
+  /**
+   * @param ch The start delimiter's subtype.
+   * @return The start token type.
+   */
+  private static int startType(final char ch) {
+    switch (ch) {
+      case '&':
+        return START_AMP;
+      case '{':
+        return START_T;
+      case '^':
+        return UNLESS;
+      case '#':
+        return START_BLOCK;
+      case '=':
+        return START_DELIM;
+      case '>':
+        return START_PARTIAL;
+      case '/':
+        return END_BLOCK;
+      default:
+        return START;
+    }
+  }
+
+  /**
+   * @param ch A char.
+   * @return True for spaces or tabs.
+   */
+  private static boolean isSpace(final char ch) {
+    return ch == ' ' || ch == '\t';
+  }
+
+  /**
+   * @param ch A char.
+   * @return True for spaces, tabs or new lines.
+   */
+  private static boolean isWhite(final char ch) {
+    return ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n';
+  }
+
+  /**
+   * @param ch A char.
+   * @return True for digits.
+   */
+  private static boolean isDigit(final char ch) {
+    return ch >= '0' && ch <= '9';
+  }
+
+  /**
+   * @param ch A char.
+   * @return True, if the char can start an id.
+   */
+  private static boolean isIdStart(final char ch) {
+    return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch == '_' || ch == '$'
+        || ch == '@';
+  }
+
+  /**
+   * @param ch A char.
+   * @return True for id separators.
+   */
+  private static boolean isSeparator(final char ch) {
+    return ch == '.' || ch == '/' || ch == '-';
+  }
+
+  /**
+   * Append a value to an int array, the array grows if required.
+   *
+   * @param array The array.
+   * @param index The index.
+   * @param value The value.
+   * @return The array.
+   */
+  private static int[] push(final int[] array, final int index, final int value) {
+    int[] result = array;
+    if (index == array.length) {
+      result = Arrays.copyOf(array, index * 2);
+    }
+    result[index] = value;
+    return result;
+  }
+
+  /**
+   * Append a value to a boolean array, the array grows if required.
+   *
+   * @param array The array.
+   * @param index The index.
+   * @param value The value.
+   * @return The array.
+   */
+  private static boolean[] push(final boolean[] array, final int index, final boolean value) {
+    boolean[] result = array;
+    if (index == array.length) {
+      result = Arrays.copyOf(array, index * 2);
+    }
+    result[index] = value;
+    return result;
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.internal;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content hash utilities method.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public final class Hashes {
+
+  /**
+   * Not used.
+   */
+  private Hashes() {
+  }
+
+  /**
+   * Compute a MD5 hex hash of the given text.
+   *
+   * @param text The text. Encoded as UTF-8.
+   * @return A MD5 hex hash.
+   */
+  public static String md5(final String text) {
+    try {
+      return md5(text.getBytes("UTF-8"));
+    } catch (UnsupportedEncodingException ex) {
+      throw new IllegalStateException("UTF-8 isn't available", ex);
+    }
+  }
+
+  /**
+   * Compute a MD5 hex hash of the given bytes.
+   *
+   * @param bytes The bytes.
+   * @return A MD5 hex hash.
+   */
+  public static String md5(final byte[] bytes) {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5").digest(bytes);
+      StringBuilder hash = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        hash.append(Character.forDigit((b >> 4) & 0xF, 16))
+            .append(Character.forDigit(b & 0xF, 16));
+      }
+      return hash.toString();
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("MD5 isn't available", ex);
+    }
+  }
+
+}
@@ -18,17 +18,19 @@
 package com.github.jknack.handlebars.internal;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.antlr.v4.runtime.ANTLRErrorListener;
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.LexerNoViableAltException;
 import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,16 +43,126 @@ import com.github.jknack.handlebars.io.TemplateSource;
 /**
  * The default {@link ParserFactory}.
  *
+ * Templates are parsed in SLL mode first, which is fast and good enough for almost every
+ * template. If SLL fails, the template is parsed again in full LL mode, which also reports syntax
+ * errors. See {@link #fallbackCount()}.
+ *
+ * A new lexer and parser is created per template, unless {@link #reuse(boolean)} is on. Call
+ * {@link #prewarm(String...)} at startup to fill the shared DFA cache with a representative set
+ * of templates.
+ *
  * @author edgar.espina
  * @since 0.10.0
  */
 public class HbsParserFactory implements ParserFactory {
 
+  /**
+   * Lexer and parser of a thread. Instances are reset per source and they must not be shared.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private class Recognizers {
+
+    /** The lexer. */
+    private final HbsLexer lexer = newLexer(null, Handlebars.DELIM_START, Handlebars.DELIM_END);
+
+    /** The parser. */
+    private final HbsParser parser = newParser(lexer);
+
+    /** Fail on first error, without reporting it. */
+    private final BailErrorStrategy bail = new BailErrorStrategy();
+
+    /** Report errors and fail. */
+    private final HbsErrorStrategy report = new HbsErrorStrategy();
+
+    /** True, while a template is being parsed. */
+    private boolean busy;
+
+    /**
+     * Prepare lexer and parser for a new source.
+     *
+     * @param stream The input stream.
+     * @param startDelimiter The start delimiter.
+     * @param endDelimiter The end delimiter.
+     * @param errorReporter The error reporter.
+     */
+    public void reset(final ANTLRInputStream stream, final String startDelimiter,
+        final String endDelimiter, final ANTLRErrorListener errorReporter) {
+      stream.seek(0);
+      lexer.setInputStream(stream);
+      lexer.start = startDelimiter;
+      lexer.end = endDelimiter;
+      lexer.whiteSpaceControl = false;
+      configure(lexer, errorReporter);
+
+      parser.setTokenStream(new CommonTokenStream(lexer));
+      parser.removeParseListeners();
+    }
+
+    /**
+     * Parse a template.
+     *
+     * @param sll True, for SLL mode: it fails with {@link ParseCancellationException} and without
+     *        reporting the error. Otherwise, LL mode with error reporting.
+     * @param errorReporter The error reporter.
+     * @param prettyPrint True, if the Mustache Spec rules must be applied.
+     * @param whiteSpaceControl False, if the template doesn't have white-space control.
+     * @return The parse tree.
+     */
+    public ParseTree template(final boolean sll, final ANTLRErrorListener errorReporter,
+        final boolean prettyPrint, final boolean whiteSpaceControl) {
+      if (sll) {
+        parser.removeErrorListeners();
+        parser.setErrorHandler(bail);
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+      } else {
+        configure(parser, errorReporter);
+        parser.setErrorHandler(report);
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+      }
+      // remove unnecessary spaces and new lines?
+      if (prettyPrint || whiteSpaceControl) {
+        parser.addParseListener(new WhiteSpaceTrimmer(lexer, prettyPrint));
+      }
+      return parser.template();
+    }
+
+    /**
+     * Release the source and the last parse tree.
+     */
+    public void clear() {
+      lexer.setInputStream(null);
+      parser.setTokenStream(null);
+      parser.removeParseListeners();
+    }
+  }
+
   /**
    * The logging system.
    */
   private final Logger logger = LoggerFactory.getLogger(getClass());
 
+  /**
+   * Lexer and parser of the current thread.
+   */
+  private final ThreadLocal<Recognizers> recognizers = new ThreadLocal<Recognizers>();
+
+  /**
+   * Number of parsed templates.
+   */
+  private final AtomicLong parseCount = new AtomicLong();
+
+  /**
+   * Number of templates parsed again in LL mode.
+   */
+  private final AtomicLong fallbackCount = new AtomicLong();
+
+  /**
+   * True, if lexer and parser are reused by the same thread.
+   */
+  private boolean reuse;
+
   /**
    * Creates a new {@link Parser}.
    *
@@ -70,47 +182,138 @@ public class HbsParserFactory implements ParserFactory {
         logger.debug("About to parse: {}", source);
         final ANTLRErrorListener errorReporter = new HbsErrorReporter(source.filename());
 
-        // 1. Lexer
-        final HbsLexer lexer = newLexer(newStream(source.filename(), source.content()),
-            startDelimiter, endDelimiter);
-        configure(lexer, errorReporter);
-
-        // 2. Parser
-        final HbsParser parser = newParser(lexer);
-        configure(parser, errorReporter);
+        String content = source.content();
+        ANTLRInputStream stream = newStream(source.filename(), content);
+        boolean prettyPrint = handlebars.prettyPrint();
+        // white-space control requires a '~'
+        boolean whiteSpaceControl = content.indexOf('~') >= 0;
 
-        logger.debug("Building AST");
-        // 3. Parse
-        ParseTree tree = parser.template();
+        final Recognizers recognizers = acquire();
+        try {
+          parseCount.incrementAndGet();
+          logger.debug("Building AST");
+          ParseTree tree;
+          try {
+            recognizers.reset(stream, startDelimiter, endDelimiter, errorReporter);
+            tree = recognizers.template(true, errorReporter, prettyPrint, whiteSpaceControl);
+          } catch (ParseCancellationException ex) {
+            fallbackCount.incrementAndGet();
+            logger.debug("SLL failed, trying LL: {}", source);
+            recognizers.reset(stream, startDelimiter, endDelimiter, errorReporter);
+            tree = recognizers.template(false, errorReporter, prettyPrint, whiteSpaceControl);
+          }
 
-        // remove unnecessary spaces and new lines?
-        if (handlebars.prettyPrint()) {
-          logger.debug("Applying Mustache spec");
-          new ParseTreeWalker().walk(new MustacheSpec(), tree);
+          /**
+           * Build the AST.
+           */
+          final HbsParser parser = recognizers.parser;
+          TemplateBuilder builder = new TemplateBuilder(handlebars, source) {
+            @Override
+            protected void reportError(final CommonToken offendingToken, final int line,
+                final int column,
+                final String message) {
+              errorReporter.syntaxError(parser, offendingToken, line, column, message, null);
+            }
+          };
+          logger.debug("Creating templates");
+          Template template = builder.visit(tree);
+          return template;
+        } finally {
+          release(recognizers);
         }
+      }
 
-        if (lexer.whiteSpaceControl) {
-          logger.debug("Applying white spaces control");
-          new ParseTreeWalker().walk(new WhiteSpaceControl(), tree);
-        }
+    };
+  }
 
-        /**
-         * Build the AST.
-         */
-        TemplateBuilder builder = new TemplateBuilder(handlebars, source) {
-          @Override
-          protected void reportError(final CommonToken offendingToken, final int line,
-              final int column,
-              final String message) {
-            errorReporter.syntaxError(parser, offendingToken, line, column, message, null);
-          }
-        };
-        logger.debug("Creating templates");
-        Template template = builder.visit(tree);
-        return template;
+  /**
+   * Parse the given templates and discard the result. The lexer and parser DFA are shared and
+   * built lazily, so the first templates parsed by an application are slower than the others. Use
+   * this method at startup with a representative set of templates. Invalid templates are ignored.
+   *
+   * @param templates The templates to parse. They must use the default delimiters.
+   * @return This factory.
+   */
+  public HbsParserFactory prewarm(final String... templates) {
+    Recognizers recognizers = acquire();
+    try {
+      for (String template : templates) {
+        try {
+          recognizers.reset(newStream("prewarm", template), Handlebars.DELIM_START,
+              Handlebars.DELIM_END, new HbsErrorReporter("prewarm"));
+          recognizers.template(true, null, false, false);
+        } catch (RuntimeException ex) {
+          logger.debug("Ignoring invalid template:\n{}", template, ex);
+        }
       }
+    } finally {
+      release(recognizers);
+    }
+    return this;
+  }
 
-    };
+  /**
+   * Set to true for keeping one lexer and parser per thread, they are reset per template. It saves
+   * a few allocations per template, but the instances are kept until the thread dies. Default
+   * is: false.
+   *
+   * @param reuse True, to reuse lexer and parser instances.
+   * @return This factory.
+   */
+  public HbsParserFactory reuse(final boolean reuse) {
+    this.reuse = reuse;
+    return this;
+  }
+
+  /**
+   * @return Number of templates parsed by this factory.
+   */
+  public long parseCount() {
+    return parseCount.get();
+  }
+
+  /**
+   * Number of templates that failed in SLL mode and were parsed again in LL mode. A template fails
+   * in SLL mode if it has a syntax error or if it requires full context to be parsed. The last
+   * one is rare and makes the template slower to compile, so a fallback count growing faster
+   * than the number of syntax errors reveals a pathological template. Enable the debug log of
+   * this class to find them.
+   *
+   * @return Number of templates parsed again in LL mode.
+   */
+  public long fallbackCount() {
+    return fallbackCount.get();
+  }
+
+  /**
+   * Get the lexer and parser of the current thread. If the current thread is already parsing a
+   * template or reuse is disabled, a new lexer and parser is created.
+   *
+   * @return Lexer and parser for a new source.
+   */
+  private Recognizers acquire() {
+    if (!reuse) {
+      return new Recognizers();
+    }
+    Recognizers current = recognizers.get();
+    if (current == null) {
+      current = new Recognizers();
+      recognizers.set(current);
+    } else if (current.busy) {
+      return new Recognizers();
+    }
+    current.busy = true;
+    return current;
+  }
+
+  /**
+   * Release the lexer and parser.
+   *
+   * @param recognizers The lexer and parser.
+   */
+  private void release(final Recognizers recognizers) {
+    recognizers.clear();
+    recognizers.busy = false;
   }
 
   /**
@@ -119,10 +322,8 @@ public class HbsParserFactory implements ParserFactory {
    * @param filename The file's name.
    * @param content A content.
    * @return A new {@link ANTLRInputStream}.
-   * @throws IOException If the reader can't be open.
    */
-  private ANTLRInputStream newStream(final String filename, final String content)
-      throws IOException {
+  private ANTLRInputStream newStream(final String filename, final String content) {
     ANTLRInputStream stream = new ANTLRInputStream(content);
     stream.name = filename;
     return stream;
@@ -131,7 +332,7 @@ public class HbsParserFactory implements ParserFactory {
   /**
    * Creates a new {@link HbsLexer}.
    *
-   * @param stream The input stream.
+   * @param stream The input stream or <code>null</code>.
    * @param startDelimiter The start delimiter.
    * @param endDelimiter The end delimiter.
    * @return A new {@link HbsLexer}.
@@ -176,20 +377,6 @@ public class HbsParserFactory implements ParserFactory {
     };
   }
 
-  /**
-   * Configure a {@link HbsParser}.
-   *
-   * @param parser The {@link HbsParser}.
-   * @param errorReporter The error reporter.
-   */
-  @SuppressWarnings("rawtypes")
-  private void configure(final HbsParser parser, final ANTLRErrorListener errorReporter) {
-    configure((Recognizer) parser, errorReporter);
-
-    parser.setErrorHandler(new HbsErrorStrategy());
-    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
-  }
-
   /**
    * Configure a recognizer with an error reporter.
    *
@@ -32,12 +32,16 @@
 package com.github.jknack.handlebars.internal;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.script.Bindings;
-import javax.script.Compilable;
-import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
@@ -49,14 +53,190 @@ import com.github.jknack.handlebars.Template;
 /**
  * Convert a template to JavaScript template (a.k.a precompiled template). Compilation is done by
  * handlebars.js and a JS Engine.
- * Keeps handlebars.js as {@link CompiledScript} object per handlebars.js file, so the handlebars.js
- * is compiled only once, and doesn't need to be interpreted by the underlying {@link ScriptEngine}.
+ *
+ * Precompilation runs on a pool of isolated {@link ScriptEngine} instances. Each member of the
+ * pool evaluates a handlebars.js file only once (per file) and keeps it in a dedicated
+ * {@link ScriptContext}, so different handlebars.js versions never see each other. Engines are
+ * created on demand up to the pool size, which defaults to the number of available processors and
+ * can be set with the <code>handlebars.js.poolSize</code> system property or
+ * {@link #setPoolSize(int)}. Callers that need their own engines (like build tools) can create a
+ * {@link Pool}.
+ *
+ * Results are cached by handlebars.js location and template text hash, so the same template
+ * text is converted to JavaScript only once.
+ *
+ * The engine returned by {@link #getJsEngine()} is a different one. It is shared and used for
+ * JavaScript helpers.
  *
  * @author edgar
  *
  */
 public final class JSEngine {
 
+  /**
+   * An isolated engine of the pool.
+   */
+  private static class Precompiler {
+
+    /** The engine. */
+    private final ScriptEngine engine;
+
+    /** One context per handlebars.js location, with handlebars.js already evaluated. */
+    private final Map<String, ScriptContext> contexts = new HashMap<String, ScriptContext>();
+
+    /**
+     * Creates a new {@link Precompiler}.
+     *
+     * @param engine The engine.
+     */
+    public Precompiler(final ScriptEngine engine) {
+      this.engine = engine;
+    }
+
+    /**
+     * Precompile a template.
+     *
+     * @param hbsLocation The handlebars.js location.
+     * @param text The template's text.
+     * @return A pre-compiled JavaScript version of the template.
+     * @throws ScriptException If handlebars.js fails.
+     */
+    public String precompile(final String hbsLocation, final String text)
+        throws ScriptException {
+      ScriptContext context = contexts.get(hbsLocation);
+      if (context == null) {
+        // For setting up contexts in ScriptingEngine see
+        // https://wiki.openjdk.java.net/display/Nashorn/Nashorn+jsr223+engine+notes
+        context = new SimpleScriptContext();
+        context.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+        engine.eval(readScript(hbsLocation), context);
+        contexts.put(hbsLocation, context);
+      }
+      Bindings bindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
+      bindings.put("template", text);
+      try {
+        return (String) engine.eval("Handlebars.precompile(template);", context);
+      } finally {
+        bindings.remove("template");
+      }
+    }
+  }
+
+  /**
+   * A pool of isolated engines for precompilation. Engines are created on demand up to the pool
+   * size.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  public static final class Pool {
+
+    /**
+     * The engine manager.
+     */
+    private final ScriptEngineManager engineManager = new ScriptEngineManager();
+
+    /**
+     * Idle members of the pool.
+     */
+    private final BlockingQueue<Precompiler> idle = new LinkedBlockingQueue<Precompiler>();
+
+    /**
+     * Number of engines created by the pool.
+     */
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Max number of engines.
+     */
+    private volatile int size;
+
+    /**
+     * Creates a new {@link Pool}.
+     *
+     * @param size The max number of engines. Must be greater than zero.
+     */
+    public Pool(final int size) {
+      setSize(size);
+    }
+
+    /**
+     * Set the max number of engines. Engines are created on demand and reducing the size doesn't
+     * discard engines already created.
+     *
+     * @param size The max number of engines. Must be greater than zero.
+     */
+    public void setSize(final int size) {
+      if (size <= 0) {
+        throw new IllegalArgumentException("Pool size must be greater than zero: " + size);
+      }
+      this.size = size;
+    }
+
+    /**
+     * @return The max number of engines.
+     */
+    public int getSize() {
+      return size;
+    }
+
+    /**
+     * Convert a template's text to JavaScript (a.k.a precompiled template) using an idle engine
+     * of the pool. The result isn't cached.
+     *
+     * @param hbsLocation The handlebars.js location.
+     * @param text The template's text.
+     * @return A pre-compiled JavaScript version of the template.
+     */
+    public String toJavaScript(final String hbsLocation, final String text) {
+      Precompiler precompiler = acquire();
+      try {
+        return precompiler.precompile(hbsLocation, text);
+      } catch (ScriptException e) {
+        throw new RuntimeException(e);
+      } finally {
+        idle.offer(precompiler);
+      }
+    }
+
+    /**
+     * Get an idle engine, create a new one if the pool isn't full or wait for an engine.
+     *
+     * @return An engine.
+     */
+    private Precompiler acquire() {
+      Precompiler precompiler = idle.poll();
+      if (precompiler != null) {
+        return precompiler;
+      }
+      if (count.incrementAndGet() <= size) {
+        ScriptEngine engine = engineManager.getEngineByName("JavaScript");
+        if (engine == null) {
+          count.decrementAndGet();
+          throw new IllegalStateException("JavaScript engine not found");
+        }
+        return new Precompiler(engine);
+      }
+      count.decrementAndGet();
+      boolean interrupted = false;
+      try {
+        while (true) {
+          try {
+            return idle.take();
+          } catch (InterruptedException ex) {
+            interrupted = true;
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  /** Max number of precompiled templates to keep. */
+  private static final int CACHE_SIZE = 1024;
 
   /**
    * The Javascript engine (defaults to Rhino with Java 7, and Nashorn with Java 8).
@@ -64,11 +244,27 @@ public final class JSEngine {
   private final ScriptEngine jsEngine;
 
   /**
-   * Optimize execution by compiling the HANDLEBARS_JS_FILE only once.
+   * The engine manager.
    */
-  private final Map<String, CompiledScript> precompiledHandlebars
-    = new HashMap<String, CompiledScript>();
+  private final ScriptEngineManager engineManager = new ScriptEngineManager();
 
+  /**
+   * Engines used for precompilation.
+   */
+  private final Pool pool = new Pool(Integer.getInteger("handlebars.js.poolSize",
+      Runtime.getRuntime().availableProcessors()));
+
+  /**
+   * Precompiled templates by handlebars.js location and template text hash.
+   */
+  @SuppressWarnings("serial")
+  private final Map<String, String> cache = Collections.synchronizedMap(
+      new LinkedHashMap<String, String>(16, .75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Entry<String, String> eldest) {
+          return size() > CACHE_SIZE;
+        }
+      });
 
   /**
    * Singleton instance.
@@ -103,7 +299,7 @@ public final class JSEngine {
    * Constructor.
    */
   private JSEngine() {
-    jsEngine = new ScriptEngineManager().getEngineByName("JavaScript");
+    jsEngine = engineManager.getEngineByName("JavaScript");
     String engineClassName = jsEngine.getClass().getName();
     if (engineClassName.toLowerCase().contains("nashorn")) {
       engineKind = EngineKind.NASHORN;
@@ -130,21 +326,20 @@ public final class JSEngine {
   }
 
   /**
-   * Find cached {@link CompiledScript} for hbsLocation, or compile and cache it.
-   * @param hbsLocation path to handlebars.js file
-   * @return compiled handlebars.js
+   * Set the max number of engines used for precompilation. Engines are created on demand and
+   * reducing the size doesn't discard engines already created.
+   *
+   * @param poolSize The max number of engines. Must be greater than zero.
    */
-  private synchronized CompiledScript getPrecompiledHandlebarsJs(final String hbsLocation) {
-    if (precompiledHandlebars.get(hbsLocation) == null) {
-      Compilable compilable = (Compilable) jsEngine;
-      try {
-        precompiledHandlebars.put(hbsLocation,
-            compilable.compile(readScript(hbsLocation) + "\nHandlebars.precompile(template);"));
-      } catch (ScriptException e) {
-        throw new RuntimeException(e);
-      }
-    }
-    return precompiledHandlebars.get(hbsLocation);
+  public void setPoolSize(final int poolSize) {
+    pool.setSize(poolSize);
+  }
+
+  /**
+   * @return The max number of engines used for precompilation.
+   */
+  public int getPoolSize() {
+    return pool.getSize();
   }
 
   /**
@@ -155,26 +350,15 @@ public final class JSEngine {
    * @param template The template to convert.
    * @return A pre-compiled JavaScript version of this template.
    */
-  // @Override
   public String toJavaScript(final String hbsLocation, final Template template) {
-
-    // isolate Handlebars template compilation runs by providing separate contexts:
-    // it turned out during tests execution that subsequent execution with two different
-    // handlebars.js version files results in the first being used also on the second
-    // run.
-    // For setting up contexts in ScriptingEngine see
-    // https://wiki.openjdk.java.net/display/Nashorn/Nashorn+jsr223+engine+notes
-    ScriptContext myContext = new SimpleScriptContext();
-    Bindings bindings = getJsEngine().createBindings();
-    bindings.put("template", template.text());
-    myContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
-    jsEngine.setContext(myContext);
-    jsEngine.put("template", template.text());
-    try {
-      return (String) getPrecompiledHandlebarsJs(hbsLocation).eval();
-    } catch (ScriptException e) {
-      throw new RuntimeException(e);
+    String text = template.text();
+    String key = hbsLocation + "@" + Hashes.md5(text);
+    String javaScript = cache.get(key);
+    if (javaScript == null) {
+      javaScript = pool.toJavaScript(hbsLocation, text);
+      cache.put(key, javaScript);
     }
+    return javaScript;
   }
 
   /**
@@ -197,5 +381,4 @@ public final class JSEngine {
   public ScriptEngine getJsEngine() {
     return jsEngine;
   }
-
 }
@@ -23,12 +23,13 @@ import static org.apache.commons.lang3.Validate.notNull;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.antlr.v4.runtime.CommonToken;
-import org.antlr.v4.runtime.RuleContext;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -42,6 +43,8 @@ import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.HelperRegistry;
 import com.github.jknack.handlebars.TagType;
 import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.helper.BlockHelper;
+import com.github.jknack.handlebars.helper.EmbeddedHelper;
 import com.github.jknack.handlebars.internal.HbsParser.AmpvarContext;
 import com.github.jknack.handlebars.internal.HbsParser.BlockContext;
 import com.github.jknack.handlebars.internal.HbsParser.BodyContext;
@@ -68,6 +71,7 @@ import com.github.jknack.handlebars.internal.HbsParser.TextContext;
 import com.github.jknack.handlebars.internal.HbsParser.TvarContext;
 import com.github.jknack.handlebars.internal.HbsParser.UnlessContext;
 import com.github.jknack.handlebars.internal.HbsParser.VarContext;
+import com.github.jknack.handlebars.io.TemplateLoader;
 import com.github.jknack.handlebars.io.TemplateSource;
 
 /**
@@ -125,6 +129,11 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
    */
   private LinkedList<String> qualifier = new LinkedList<String>();
 
+  /**
+   * Partials, blocks and embedded templates with a static name.
+   */
+  private Set<String> uses = new LinkedHashSet<String>();
+
   /**
    * Creates a new {@link TemplateBuilder}.
    *
@@ -146,37 +155,88 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
     SexprContext sexpr = ctx.sexpr();
     Token nameStart = sexpr.QID().getSymbol();
     String name = nameStart.getText();
-    qualifier.addLast(name);
-    String nameEnd = ctx.nameEnd.getText();
+    nameEnd(name, ctx.nameEnd.getText(), ctx.nameEnd.getLine(),
+        ctx.nameEnd.getCharPositionInLine());
+
+    String startDelim = ctx.start.getText();
+    Block block = startBlock(name, nameStart.getLine(), nameStart.getCharPositionInLine(),
+        params(sexpr.param()), hash(sexpr.hash()),
+        startDelim.substring(0, startDelim.length() - 1));
+
+    Template body = visitBody(ctx.thenBody);
+    ElseBlockContext elseBlock = ctx.elseBlock();
+    String inverseLabel = null;
+    Template unless = null;
+    if (elseBlock != null) {
+      inverseLabel = elseBlock.inverseToken.getText();
+      unless = visitBody(elseBlock.unlessBody);
+    }
+    return endBlock(block, body, inverseLabel, unless, ctx.stop.getText());
+  }
+
+  /**
+   * Report an error if a block isn't closed with the same name it was opened.
+   *
+   * @param name The block's name.
+   * @param nameEnd The name used to close the block.
+   * @param line The line of the closing name.
+   * @param column The column of the closing name.
+   */
+  void nameEnd(final String name, final String nameEnd, final int line, final int column) {
     if (!name.equals(nameEnd)) {
-      reportError(null, ctx.nameEnd.getLine(), ctx.nameEnd.getCharPositionInLine()
-          , String.format("found: '%s', expected: '%s'", nameEnd, name));
+      reportError(null, line, column, String.format("found: '%s', expected: '%s'", nameEnd, name));
     }
+  }
 
+  /**
+   * Open a new block. The block must be closed with
+   * {@link #endBlock(Block, Template, String, Template, String)} once the body has been built.
+   *
+   * @param name The block's name.
+   * @param line The line of the block's name.
+   * @param column The column of the block's name.
+   * @param params The block params.
+   * @param hash The block hash.
+   * @param startDelimiter The current start delimiter.
+   * @return A new {@link Block}.
+   */
+  Block startBlock(final String name, final int line, final int column,
+      final List<Object> params, final Map<String, Object> hash, final String startDelimiter) {
+    qualifier.addLast(name);
     hasTag(true);
-    Block block = new Block(handlebars, name, false, params(sexpr.param()),
-        hash(sexpr.hash()));
+    if (BlockHelper.NAME.equals(name)) {
+      use(params);
+    }
+    Block block = new Block(handlebars, name, false, params, hash);
     block.filename(source.filename());
-    block.position(nameStart.getLine(), nameStart.getCharPositionInLine());
-    String startDelim = ctx.start.getText();
-    startDelim = startDelim.substring(0, startDelim.length() - 1);
-    block.startDelimiter(startDelim);
-    block.endDelimiter(ctx.stop.getText());
+    block.position(line, column);
+    block.startDelimiter(startDelimiter);
+    return block;
+  }
 
-    Template body = visitBody(ctx.thenBody);
+  /**
+   * Close a block.
+   *
+   * @param block The block.
+   * @param body The block's body or <code>null</code>.
+   * @param inverseLabel The else/inverse tag or <code>null</code>.
+   * @param inverse The inverse body or <code>null</code>.
+   * @param endDelimiter The current end delimiter.
+   * @return The block.
+   */
+  Template endBlock(final Block block, final Template body, final String inverseLabel,
+      final Template inverse, final String endDelimiter) {
+    block.endDelimiter(endDelimiter);
     if (body != null) {
       block.body(body);
     }
-    ElseBlockContext elseBlock = ctx.elseBlock();
-    if (elseBlock != null) {
-      Template unless = visitBody(elseBlock.unlessBody);
-      if (unless != null) {
-        String inverseLabel = elseBlock.inverseToken.getText();
-        if (inverseLabel.startsWith(startDelim)) {
-          inverseLabel = inverseLabel.substring(startDelim.length());
-        }
-        block.inverse(inverseLabel, unless);
+    if (inverse != null) {
+      String label = inverseLabel;
+      String startDelim = block.startDelimiter();
+      if (label.startsWith(startDelim)) {
+        label = label.substring(startDelim.length());
       }
+      block.inverse(label, inverse);
     }
     hasTag(true);
     qualifier.removeLast();
@@ -185,16 +245,44 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
 
   @Override
   public Template visitUnless(final UnlessContext ctx) {
+    String startDelim = ctx.start.getText();
+    Block block = startUnless(ctx.nameStart.getText(), ctx.nameStart.getLine(),
+        ctx.nameStart.getCharPositionInLine(), startDelim.substring(0, startDelim.length() - 1));
+    Template body = visitBody(ctx.body());
+    return endUnless(block, body, ctx.stop.getText());
+  }
+
+  /**
+   * Open a new inverted section. The section must be closed with
+   * {@link #endUnless(Block, Template, String)} once the body has been built.
+   *
+   * @param name The section's name.
+   * @param line The line of the section's name.
+   * @param column The column of the section's name.
+   * @param startDelimiter The current start delimiter.
+   * @return A new {@link Block}.
+   */
+  Block startUnless(final String name, final int line, final int column,
+      final String startDelimiter) {
     hasTag(true);
-    Block block = new Block(handlebars, ctx.nameStart.getText(), true, Collections.emptyList(),
+    Block block = new Block(handlebars, name, true, Collections.emptyList(),
         Collections.<String, Object> emptyMap());
     block.filename(source.filename());
-    block.position(ctx.nameStart.getLine(), ctx.nameStart.getCharPositionInLine());
-    String startDelim = ctx.start.getText();
-    block.startDelimiter(startDelim.substring(0, startDelim.length() - 1));
-    block.endDelimiter(ctx.stop.getText());
+    block.position(line, column);
+    block.startDelimiter(startDelimiter);
+    return block;
+  }
 
-    Template body = visitBody(ctx.body());
+  /**
+   * Close an inverted section.
+   *
+   * @param block The section.
+   * @param body The section's body or <code>null</code>.
+   * @param endDelimiter The current end delimiter.
+   * @return The section.
+   */
+  Template endUnless(final Block block, final Template body, final String endDelimiter) {
+    block.endDelimiter(endDelimiter);
     if (body != null) {
       block.body(body);
     }
@@ -204,54 +292,90 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
 
   @Override
   public Template visitVar(final VarContext ctx) {
-    hasTag(false);
-    SexprContext sexpr = ctx.sexpr();
-    return newVar(sexpr.QID().getSymbol(), TagType.VAR, params(sexpr.param()), hash(sexpr.hash()),
-        ctx.start.getText(), ctx.stop.getText());
+    return var(TagType.VAR, ctx.sexpr(), ctx.start.getText(), ctx.stop.getText());
   }
 
   @Override
   public Object visitEscape(final EscapeContext ctx) {
     Token token = ctx.ESC_VAR().getSymbol();
-    String text = token.getText().substring(1);
-    line.append(text);
+    return escape(token.getText().substring(1), token.getLine(), token.getCharPositionInLine());
+  }
+
+  /**
+   * Creates an escaped mustache, like: <code>\{{var}}</code>.
+   *
+   * @param text The text without the escape char.
+   * @param line The line.
+   * @param column The column.
+   * @return A new {@link Text}.
+   */
+  Template escape(final String text, final int line, final int column) {
+    this.line.append(text);
     return new Text(handlebars, text, "\\")
         .filename(source.filename())
-        .position(token.getLine(), token.getCharPositionInLine());
+        .position(line, column);
   }
 
   @Override
   public Template visitTvar(final TvarContext ctx) {
-    hasTag(false);
-    SexprContext sexpr = ctx.sexpr();
-    return newVar(sexpr.QID().getSymbol(), TagType.TRIPLE_VAR, params(sexpr.param()),
-        hash(sexpr.hash()),
-        ctx.start.getText(), ctx.stop.getText());
+    return var(TagType.TRIPLE_VAR, ctx.sexpr(), ctx.start.getText(), ctx.stop.getText());
   }
 
   @Override
   public Template visitAmpvar(final AmpvarContext ctx) {
+    return var(TagType.AMP_VAR, ctx.sexpr(), ctx.start.getText(), ctx.stop.getText());
+  }
+
+  /**
+   * Build a new {@link Variable} from a mustache.
+   *
+   * @param varType The var's type.
+   * @param sexpr The var expression.
+   * @param startDelimiter The current start delimiter.
+   * @param endDelimiter The current end delimiter.
+   * @return A new {@link Variable}.
+   */
+  private Template var(final TagType varType, final SexprContext sexpr,
+      final String startDelimiter, final String endDelimiter) {
     hasTag(false);
-    SexprContext sexpr = ctx.sexpr();
-    return newVar(sexpr.QID().getSymbol(), TagType.AMP_VAR, params(sexpr.param()),
-        hash(sexpr.hash()),
-        ctx.start.getText(), ctx.stop.getText());
+    Token name = sexpr.QID().getSymbol();
+    return newVar(name.getText(), name.getLine(), name.getCharPositionInLine(), varType,
+        params(sexpr.param()), hash(sexpr.hash()))
+        .startDelimiter(startDelimiter)
+        .endDelimiter(endDelimiter);
+  }
+
+  /**
+   * Build a new {@link Variable} from a mustache.
+   *
+   * @param varType The var's type.
+   * @param name The var's name.
+   * @param line The line of the var's name.
+   * @param column The column of the var's name.
+   * @param params The var params.
+   * @param hash The var hash.
+   * @return A new {@link Variable}.
+   */
+  Variable var(final TagType varType, final String name, final int line, final int column,
+      final List<Object> params, final Map<String, Object> hash) {
+    hasTag(false);
+    return newVar(name, line, column, varType, params, hash);
   }
 
   /**
    * Build a new {@link Variable}.
    *
    * @param name The var's name.
+   * @param line The line of the var's name.
+   * @param column The column of the var's name.
    * @param varType The var's type.
    * @param params The var params.
    * @param hash The var hash.
-   * @param startDelimiter The current start delimiter.
-   * @param endDelimiter The current end delimiter.
    * @return A new {@link Variable}.
    */
-  private Template newVar(final Token name, final TagType varType, final List<Object> params,
-      final Map<String, Object> hash, final String startDelimiter, final String endDelimiter) {
-    String varName = name.getText();
+  Variable newVar(final String name, final int line, final int column, final TagType varType,
+      final List<Object> params, final Map<String, Object> hash) {
+    String varName = name;
     boolean isHelper = ((params.size() > 0 || hash.size() > 0)
         || varType == TagType.SUB_EXPRESSION);
     if (!isHelper && qualifier.size() > 0 && "with".equals(qualifier.getLast())
@@ -267,25 +391,26 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
       String evidence = varName;
       String reason = "found: " + varName + ", expecting: " + varName + ".";
       String message =
-          source.filename() + ":" + name.getLine() + ":" + name.getChannel() + ": "
+          source.filename() + ":" + line + ":" + column + ": "
               + reason + "\n";
-      throw new HandlebarsException(new HandlebarsError(source.filename(), name.getLine(),
-          name.getCharPositionInLine(), reason, evidence, message));
+      throw new HandlebarsException(new HandlebarsError(source.filename(), line,
+          column, reason, evidence, message));
+    }
+    if (EmbeddedHelper.NAME.equals(varName)) {
+      use(params);
     }
     Helper<Object> helper = handlebars.helper(varName);
     if (helper == null && isHelper) {
       Helper<Object> helperMissing =
           handlebars.helper(HelperRegistry.HELPER_MISSING);
       if (helperMissing == null) {
-        reportError(null, name.getLine(), name.getCharPositionInLine(), "could not find helper: '"
-            + varName + "'");
+        reportError(null, line, column, "could not find helper: '" + varName + "'");
       }
     }
-    return new Variable(handlebars, varName, varType, params, hash)
-        .startDelimiter(startDelimiter)
-        .endDelimiter(endDelimiter)
-        .filename(source.filename())
-        .position(name.getLine(), name.getCharPositionInLine());
+    Variable variable = new Variable(handlebars, varName, varType, params, hash);
+    variable.filename(source.filename());
+    variable.position(line, column);
+    return variable;
   }
 
   /**
@@ -330,34 +455,37 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
   @Override
   public Object visitSubParamExpr(final SubParamExprContext ctx) {
     SexprContext sexpr = ctx.sexpr();
-    return newVar(sexpr.QID().getSymbol(), TagType.SUB_EXPRESSION, params(sexpr.param()),
-        hash(sexpr.hash()), ctx.start.getText(), ctx.stop.getText());
+    Token name = sexpr.QID().getSymbol();
+    return newVar(name.getText(), name.getLine(), name.getCharPositionInLine(),
+        TagType.SUB_EXPRESSION, params(sexpr.param()), hash(sexpr.hash()))
+        .startDelimiter(ctx.start.getText())
+        .endDelimiter(ctx.stop.getText());
   }
 
   @Override
   public Object visitStringParam(final StringParamContext ctx) {
-    return stringLiteral(ctx);
+    return stringLiteral(ctx.getText());
   }
 
   @Override
   public Object visitCharParam(final CharParamContext ctx) {
-    return charLiteral(ctx);
+    return charLiteral(ctx.getText());
   }
 
   /**
-   * @param ctx The char literal context.
+   * @param text The char literal text.
    * @return A char literal.
    */
-  private String charLiteral(final RuleContext ctx) {
-    return ctx.getText().replace("\\\'", "\'");
+  static String charLiteral(final String text) {
+    return text.replace("\\\'", "\'");
   }
 
   /**
-   * @param ctx The string literal context.
+   * @param text The string literal text.
    * @return A string literal.
    */
-  private String stringLiteral(final RuleContext ctx) {
-    return ctx.getText().replace("\\\"", "\"");
+  static String stringLiteral(final String text) {
+    return text.replace("\\\"", "\"");
   }
 
   @Override
@@ -372,14 +500,58 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
 
   @Override
   public Template visitTemplate(final TemplateContext ctx) {
-    Template template = visitBody(ctx.body());
+    return template(visitBody(ctx.body()));
+  }
+
+  /**
+   * Complete the template and release resources, the builder can't be used after.
+   *
+   * @param body The template's body.
+   * @return The template.
+   */
+  Template template(final Template body) {
+    Template template = body;
     if (!handlebars.infiniteLoops() && template instanceof BaseTemplate) {
       template = infiniteLoop(source, (BaseTemplate) template);
     }
+    dependencies();
     destroy();
     return template;
   }
 
+  /**
+   * Keep track of a template name used by <code>block</code> or <code>embedded</code>.
+   *
+   * @param params The helper params.
+   */
+  private void use(final List<Object> params) {
+    if (params.size() > 0 && params.get(0) instanceof String) {
+      String param = (String) params.get(0);
+      int len = param.length();
+      if (len > 2 && (param.charAt(0) == '"' || param.charAt(0) == '\'')
+          && param.charAt(len - 1) == param.charAt(0)) {
+        uses.add(param.substring(1, len - 1));
+      }
+    }
+  }
+
+  /**
+   * Resolve the templates used by the current template and update the dependency graph.
+   */
+  private void dependencies() {
+    TemplateLoader loader = handlebars.getLoader();
+    Set<String> filenames = new LinkedHashSet<String>();
+    for (String uri : uses) {
+      try {
+        filenames.add(loader.resolve(uri));
+      } catch (RuntimeException ex) {
+        // unknown template, nothing to track
+        continue;
+      }
+    }
+    handlebars.dependencies().update(source.filename(), filenames);
+  }
+
   /**
    * Creates a {@link Template} that detects recursively calls.
    *
@@ -407,9 +579,31 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
 
   @Override
   public Template visitPartial(final PartialContext ctx) {
+    PartialInfo info = (PartialInfo) super.visit(ctx.pexpr());
+
+    String startDelim = ctx.start.getText();
+    return partial(info.path, info.context, info.hash,
+        startDelim.substring(0, startDelim.length() - 1), ctx.stop.getText(),
+        info.token.getLine(), info.token.getCharPositionInLine());
+  }
+
+  /**
+   * Build a new {@link Partial}.
+   *
+   * @param path The partial's path: static vs subexpression.
+   * @param context The partial's context or <code>null</code>.
+   * @param hash The partial's hash.
+   * @param startDelimiter The current start delimiter.
+   * @param endDelimiter The current end delimiter.
+   * @param line The line of the partial's path.
+   * @param column The column of the partial's path.
+   * @return A new {@link Partial}.
+   */
+  Template partial(final Template path, final String context, final Map<String, Object> hash,
+      final String startDelimiter, final String endDelimiter, final int line, final int column) {
     hasTag(true);
 
-    String indent = line.toString();
+    String indent = this.line.toString();
     if (hasTag()) {
       if (isEmpty(indent) || !isEmpty(indent.trim())) {
         indent = null;
@@ -418,48 +612,61 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
       indent = null;
     }
 
-    PartialInfo info = (PartialInfo) super.visit(ctx.pexpr());
-
-    String startDelim = ctx.start.getText();
-    Template partial = new Partial(handlebars, info.path, info.context, info.hash)
-        .startDelimiter(startDelim.substring(0, startDelim.length() - 1))
-        .endDelimiter(ctx.stop.getText())
+    return new Partial(handlebars, path, context, hash)
+        .startDelimiter(startDelimiter)
+        .endDelimiter(endDelimiter)
         .indent(indent)
         .filename(source.filename())
-        .position(info.token.getLine(), info.token.getCharPositionInLine());
-
-    return partial;
+        .position(line, column);
   }
 
   @Override
   public PartialInfo visitStaticPath(final StaticPathContext ctx) {
     Token pathToken = ctx.path;
-    String uri = pathToken.getText();
+    TerminalNode partialContext = ctx.QID(1);
+
+    PartialInfo partial = new PartialInfo();
+    partial.token = pathToken;
+    partial.path = partialPath(pathToken.getText(), pathToken.getLine(),
+        pathToken.getCharPositionInLine());
+    partial.hash = hash(ctx.hash());
+    partial.context = partialContext != null ? partialContext.getText() : null;
+    return partial;
+  }
+
+  /**
+   * Build the path of a static partial.
+   *
+   * @param path The partial's path.
+   * @param line The line of the partial's path.
+   * @param column The column of the partial's path.
+   * @return The partial's path.
+   */
+  Template partialPath(final String path, final int line, final int column) {
+    String uri = path;
     if (uri.startsWith("[") && uri.endsWith("]")) {
       uri = uri.substring(1, uri.length() - 1);
     }
 
     if (uri.startsWith("/")) {
       String message = "found: '/', partial shouldn't start with '/'";
-      reportError(null, pathToken.getLine(), pathToken.getCharPositionInLine(), message);
+      reportError(null, line, column, message);
     }
 
-    TerminalNode partialContext = ctx.QID(1);
+    uses.add(uri);
 
-    PartialInfo partial = new PartialInfo();
-    partial.token = pathToken;
-    partial.path = new Text(handlebars, uri);
-    partial.hash = hash(ctx.hash());
-    partial.context = partialContext != null ? partialContext.getText() : null;
-    return partial;
+    return new Text(handlebars, uri);
   }
 
   @Override
   public PartialInfo visitDynamicPath(final DynamicPathContext ctx) {
     SexprContext sexpr = ctx.sexpr();
     TerminalNode qid = sexpr.QID();
-    Template expression = newVar(qid.getSymbol(), TagType.SUB_EXPRESSION, params(sexpr.param()),
-        hash(sexpr.hash()), ctx.start.getText(), ctx.stop.getText());
+    Token name = qid.getSymbol();
+    Template expression = newVar(name.getText(), name.getLine(), name.getCharPositionInLine(),
+        TagType.SUB_EXPRESSION, params(sexpr.param()), hash(sexpr.hash()))
+        .startDelimiter(ctx.start.getText())
+        .endDelimiter(ctx.stop.getText());
 
     PartialInfo partial = new PartialInfo();
     partial.path = expression;
@@ -478,10 +685,30 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
     if (stats.size() == 1) {
       return visit(stats.get(0));
     }
+    List<Template> statements = new ArrayList<Template>(stats.size());
+    for (StatementContext statement : stats) {
+      statements.add(visit(statement));
+    }
+    return body(statements);
+  }
+
+  /**
+   * Join statements as a single template. Consecutive pieces of text are merged and
+   * <code>null</code> statements are ignored.
+   *
+   * @param statements The statements.
+   * @return A template.
+   */
+  Template body(final List<Template> statements) {
+    if (statements.size() == 0) {
+      return Template.EMPTY;
+    }
+    if (statements.size() == 1) {
+      return statements.get(0);
+    }
     TemplateList list = new TemplateList(handlebars);
     Template prev = null;
-    for (StatementContext statement : stats) {
-      Template candidate = visit(statement);
+    for (Template candidate : statements) {
       if (candidate != null) {
         // join consecutive piece of text
         if (candidate instanceof Text) {
@@ -515,36 +742,75 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
 
   @Override
   public Template visitText(final TextContext ctx) {
-    String text = ctx.getText();
-    line.append(text);
+    return text(ctx.getText(), ctx.start.getLine(), ctx.start.getCharPositionInLine());
+  }
+
+  /**
+   * Creates a plain text template.
+   *
+   * @param text The text.
+   * @param line The line.
+   * @param column The column.
+   * @return A new {@link Text}.
+   */
+  Template text(final String text, final int line, final int column) {
+    this.line.append(text);
     return new Text(handlebars, text)
         .filename(source.filename())
-        .position(ctx.start.getLine(), ctx.start.getCharPositionInLine());
+        .position(line, column);
   }
 
   @Override
   public Template visitSpaces(final SpacesContext ctx) {
     Token space = ctx.SPACE().getSymbol();
-    String text = space.getText();
-    line.append(text);
-    if (space.getChannel() == Token.HIDDEN_CHANNEL) {
+    return spaces(space.getText(), space.getChannel() == Token.HIDDEN_CHANNEL,
+        space.getLine(), space.getCharPositionInLine());
+  }
+
+  /**
+   * Creates a template for spaces.
+   *
+   * @param text The spaces.
+   * @param hidden True, if spaces must be removed from output.
+   * @param line The line.
+   * @param column The column.
+   * @return A new {@link Text} or <code>null</code> for hidden spaces.
+   */
+  Template spaces(final String text, final boolean hidden, final int line, final int column) {
+    this.line.append(text);
+    if (hidden) {
       return null;
     }
     return new Text(handlebars, text)
         .filename(source.filename())
-        .position(ctx.start.getLine(), ctx.start.getCharPositionInLine());
+        .position(line, column);
   }
 
   @Override
   public BaseTemplate visitNewline(final NewlineContext ctx) {
     Token newline = ctx.NL().getSymbol();
-    if (newline.getChannel() == Token.HIDDEN_CHANNEL) {
+    return newline(newline.getText(), newline.getChannel() == Token.HIDDEN_CHANNEL,
+        newline.getLine(), newline.getCharPositionInLine());
+  }
+
+  /**
+   * Creates a template for a new line.
+   *
+   * @param text The new line.
+   * @param hidden True, if the new line must be removed from output.
+   * @param line The line.
+   * @param column The column.
+   * @return A new {@link Text} or <code>null</code> for hidden new lines.
+   */
+  BaseTemplate newline(final String text, final boolean hidden, final int line,
+      final int column) {
+    if (hidden) {
       return null;
     }
-    line.setLength(0);
-    return new Text(handlebars, newline.getText())
+    this.line.setLength(0);
+    return new Text(handlebars, text)
         .filename(source.filename())
-        .position(newline.getLine(), newline.getCharPositionInLine());
+        .position(line, column);
   }
 
   /**
@@ -574,6 +840,7 @@ abstract class TemplateBuilder extends HbsParserBaseVisitor<Object> {
    * Cleanup resources.
    */
   private void destroy() {
+    this.uses = null;
     this.handlebars = null;
     this.source = null;
     this.hasTag = null;
@@ -24,6 +24,7 @@ import java.io.Writer;
 
 import com.github.jknack.handlebars.Context;
 import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.StaticTextWriter;
 
 /**
  * Plain text template.
@@ -79,7 +80,11 @@ class Text extends BaseTemplate {
   @Override
   protected void merge(final Context scope, final Writer writer)
       throws IOException {
-    writer.append(text);
+    if (writer instanceof StaticTextWriter) {
+      ((StaticTextWriter) writer).writeStatic(text);
+    } else {
+      writer.append(text);
+    }
   }
 
   /**
@@ -17,13 +17,20 @@
  */
 package com.github.jknack.handlebars.internal;
 
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Transform a value and produce a new value if applies. For example, arrays are
- * converted to list in order to iterate over them using the Iterable interface.
+ * converted to list in order to iterate over them using the Iterable interface. Primitive
+ * arrays are wrapped in a random access list view.
  *
  * @author edgar.espina
  * @since 0.1.0
@@ -45,11 +52,270 @@ enum Transformer {
 
     @Override
     public Object doTransform(final Object candidate) {
-      List<Object> list = Arrays.asList((Object[]) candidate);
-      return list;
+      if (candidate instanceof Object[]) {
+        List<Object> list = Arrays.asList((Object[]) candidate);
+        return list;
+      }
+      return PrimitiveArrayList.of(candidate);
+    }
+  },
+
+  /**
+   * Convert {@link Enumeration} and Java 8 streams into a lazy {@link Iterator}, so elements are
+   * pulled one by one while rendering. Streams are closed once the block is rendered, even if the
+   * block doesn't consume them.
+   */
+  ITERATOR {
+    @Override
+    boolean apply(final Object candidate) {
+      return candidate instanceof Enumeration
+          || BASE_STREAM != null && BASE_STREAM.isInstance(candidate);
+    }
+
+    @Override
+    public Object doTransform(final Object candidate) {
+      if (candidate instanceof Enumeration) {
+        return new EnumerationIterator((Enumeration<?>) candidate);
+      }
+      return new StreamIterator(candidate);
     }
   };
 
+  /**
+   * The <code>java.util.stream.BaseStream</code> class or null on Java 7 or lower.
+   */
+  private static final Class<?> BASE_STREAM = loadClass("java.util.stream.BaseStream");
+
+  /**
+   * An {@link Iterator} view of an {@link Enumeration}.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private static final class EnumerationIterator implements Iterator<Object> {
+
+    /**
+     * The source enumeration.
+     */
+    private final Enumeration<?> enumeration;
+
+    /**
+     * Creates a new {@link EnumerationIterator}.
+     *
+     * @param enumeration The source enumeration. Required.
+     */
+    EnumerationIterator(final Enumeration<?> enumeration) {
+      this.enumeration = enumeration;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return enumeration.hasMoreElements();
+    }
+
+    @Override
+    public Object next() {
+      return enumeration.nextElement();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * An {@link Iterator} over a <code>java.util.stream.BaseStream</code>. The stream is closed once
+   * the iterator is closed. Reflection is required bc we still want to support 1.6.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private static final class StreamIterator implements Iterator<Object>, Closeable {
+
+    /**
+     * The source stream.
+     */
+    private final Object stream;
+
+    /**
+     * The stream's iterator.
+     */
+    private final Iterator<?> iterator;
+
+    /**
+     * Creates a new {@link StreamIterator}.
+     *
+     * @param stream The source stream. Required.
+     */
+    StreamIterator(final Object stream) {
+      this.stream = stream;
+      this.iterator = (Iterator<?>) invoke(stream, "iterator");
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public Object next() {
+      return iterator.next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+      invoke(stream, "close");
+    }
+
+    /**
+     * Invoke a no-arg method of <code>java.util.stream.BaseStream</code>.
+     *
+     * @param stream The stream.
+     * @param name The method's name.
+     * @return The method's result.
+     */
+    private static Object invoke(final Object stream, final String name) {
+      try {
+        return BASE_STREAM.getMethod(name).invoke(stream);
+      } catch (InvocationTargetException ex) {
+        throw launderThrowable(ex.getCause());
+      } catch (Exception ex) {
+        throw new IllegalStateException("Can't invoke: " + name, ex);
+      }
+    }
+
+    /**
+     * Rethrow unchecked exceptions or wrap checked ones.
+     *
+     * @param cause The cause.
+     * @return A runtime exception.
+     */
+    private static RuntimeException launderThrowable(final Throwable cause) {
+      if (cause instanceof RuntimeException) {
+        return (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      return new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * A read-only and random access list view of a primitive array. Elements are boxed on access
+   * (not upfront). The element accessor is picked once, by {@link #of(Object)}.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private abstract static class PrimitiveArrayList extends AbstractList<Object>
+      implements RandomAccess {
+
+    /**
+     * The array's length.
+     */
+    private final int size;
+
+    /**
+     * Creates a new {@link PrimitiveArrayList}.
+     *
+     * @param size The array's length.
+     */
+    PrimitiveArrayList(final int size) {
+      this.size = size;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Creates a list view of a primitive array.
+     *
+     * @param array A primitive array. Required.
+     * @return A list view of the array.
+     */
+    static List<Object> of(final Object array) {
+      if (array instanceof int[]) {
+        final int[] values = (int[]) array;
+        return new PrimitiveArrayList(values.length) {
+          @Override
+          public Object get(final int index) {
+            return values[index];
+          }
+        };
+      }
+      if (array instanceof long[]) {
+        final long[] values = (long[]) array;
+        return new PrimitiveArrayList(values.length) {
+          @Override
+          public Object get(final int index) {
+            return values[index];
+          }
+        };
+      }
+      if (array instanceof double[]) {
+        final double[] values = (double[]) array;
+        return new PrimitiveArrayList(values.length) {
+          @Override
+          public Object get(final int index) {
+            return values[index];
+          }
+        };
+      }
+      if (array instanceof float[]) {
+        final float[] values = (float[]) array;
+        return new PrimitiveArrayList(values.length) {
+          @Override
+          public Object get(final int index) {
+            return values[index];
+          }
+        };
+      }
+      if (array instanceof boolean[]) {
+        final boolean[] values = (boolean[]) array;
+        return new PrimitiveArrayList(values.length) {
+          @Override
+          public Object get(final int index) {
+            return values[index];
+          }
+        };
+      }
+      if (array instanceof char[]) {
+        final char[] values = (char[]) array;
+        return new PrimitiveArrayList(values.length) {
+          @Override
+          public Object get(final int index) {
+            return values[index];
+          }
+        };
+      }
+      if (array instanceof byte[]) {
+        final byte[] values = (byte[]) array;
+        return new PrimitiveArrayList(values.length) {
+          @Override
+          public Object get(final int index) {
+            return values[index];
+          }
+        };
+      }
+      final short[] values = (short[]) array;
+      return new PrimitiveArrayList(values.length) {
+        @Override
+        public Object get(final int index) {
+          return values[index];
+        }
+      };
+    }
+  }
+
   /**
    * All the transformer are here except {@link #NONE}.
    */
@@ -60,6 +326,20 @@ enum Transformer {
     transformers.remove(NONE);
   }
 
+  /**
+   * Load a class by its name.
+   *
+   * @param name The class's name.
+   * @return The class or null if not found.
+   */
+  private static Class<?> loadClass(final String name) {
+    try {
+      return Class.forName(name);
+    } catch (ClassNotFoundException ex) {
+      return null;
+    }
+  }
+
   /**
    * Return true if the strategy applies for the candidate value.
    *
@@ -0,0 +1,320 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import com.github.jknack.handlebars.internal.HbsParser.AmpvarContext;
+import com.github.jknack.handlebars.internal.HbsParser.BlockContext;
+import com.github.jknack.handlebars.internal.HbsParser.CommentContext;
+import com.github.jknack.handlebars.internal.HbsParser.DelimitersContext;
+import com.github.jknack.handlebars.internal.HbsParser.ElseBlockContext;
+import com.github.jknack.handlebars.internal.HbsParser.NewlineContext;
+import com.github.jknack.handlebars.internal.HbsParser.PartialContext;
+import com.github.jknack.handlebars.internal.HbsParser.SpacesContext;
+import com.github.jknack.handlebars.internal.HbsParser.TemplateContext;
+import com.github.jknack.handlebars.internal.HbsParser.TextContext;
+import com.github.jknack.handlebars.internal.HbsParser.TvarContext;
+import com.github.jknack.handlebars.internal.HbsParser.UnlessContext;
+import com.github.jknack.handlebars.internal.HbsParser.VarContext;
+
+/**
+ * Remove spaces and lines according to the Mustache Spec (standalone lines) and the white-space
+ * control (<code>~</code>) in a single pass.
+ *
+ * It is registered as a parse listener, so it runs while the {@link HbsParser} builds the parse
+ * tree: no extra tree walks are required. Events are fired when a rule starts, so the closing
+ * token of a tag is handled later: on exit for simple tags and on the first {@link HbsLexer#END}
+ * for block and inverse headers.
+ *
+ * The lexer detects white-space control while it runs ahead of the parser, so trimmed tokens are
+ * collected and hidden at the end of the template, if and only if the lexer found a
+ * <code>~</code>.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+class WhiteSpaceTrimmer extends HbsParserBaseListener {
+
+  /**
+   * The lexer, it reports if white-space control is present.
+   */
+  private final HbsLexer lexer;
+
+  /**
+   * True, if the Mustache Spec rules must be applied.
+   */
+  private final boolean prettyPrint;
+
+  /**
+   * Track if the current line has real text (not spaces).
+   */
+  private boolean nonSpace = false;
+
+  /**
+   * Track if the current line has mustache instruction.
+   */
+  private Boolean hasTag;
+
+  /**
+   * Track the spaces/lines of the current line.
+   */
+  private List<CommonToken> lineSpaces = new ArrayList<CommonToken>();
+
+  /**
+   * Track the spaces/lines since the last tag.
+   */
+  private List<CommonToken> spaces = new ArrayList<CommonToken>();
+
+  /**
+   * Spaces/lines removed by white-space control.
+   */
+  private List<CommonToken> trimmed = new ArrayList<CommonToken>();
+
+  /** Greater than zero, if a trim-right operation is required. */
+  private int pending = 0;
+
+  /** True, while a block, inverse or else header waits for its {@link HbsLexer#END}. */
+  private boolean header;
+
+  /**
+   * Creates a new {@link WhiteSpaceTrimmer}.
+   *
+   * @param lexer The lexer.
+   * @param prettyPrint True, if the Mustache Spec rules must be applied.
+   */
+  public WhiteSpaceTrimmer(final HbsLexer lexer, final boolean prettyPrint) {
+    this.lexer = lexer;
+    this.prettyPrint = prettyPrint;
+  }
+
+  @Override
+  public void enterSpaces(final SpacesContext ctx) {
+    CommonToken space = (CommonToken) ctx.start;
+    lineSpaces.add(space);
+    spaces.add(space);
+  }
+
+  @Override
+  public void enterNewline(final NewlineContext ctx) {
+    CommonToken newline = (CommonToken) ctx.start;
+    lineSpaces.add(newline);
+    stripSpaces();
+    spaces.add(newline);
+  }
+
+  @Override
+  public void exitTemplate(final TemplateContext ctx) {
+    stripSpaces();
+    trimRight();
+    if (lexer.whiteSpaceControl) {
+      hide(trimmed);
+    }
+  }
+
+  @Override
+  public void enterText(final TextContext ctx) {
+    nonSpace = true;
+    open(ctx.start);
+    close(ctx.start);
+  }
+
+  @Override
+  public void enterBlock(final BlockContext ctx) {
+    hasTag(true);
+    open(ctx.start);
+    header = true;
+  }
+
+  @Override
+  public void enterElseBlock(final ElseBlockContext ctx) {
+    open(ctx.start);
+    header = true;
+  }
+
+  @Override
+  public void exitBlock(final BlockContext ctx) {
+    hasTag(true);
+    TerminalNode endBlock = ctx.END_BLOCK();
+    if (endBlock != null) {
+      open(endBlock.getSymbol());
+      close(ctx.stop);
+    }
+  }
+
+  @Override
+  public void enterComment(final CommentContext ctx) {
+    hasTag(true);
+    open(ctx.start);
+    close(ctx.start);
+  }
+
+  @Override
+  public void enterPartial(final PartialContext ctx) {
+    open(ctx.start);
+  }
+
+  @Override
+  public void exitPartial(final PartialContext ctx) {
+    close(ctx.stop);
+    hasTag(true);
+  }
+
+  @Override
+  public void enterDelimiters(final DelimitersContext ctx) {
+    hasTag(true);
+    open(ctx.start);
+  }
+
+  @Override
+  public void exitDelimiters(final DelimitersContext ctx) {
+    close(ctx.stop);
+  }
+
+  @Override
+  public void enterUnless(final UnlessContext ctx) {
+    hasTag(true);
+    open(ctx.start);
+    header = true;
+  }
+
+  @Override
+  public void exitUnless(final UnlessContext ctx) {
+    hasTag(true);
+  }
+
+  @Override
+  public void enterAmpvar(final AmpvarContext ctx) {
+    hasTag(false);
+    open(ctx.start);
+  }
+
+  @Override
+  public void exitAmpvar(final AmpvarContext ctx) {
+    close(ctx.stop);
+  }
+
+  @Override
+  public void enterTvar(final TvarContext ctx) {
+    hasTag(false);
+    open(ctx.start);
+  }
+
+  @Override
+  public void exitTvar(final TvarContext ctx) {
+    close(ctx.stop);
+  }
+
+  @Override
+  public void enterVar(final VarContext ctx) {
+    hasTag(false);
+    open(ctx.start);
+  }
+
+  @Override
+  public void exitVar(final VarContext ctx) {
+    close(ctx.stop);
+  }
+
+  @Override
+  public void visitTerminal(final TerminalNode node) {
+    if (header && node.getSymbol().getType() == HbsLexer.END) {
+      header = false;
+      close(node.getSymbol());
+    }
+  }
+
+  /**
+   * Hide the spaces of a standalone line, Mustache Spec only.
+   */
+  private void stripSpaces() {
+    if (prettyPrint) {
+      boolean hasTag = this.hasTag == null ? false : this.hasTag.booleanValue();
+      if (hasTag && !nonSpace) {
+        hide(lineSpaces);
+      }
+    }
+    lineSpaces.clear();
+
+    this.hasTag = null;
+    nonSpace = false;
+  }
+
+  /**
+   * Mark the current line with a mustache instruction.
+   *
+   * @param hasTag True, to indicate there is a mustache instruction.
+   */
+  private void hasTag(final boolean hasTag) {
+    if (this.hasTag != Boolean.FALSE) {
+      this.hasTag = hasTag;
+    }
+  }
+
+  /**
+   * Start of a tag (or text): trim-right pending spaces and trim-left if required.
+   *
+   * @param token The start token.
+   */
+  private void open(final Token token) {
+    trimRight();
+
+    if (token.getText().indexOf("~") > 0) {
+      trimmed.addAll(spaces);
+    }
+
+    // clear tokens
+    spaces.clear();
+  }
+
+  /**
+   * End of a tag (or text): schedule a trim-right if required. Exit events are fired on syntax
+   * errors too, so the token might be missing.
+   *
+   * @param token The end token or <code>null</code>.
+   */
+  private void close(final Token token) {
+    if (token != null && token.getText().indexOf("~") == 0) {
+      pending += 1;
+    }
+  }
+
+  /** Trim-right, if ONLY if pending > 0. */
+  private void trimRight() {
+    if (pending > 0) {
+      trimmed.addAll(spaces);
+      pending -= 1;
+    }
+  }
+
+  /**
+   * Move tokens to the hidden channel.
+   *
+   * @param tokens Tokens to hide.
+   */
+  private static void hide(final List<CommonToken> tokens) {
+    for (CommonToken token : tokens) {
+      token.setChannel(Token.HIDDEN_CHANNEL);
+    }
+  }
+}
@@ -21,9 +21,10 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
@@ -130,6 +131,16 @@ public class JavaxScriptHandlebars extends HandlebarsJs {
   /** Location of the handlebars.rhino.js file. */
   private static final String HANDLEBARS_HELPERS_REGISTRY_OVERRIDE_JS_FILE = "/helpers.rhino.js";
 
+  /**
+   * The Java to JavaScript translation method (Rhino only).
+   */
+  private volatile Method translation;
+
+  /**
+   * True, once {@link #translation} has been resolved.
+   */
+  private volatile boolean translationResolved;
+
   /**
    * Creates a new {@link JavaxScriptHandlebars}.
    *
@@ -149,7 +160,7 @@ public class JavaxScriptHandlebars extends HandlebarsJs {
     registry.registerHelper(name, new Helper<Object>() {
       @Override
       public CharSequence apply(final Object context, final Options options) throws IOException {
-        Map<String, Object>contextProperties = contextPropertiesToMap(options.context);
+        Map<String, Object> contextProperties = new ContextProperties(options.context);
 
         Object arg0 = null;
 
@@ -178,22 +189,40 @@ public class JavaxScriptHandlebars extends HandlebarsJs {
    * @return translated or same object
    */
   private Object translateToJsObject(final Object object) {
-    if (JSEngine.getInstance().getEngineKind() == JSEngine.EngineKind.NASHORN) {
+    Method translation = translation();
+    if (translation == null) {
       // Nashorn already has proper translation of Java objects into comfortable JS objects,
       // see https://wiki.openjdk.java.net/display/Nashorn/
       // Nashorn+extensions#Nashornextensions-SpecialtreatmentofobjectsofspecificJavaclasses
       return object;
-    } else {
+    }
+    try {
+      return translation.invoke(null, object);
+    } catch (Exception e) {
+      throw new RuntimeException(
+          "Handlebars internal error: something went wrong in " + translation, e);
+    }
+  }
+
+  /**
+   * Resolve (only once) the translation method for the current engine.
+   *
+   * @return The translation method or <code>null</code> for Nashorn.
+   */
+  private Method translation() {
+    if (translationResolved) {
+      return translation;
+    }
+    if (JSEngine.getInstance().getEngineKind() == JSEngine.EngineKind.RHINO) {
       // assume Rhino:
       // invoke method from optional dependency handlebars-java7 via reflection
       // so this class does not contain an import statement for it,
       // and so can be loaded in a Java 8 JVM.
-      Method method;
       try {
         Class<?> jsConsumableObjectClass = Class.forName(
             "com.github.jknack.handlebars.internal.js.JavaObjectToJSTranslation");
         try {
-          method = jsConsumableObjectClass.getMethod("translateIfNecessary", Object.class);
+          translation = jsConsumableObjectClass.getMethod("translateIfNecessary", Object.class);
         } catch (NoSuchMethodException e) {
           throw new RuntimeException(
               "Handlebars internal error: check if"
@@ -205,14 +234,9 @@ public class JavaxScriptHandlebars extends HandlebarsJs {
       } catch (ClassNotFoundException e) {
         throw new RuntimeException("Please add dependency handlebars-java7", e);
       }
-
-      try {
-        return method.invoke(null, object);
-      } catch (Exception e) {
-        throw new RuntimeException(
-            "Handlebars internal error: something went wrong in " + method, e);
-      }
     }
+    translationResolved = true;
+    return translation;
   }
 
   @Override
@@ -254,15 +278,60 @@ public class JavaxScriptHandlebars extends HandlebarsJs {
   }
 
   /**
-   * Turn a given context's properties into a Map.
-   * @param context given
-   * @return the Map
+   * A context's properties as Map. Properties are listed on first access, so helpers that don't
+   * use the context (<code>this</code>) don't pay for it.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
    */
-  private static Map<String, Object> contextPropertiesToMap(final Context context) {
-    Map<String, Object> hash = new HashMap<String, Object>();
-    for (Entry<String, Object> property : context.propertySet()) {
-      hash.put(property.getKey(), property.getValue());
+  private static class ContextProperties extends AbstractMap<String, Object> {
+
+    /** The context. */
+    private final Context context;
+
+    /** The context's properties. Lazy initialized. */
+    private Map<String, Object> properties;
+
+    /**
+     * Creates a new {@link ContextProperties}.
+     *
+     * @param context The context.
+     */
+    public ContextProperties(final Context context) {
+      this.context = context;
+    }
+
+    /**
+     * @return The context's properties.
+     */
+    private Map<String, Object> properties() {
+      if (properties == null) {
+        properties = new LinkedHashMap<String, Object>();
+        for (Entry<String, Object> property : context.propertySet()) {
+          properties.put(property.getKey(), property.getValue());
+        }
+      }
+      return properties;
+    }
+
+    @Override
+    public Object get(final Object key) {
+      return properties().get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+      return properties().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return properties().size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return properties().entrySet();
     }
-    return hash;
   }
 }
@@ -18,10 +18,14 @@
 package com.github.jknack.handlebars.io;
 
 import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,25 +41,63 @@ import org.slf4j.LoggerFactory;
  * <ul>
  * <li>If a {@link TemplateLoader} is able to resolve a {@link TemplateSource}, that
  * {@link TemplateSource} is considered the response.</li>
- * <li>If a {@link TemplateLoader} throws a {@link IOException} exception the next
- * {@link TemplateLoader} in the chain will be used.</li>
+ * <li>If a {@link TemplateLoader} can't find the template (or throws a {@link IOException})
+ * the next {@link TemplateLoader} in the chain will be used.</li>
  * </ul>
+ * <p>
+ * Delegates are probed with {@link TemplateLookup#lookup(String)} when available, with
+ * {@link TemplateLoader#sourceAt(String)} otherwise.
+ * </p>
+ * <p>
+ * The loader that resolved a location is remembered (up to {@link #INDEX_SIZE} locations), so
+ * the chain is searched once per location. As a consequence, a template added later to a loader
+ * with higher priority than the remembered one doesn't override it until {@link #evict(String)}
+ * or {@link #clear()} are called. Missing templates can be remembered too, see
+ * {@link #setCacheMisses(boolean)}.
+ * </p>
  *
  * @author edgar.espina
  * @since 1.0.0
  */
-public class CompositeTemplateLoader implements TemplateLoader {
+public class CompositeTemplateLoader implements TemplateLoader, TemplateLookup {
+
+  /**
+   * Max number of locations to remember.
+   */
+  public static final int INDEX_SIZE = 1024;
 
   /**
    * The logging system.
    */
   private static final Logger logger = LoggerFactory.getLogger(CompositeTemplateLoader.class);
 
+  /**
+   * Index of a missing template.
+   */
+  private static final int MISSING = -1;
+
   /**
    * The template loader list.
    */
   private final TemplateLoader[] delegates;
 
+  /**
+   * Index of the delegate able to load a location, or {@link #MISSING}.
+   */
+  @SuppressWarnings("serial")
+  private final Map<String, Integer> index = Collections.synchronizedMap(
+      new LinkedHashMap<String, Integer>(16, .75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Integer> eldest) {
+          return size() > INDEX_SIZE;
+        }
+      });
+
+  /**
+   * True, if missing templates are remembered.
+   */
+  private volatile boolean cacheMisses;
+
   /**
    * Creates a new {@link CompositeTemplateLoader}.
    *
@@ -68,31 +110,105 @@ public class CompositeTemplateLoader implements TemplateLoader {
 
   @Override
   public TemplateSource sourceAt(final String location) throws IOException {
-    for (TemplateLoader delegate : delegates) {
-      try {
-        return delegate.sourceAt(location);
-      } catch (IOException ex) {
-        // try next loader in the chain.
-        logger.trace("Unable to resolve: {}, trying next loader in the chain.", location);
+    TemplateSource source = lookup(location);
+    if (source == null) {
+      throw new FileNotFoundException(location);
+    }
+    return source;
+  }
+
+  @Override
+  public TemplateSource lookup(final String location) {
+    Integer winner = index.get(location);
+    if (winner != null) {
+      if (winner == MISSING) {
+        return null;
+      }
+      TemplateSource source = lookup(delegates[winner], location);
+      if (source != null) {
+        return source;
+      }
+      // the template is gone, try the whole chain again
+      index.remove(location);
+    }
+    for (int i = 0; i < delegates.length; i++) {
+      TemplateSource source = lookup(delegates[i], location);
+      if (source != null) {
+        index.put(location, i);
+        return source;
       }
+      logger.trace("Unable to resolve: {}, trying next loader in the chain.", location);
+    }
+    if (cacheMisses) {
+      index.put(location, MISSING);
+    }
+    return null;
+  }
+
+  /**
+   * Get a template source from a delegate.
+   *
+   * @param delegate The template loader.
+   * @param location The location of the template source.
+   * @return A template source or <code>null</code>.
+   */
+  private TemplateSource lookup(final TemplateLoader delegate, final String location) {
+    try {
+      if (delegate instanceof TemplateLookup) {
+        return ((TemplateLookup) delegate).lookup(location);
+      }
+      return delegate.sourceAt(location);
+    } catch (IOException ex) {
+      logger.trace("Unable to resolve: " + location, ex);
+      return null;
     }
-    throw new FileNotFoundException(location);
   }
 
   @Override
   public String resolve(final String location) {
-    for (TemplateLoader delegate : delegates) {
-      try {
-        delegate.sourceAt(location);
-        return delegate.resolve(location);
-      } catch (IOException ex) {
-        // try next loader in the chain.
-        logger.trace("Unable to resolve: {}, trying next loader in the chain.", location);
-      }
+    Integer winner = index.get(location);
+    if (winner == null) {
+      lookup(location);
+      winner = index.get(location);
+    }
+    if (winner != null && winner != MISSING) {
+      return delegates[winner].resolve(location);
     }
     throw new IllegalStateException("Can't resolve: '" + location + "'");
   }
 
+  /**
+   * Forget which loader resolved a location. Call it after adding or removing templates.
+   *
+   * @param location The location of the template source. Required.
+   */
+  public void evict(final String location) {
+    index.remove(notNull(location, "The location is required."));
+  }
+
+  /**
+   * Forget which loader resolved each location. Call it after adding or removing templates.
+   */
+  public void clear() {
+    index.clear();
+  }
+
+  /**
+   * If true, missing templates are remembered and the chain isn't searched again until
+   * {@link #evict(String)} or {@link #clear()} are called. Don't turn it on if templates can be
+   * added at runtime. Default is: false.
+   *
+   * @param cacheMisses True, if missing templates are remembered.
+   */
+  public void setCacheMisses(final boolean cacheMisses) {
+    this.cacheMisses = cacheMisses;
+    if (!cacheMisses) {
+      synchronized (index) {
+        index.values().removeAll(Collections.singleton(MISSING));
+      }
+    }
+  }
+
   @Override
   public String getPrefix() {
     throw new UnsupportedOperationException();
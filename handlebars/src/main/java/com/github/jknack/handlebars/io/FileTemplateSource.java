@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.io;
+
+import static org.apache.commons.lang3.Validate.notEmpty;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A {@link File} {@link TemplateSource}. Content is read with NIO and kept in memory until the
+ * file's last modified date changes. The last modified date of the source is read when the source
+ * is created, like in {@link URLTemplateSource}.
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class FileTemplateSource extends AbstractTemplateSource {
+
+  /**
+   * The decoded content of a file and the file's last modified date at read time.
+   *
+   * @author edgar.espina
+   * @since 2.2.3
+   */
+  private static class Snapshot {
+
+    /** The decoded content. */
+    private final String content;
+
+    /** File's last modified date at read time. */
+    private final long lastModified;
+
+    /**
+     * Creates a new {@link Snapshot}.
+     *
+     * @param content The decoded content.
+     * @param lastModified File's last modified date at read time.
+     */
+    public Snapshot(final String content, final long lastModified) {
+      this.content = content;
+      this.lastModified = lastModified;
+    }
+  }
+
+  /**
+   * The file's name.
+   */
+  private final String filename;
+
+  /**
+   * The file. Required.
+   */
+  private final File file;
+
+  /**
+   * The file's charset.
+   */
+  private final Charset charset;
+
+  /**
+   * The last content read or <code>null</code>.
+   */
+  private volatile Snapshot snapshot;
+
+  /**
+   * The last modified date at creation time.
+   */
+  private final long lastModified;
+
+  /**
+   * Creates a new {@link FileTemplateSource}.
+   *
+   * @param filename The file's name. Required.
+   * @param file The file. Required.
+   * @param charset The file's charset. Required.
+   */
+  public FileTemplateSource(final String filename, final File file, final Charset charset) {
+    this.filename = notEmpty(filename, "The filename is required.");
+    this.file = notNull(file, "The file is required.");
+    this.charset = notNull(charset, "The charset is required.");
+    this.lastModified = file.lastModified();
+  }
+
+  /**
+   * Creates a new {@link FileTemplateSource} for a UTF-8 file.
+   *
+   * @param filename The file's name. Required.
+   * @param file The file. Required.
+   */
+  public FileTemplateSource(final String filename, final File file) {
+    this(filename, file, Charset.forName("UTF-8"));
+  }
+
+  @Override
+  public String content() throws IOException {
+    long modified = file.lastModified();
+    Snapshot current = snapshot;
+    if (current != null && current.lastModified == modified) {
+      return current.content;
+    }
+    if (modified == 0L && !file.isFile()) {
+      snapshot = null;
+      throw new FileNotFoundException(file.getPath());
+    }
+    String content = read();
+    snapshot = new Snapshot(content, modified);
+    return content;
+  }
+
+  /**
+   * Read and decode the file.
+   *
+   * @return The file's content.
+   * @throws IOException If the file can't be read.
+   */
+  private String read() throws IOException {
+    FileInputStream in = new FileInputStream(file);
+    try {
+      // files aren't memory-mapped: a mapping isn't released until GC and it locks the file on
+      // some platforms (no more edits)
+      FileChannel channel = in.getChannel();
+      ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+        // keep reading
+        continue;
+      }
+      buffer.flip();
+      return charset.decode(buffer).toString();
+    } finally {
+      in.close();
+    }
+  }
+
+  @Override
+  public String filename() {
+    return filename;
+  }
+
+  @Override
+  public long lastModified() {
+    return lastModified;
+  }
+
+  /**
+   * The file behind this source.
+   *
+   * @return The file behind this source.
+   */
+  public File getFile() {
+    return file;
+  }
+
+}
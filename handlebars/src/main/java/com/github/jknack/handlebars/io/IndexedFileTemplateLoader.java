@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.io;
+
+import static org.apache.commons.lang3.Validate.notEmpty;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * A {@link FileTemplateLoader} that keeps an index of template files and reuses their
+ * {@link FileTemplateSource} (and so their content).
+ * </p>
+ * <p>
+ * When changes are reported by a file watcher (see
+ * <code>FileWatchTemplateCache#with(IndexedFileTemplateLoader)</code>)
+ * the index is built from a directory listing on first use and kept up to date by the watcher:
+ * lookups (hits and misses) never touch the file system.
+ * </p>
+ * <p>
+ * Otherwise, a location is resolved against the file system once and the source is reused until
+ * the file's last modified date changes. Missing locations aren't cached, so new files are picked
+ * up.
+ * </p>
+ *
+ * <pre>
+ *   IndexedFileTemplateLoader loader = new IndexedFileTemplateLoader(basedir);
+ *   FileWatchTemplateCache cache = new FileWatchTemplateCache(basedir).with(loader);
+ *   Handlebars handlebars = new Handlebars(loader).with(cache);
+ * </pre>
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public class IndexedFileTemplateLoader extends FileTemplateLoader {
+
+  /**
+   * Template sources by location or <code>null</code>. Always replaced by a fully built index,
+   * never cleared, so lookups don't see a half built index.
+   */
+  private volatile ConcurrentMap<String, FileTemplateSource> index;
+
+  /**
+   * The charset of template files.
+   */
+  private final Charset charset;
+
+  /**
+   * True, if changes are reported by a file watcher.
+   */
+  private volatile boolean watched;
+
+  /**
+   * Creates a new {@link IndexedFileTemplateLoader}.
+   *
+   * @param basedir The base directory. Required.
+   * @param suffix The view suffix. Required.
+   * @param charset The charset of template files. Required.
+   */
+  public IndexedFileTemplateLoader(final File basedir, final String suffix,
+      final Charset charset) {
+    super(basedir, suffix);
+    this.charset = notNull(charset, "The charset is required.");
+  }
+
+  /**
+   * Creates a new {@link IndexedFileTemplateLoader} for UTF-8 files.
+   *
+   * @param basedir The base directory. Required.
+   * @param suffix The view suffix. Required.
+   */
+  public IndexedFileTemplateLoader(final File basedir, final String suffix) {
+    this(basedir, suffix, Charset.forName("UTF-8"));
+  }
+
+  /**
+   * Creates a new {@link IndexedFileTemplateLoader} for UTF-8 files.
+   *
+   * @param basedir The base directory. Required.
+   */
+  public IndexedFileTemplateLoader(final File basedir) {
+    this(basedir, DEFAULT_SUFFIX);
+  }
+
+  /**
+   * Creates a new {@link IndexedFileTemplateLoader}.
+   *
+   * @param basedir The base directory. Required.
+   * @param suffix The view suffix. Required.
+   * @param charset The charset of template files. Required.
+   */
+  public IndexedFileTemplateLoader(final String basedir, final String suffix,
+      final Charset charset) {
+    super(basedir, suffix);
+    this.charset = notNull(charset, "The charset is required.");
+  }
+
+  /**
+   * Creates a new {@link IndexedFileTemplateLoader} for UTF-8 files.
+   *
+   * @param basedir The base directory. Required.
+   * @param suffix The view suffix. Required.
+   */
+  public IndexedFileTemplateLoader(final String basedir, final String suffix) {
+    this(basedir, suffix, Charset.forName("UTF-8"));
+  }
+
+  /**
+   * Creates a new {@link IndexedFileTemplateLoader} for UTF-8 files.
+   *
+   * @param basedir The base directory. Required.
+   */
+  public IndexedFileTemplateLoader(final String basedir) {
+    this(basedir, DEFAULT_SUFFIX);
+  }
+
+  @Override
+  public TemplateSource lookup(final String uri) {
+    notEmpty(uri, "The uri is required.");
+    String location = resolve(normalize(uri));
+    if (watched) {
+      return index(true).get(location);
+    }
+    ConcurrentMap<String, FileTemplateSource> sources = index(false);
+    FileTemplateSource source = sources.get(location);
+    if (source != null) {
+      long modified = source.getFile().lastModified();
+      if (modified != 0L && modified == source.lastModified()) {
+        return source;
+      }
+    }
+    File file = new File(location);
+    if (!file.isFile()) {
+      sources.remove(location);
+      return null;
+    }
+    source = new FileTemplateSource(location, file, charset);
+    sources.put(location, source);
+    return source;
+  }
+
+  /**
+   * Set to true when changes are reported by a file watcher via {@link #changed(File)}, so
+   * lookups are served from a directory listing. Default is: false.
+   *
+   * @param watched True, if changes are reported by a file watcher.
+   */
+  public void setWatched(final boolean watched) {
+    this.watched = watched;
+    clear();
+  }
+
+  /**
+   * Update the index for a created, modified or deleted file or directory.
+   *
+   * @param file A changed file or directory.
+   */
+  public synchronized void changed(final File file) {
+    String location = location(file);
+    ConcurrentMap<String, FileTemplateSource> sources = index;
+    if (location == null || sources == null) {
+      // not a template of this loader or nothing indexed yet
+      return;
+    }
+    if (file.isDirectory()) {
+      list(sources, file, location + "/");
+    } else if (file.isFile()) {
+      if (location.endsWith(getSuffix())) {
+        sources.put(location, new FileTemplateSource(location, file, charset));
+      }
+    } else {
+      // deleted file or directory
+      String dir = location + "/";
+      for (String candidate : sources.keySet()) {
+        if (candidate.equals(location) || candidate.startsWith(dir)) {
+          sources.remove(candidate);
+        }
+      }
+    }
+  }
+
+  /**
+   * Forget about all the locations resolved so far. The directory listing (if any) is built again
+   * on next use.
+   */
+  public synchronized void clear() {
+    index = null;
+  }
+
+  /**
+   * Get the index, build it if needed.
+   *
+   * @param listing True, to build the index from a directory listing.
+   * @return The index.
+   */
+  private ConcurrentMap<String, FileTemplateSource> index(final boolean listing) {
+    ConcurrentMap<String, FileTemplateSource> current = index;
+    return current == null ? newIndex(listing) : current;
+  }
+
+  /**
+   * Build the index, unless another thread did it.
+   *
+   * @param listing True, to build the index from a directory listing.
+   * @return The index.
+   */
+  private synchronized ConcurrentMap<String, FileTemplateSource> newIndex(
+      final boolean listing) {
+    if (index == null) {
+      ConcurrentMap<String, FileTemplateSource> sources =
+          new ConcurrentHashMap<String, FileTemplateSource>();
+      if (listing) {
+        list(sources, new File(getPrefix()), getPrefix());
+      }
+      // publish a fully built index
+      index = sources;
+    }
+    return index;
+  }
+
+  /**
+   * Add the template files found under a directory.
+   *
+   * @param sources Where to add the template sources.
+   * @param dir The directory.
+   * @param location The directory's location, ending with <code>/</code>.
+   */
+  private void list(final Map<String, FileTemplateSource> sources, final File dir,
+      final String location) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      String childLocation = location + child.getName();
+      if (child.isDirectory()) {
+        list(sources, child, childLocation + "/");
+      } else if (childLocation.endsWith(getSuffix())) {
+        sources.put(childLocation, new FileTemplateSource(childLocation, child, charset));
+      }
+    }
+  }
+
+  /**
+   * Find the location of a file under the base directory.
+   *
+   * @param file A file.
+   * @return The file's location or <code>null</code> if the file isn't under the base directory.
+   */
+  private String location(final File file) {
+    String basedir = new File(getPrefix()).getAbsolutePath();
+    String path = file.getAbsolutePath();
+    if (!path.startsWith(basedir + File.separator)) {
+      return null;
+    }
+    return getPrefix() + path.substring(basedir.length() + 1).replace(File.separatorChar, '/');
+  }
+
+}
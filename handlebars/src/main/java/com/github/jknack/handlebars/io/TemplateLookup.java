@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars.io;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * Optional contract for a {@link TemplateLoader} able to report a missing template without
+ * throwing an exception, so it can be probed cheaply (like {@link CompositeTemplateLoader} does
+ * with its delegates).
+ * </p>
+ * <p>
+ * Loaders not implementing this interface are probed with {@link TemplateLoader#sourceAt(String)}.
+ * </p>
+ *
+ * @author edgar.espina
+ * @since 2.2.3
+ */
+public interface TemplateLookup {
+
+  /**
+   * Get a template source from location. Like {@link TemplateLoader#sourceAt(String)} but a
+   * missing template is reported as <code>null</code> instead of an exception.
+   *
+   * @param location The location of the template source. Required.
+   * @return A new template source or <code>null</code> if the template doesn't exist.
+   * @throws IOException If the template's source can't be resolved.
+   */
+  TemplateSource lookup(String location) throws IOException;
+
+}
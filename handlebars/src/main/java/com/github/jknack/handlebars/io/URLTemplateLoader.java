@@ -59,15 +59,58 @@ import java.net.URL;
  * @author edgar.espina
  * @since 0.1.0
  */
-public abstract class URLTemplateLoader extends AbstractTemplateLoader {
+public abstract class URLTemplateLoader extends AbstractTemplateLoader
+    implements TemplateLookup {
+
+  /**
+   * True, if a subclass overrides {@link #sourceAt(String)}. Lookups must go through it then.
+   */
+  private final boolean customSourceAt = overridesSourceAt(getClass());
 
   @Override
   public TemplateSource sourceAt(final String uri) throws IOException {
+    // a custom sourceAt calling super must not end up calling itself via lookup
+    TemplateSource source = customSourceAt ? find(uri) : lookup(uri);
+    if (source == null) {
+      throw new FileNotFoundException(resolve(normalize(uri)));
+    }
+    return source;
+  }
+
+  /**
+   * Get a template source from location, <code>null</code> if the template doesn't exist.
+   * Subclasses overriding {@link #sourceAt(String)} (and not this method) are supported: the
+   * lookup goes through their {@link #sourceAt(String)}.
+   *
+   * @param uri The location of the template source. Required.
+   * @return A new template source or <code>null</code>.
+   * @throws IOException If the template's source can't be resolved.
+   */
+  @Override
+  public TemplateSource lookup(final String uri) throws IOException {
+    if (customSourceAt) {
+      try {
+        return sourceAt(uri);
+      } catch (FileNotFoundException ex) {
+        return null;
+      }
+    }
+    return find(uri);
+  }
+
+  /**
+   * Find a template source using {@link #getResource(String)}.
+   *
+   * @param uri The location of the template source. Required.
+   * @return A new template source or <code>null</code>.
+   * @throws IOException If the url can't be resolved.
+   */
+  private TemplateSource find(final String uri) throws IOException {
     notEmpty(uri, "The uri is required.");
     String location = resolve(normalize(uri));
     URL resource = getResource(location);
     if (resource == null) {
-      throw new FileNotFoundException(location);
+      return null;
     }
     return new URLTemplateSource(location, resource);
   }
@@ -81,4 +124,24 @@ public abstract class URLTemplateLoader extends AbstractTemplateLoader {
    */
   protected abstract URL getResource(String location) throws IOException;
 
+  /**
+   * True, if the given loader type overrides {@link #sourceAt(String)}.
+   *
+   * @param loaderType The loader type.
+   * @return True, if the given loader type overrides {@link #sourceAt(String)}.
+   */
+  private static boolean overridesSourceAt(final Class<?> loaderType) {
+    for (Class<?> type = loaderType; type != URLTemplateLoader.class;
+        type = type.getSuperclass()) {
+      try {
+        type.getDeclaredMethod("sourceAt", String.class);
+        return true;
+      } catch (NoSuchMethodException ex) {
+        // keep looking
+        continue;
+      }
+    }
+    return false;
+  }
+
 }
@@ -54,6 +54,31 @@ public class ArrayTest extends AbstractTest {
     shouldCompileTo("Hello {{#each list}}{{this}}{{/each}}!", hash, "Hello world!");
   }
 
+  @Test
+  public void eachPrimitiveArray() throws IOException {
+    shouldCompileTo("{{#each list}}{{@index}}:{{this}}{{#if @last}}.{{else}},{{/if}}{{/each}}",
+        $("list", new int[]{3, 2, 1 }), "0:3,1:2,2:1.");
+    shouldCompileTo("{{#each list}}{{this}}{{/each}}", $("list", new long[]{1L, 2L }), "12");
+    shouldCompileTo("{{#each list}}{{this}}{{/each}}", $("list", new char[]{'o', 'k' }), "ok");
+    shouldCompileTo("{{#each list}}{{this}} {{/each}}",
+        $("list", new boolean[]{true, false }), "true false ");
+    shouldCompileTo("{{#each list}}{{this}}{{else}}empty{{/each}}", $("list", new double[0]),
+        "empty");
+  }
+
+  @Test
+  public void eachLargeArray() throws IOException {
+    int[] array = new int[2000];
+    assertEquals("1999:2000",
+        compile("{{#each this}}{{#if @last}}{{@index}}:{{@index_1}}{{/if}}{{/each}}")
+            .apply(array));
+  }
+
+  @Test
+  public void primitiveArraySection() throws IOException {
+    shouldCompileTo("{{#list}}{{this}}{{/list}}", $("list", new byte[]{1, 2, 3 }), "123");
+  }
+
   @Test
   public void letterArray() throws IOException {
     Hash hash = $("list", new Letter[]{new Letter('w'), new Letter('o'),
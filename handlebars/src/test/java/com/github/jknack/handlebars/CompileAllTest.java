@@ -0,0 +1,126 @@
+package com.github.jknack.handlebars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.jknack.handlebars.cache.ConcurrentMapTemplateCache;
+import com.github.jknack.handlebars.io.FileTemplateLoader;
+import com.github.jknack.handlebars.io.StringTemplateSource;
+import com.github.jknack.handlebars.io.TemplateSource;
+
+public class CompileAllTest {
+
+  private ExecutorService executor;
+
+  private File basedir;
+
+  @Before
+  public void setup() throws IOException {
+    executor = Executors.newFixedThreadPool(4);
+    basedir = File.createTempFile("hbs", "bulk");
+    basedir.delete();
+    basedir.mkdirs();
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    executor.shutdownNow();
+    FileUtils.deleteDirectory(basedir);
+  }
+
+  @Test
+  public void compileAll() throws IOException {
+    Handlebars handlebars = new Handlebars().with(new ConcurrentMapTemplateCache());
+    List<TemplateSource> sources = new ArrayList<TemplateSource>();
+    for (int i = 0; i < 50; i++) {
+      sources.add(new StringTemplateSource("t" + i, "{{this}}" + i));
+    }
+    sources.add(new StringTemplateSource("bad", "{{#this}}"));
+
+    List<CompileResult> results = handlebars.compileAll(sources, executor);
+
+    assertEquals(51, results.size());
+    for (int i = 0; i < 50; i++) {
+      CompileResult result = results.get(i);
+      assertFalse(result.failed());
+      assertEquals("t" + i, result.source().filename());
+      assertEquals("x" + i, result.template().apply("x"));
+      assertTrue(result.template() == handlebars.compile(sources.get(i)));
+    }
+    CompileResult bad = results.get(50);
+    assertTrue(bad.failed());
+    assertNull(bad.template());
+    assertTrue(bad.error() instanceof HandlebarsException);
+  }
+
+  @Test
+  public void errorsAreReported() throws IOException {
+    Handlebars handlebars = new Handlebars();
+    TemplateSource deep = new StringTemplateSource("deep", "{{this}}") {
+      @Override
+      public String content() {
+        throw new StackOverflowError();
+      }
+    };
+
+    List<CompileResult> results = handlebars.compileAll(
+        Arrays.asList(deep, new StringTemplateSource("main", "main")), executor);
+
+    assertEquals(2, results.size());
+    assertTrue(results.get(0).failed());
+    assertTrue(results.get(0).error() instanceof StackOverflowError);
+    assertEquals("main", results.get(1).template().apply(null));
+  }
+
+  @Test
+  public void duplicatedSources() throws IOException {
+    Handlebars handlebars = new Handlebars();
+    TemplateSource partial = new StringTemplateSource("partial", "{{this}}");
+
+    List<CompileResult> results = handlebars.compileAll(
+        Arrays.asList(partial, new StringTemplateSource("main", "main"), partial), executor);
+
+    assertEquals(3, results.size());
+    assertTrue(results.get(0) == results.get(2));
+  }
+
+  @Test
+  public void compileAllWithGlob() throws IOException {
+    write("acme/home.hbs", "acme {{this}}");
+    write("acme/partials/header.hbs", "{{#this}}");
+    write("acme/notes.txt", "ignored");
+    write("other/home.hbs", "other");
+    Handlebars handlebars = new Handlebars().with(new ConcurrentMapTemplateCache());
+
+    List<CompileResult> results = handlebars
+        .compileAll(new FileTemplateLoader(basedir), "acme/**", executor);
+
+    assertEquals(2, results.size());
+    assertEquals("acme x", results.get(0).template().apply("x"));
+    assertTrue(results.get(1).failed());
+
+    assertEquals(2, handlebars
+        .compileAll(new FileTemplateLoader(basedir), "*/home", executor).size());
+    assertEquals(0, handlebars
+        .compileAll(new FileTemplateLoader(basedir), "home", executor).size());
+  }
+
+  private void write(final String name, final String content) throws IOException {
+    FileUtils.writeStringToFile(new File(basedir, name), content, "UTF-8");
+  }
+}
@@ -23,7 +23,9 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 
+import org.junit.Assume;
 import org.junit.Test;
 
 import com.github.jknack.handlebars.helper.StringHelpers;
@@ -99,6 +101,53 @@ public class DateFormatTest extends AbstractTest {
     shouldCompileTo("{{dateFormat this \"short\" \"fr\"}}", date, expected);
   }
 
+  @Test
+  public void timeZone() throws IOException {
+    Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    calendar.clear();
+    calendar.set(2012, Calendar.JUNE, 19, 23, 30);
+    Date date = calendar.getTime();
+    // cached formatters must not leak the time zone between calls
+    for (int i = 0; i < 2; i++) {
+      shouldCompileTo("{{dateFormat this \"yyyy-MM-dd HH:mm\" tz=\"GMT\"}}", date,
+          "2012-06-19 23:30");
+      shouldCompileTo("{{dateFormat this \"yyyy-MM-dd HH:mm\" tz=\"GMT+02:00\"}}", date,
+          "2012-06-20 01:30");
+    }
+  }
+
+  @Test
+  public void javaTime() throws Exception {
+    Class<?> localDate = javaTime("LocalDate");
+    Assume.assumeTrue(localDate != null);
+    Object value = localDate.getMethod("of", int.class, int.class, int.class)
+        .invoke(null, 2012, 6, 19);
+    shouldCompileTo("{{dateFormat this \"dd/MM/yyyy\"}}", value, "19/06/2012");
+    shouldCompileTo("{{dateFormat this \"dd/MM/yyyy HH:mm\" tz=\"GMT+05:00\"}}", value,
+        "19/06/2012 00:00");
+
+    Object zone = javaTime("ZoneId").getMethod("of", String.class).invoke(null, "GMT+02:00");
+    Object zoned = javaTime("ZonedDateTime")
+        .getMethod("of", int.class, int.class, int.class, int.class, int.class, int.class,
+            int.class, javaTime("ZoneId"))
+        .invoke(null, 2012, 6, 19, 23, 30, 0, 0, zone);
+    shouldCompileTo("{{dateFormat this \"yyyy-MM-dd HH:mm\"}}", zoned, "2012-06-19 23:30");
+    shouldCompileTo("{{dateFormat this \"yyyy-MM-dd HH:mm\" tz=\"GMT\"}}", zoned,
+        "2012-06-19 21:30");
+
+    Object instant = zoned.getClass().getMethod("toInstant").invoke(zoned);
+    shouldCompileTo("{{dateFormat this \"yyyy-MM-dd HH:mm\" tz=\"GMT\"}}", instant,
+        "2012-06-19 21:30");
+  }
+
+  private static Class<?> javaTime(final String name) {
+    try {
+      return Class.forName("java.time." + name);
+    } catch (ClassNotFoundException ex) {
+      return null;
+    }
+  }
+
   public static Date date(final int day, final int month, final int year) {
     Calendar calendar = Calendar.getInstance();
     calendar.set(Calendar.DATE, day);
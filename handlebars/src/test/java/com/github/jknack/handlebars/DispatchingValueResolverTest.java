@@ -0,0 +1,143 @@
+package com.github.jknack.handlebars;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import com.github.jknack.handlebars.context.DispatchingValueResolver;
+import com.github.jknack.handlebars.context.FieldValueResolver;
+import com.github.jknack.handlebars.context.JavaBeanValueResolver;
+import com.github.jknack.handlebars.context.MapValueResolver;
+import com.github.jknack.handlebars.context.MemberValueResolver;
+
+public class DispatchingValueResolverTest {
+
+  public static class Bean {
+    public String name = "field";
+
+    public String getName() {
+      return "getter";
+    }
+
+    public String getTitle() {
+      return "title";
+    }
+  }
+
+  static class CountingResolver implements ValueResolver {
+    int calls;
+
+    @Override
+    public Object resolve(final Object context, final String name) {
+      calls++;
+      return UNRESOLVED;
+    }
+
+    @Override
+    public Object resolve(final Object context) {
+      return UNRESOLVED;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> propertySet(final Object context) {
+      return Collections.emptySet();
+    }
+  }
+
+  static class CountingMemberResolver extends MemberValueResolver<Method> {
+    int calls;
+
+    @Override
+    protected Object invokeMember(final Method member, final Object context) {
+      calls++;
+      return UNRESOLVED;
+    }
+
+    @Override
+    public boolean matches(final Method member, final String name) {
+      return member.getName().equals("get" + StringUtils.capitalize(name));
+    }
+
+    @Override
+    protected Set<Method> members(final Class<?> clazz) {
+      return new LinkedHashSet<Method>(Arrays.asList(clazz.getMethods()));
+    }
+
+    @Override
+    protected String memberName(final Method member) {
+      return member.getName();
+    }
+  }
+
+  @Test
+  public void fixedMissesAreSkipped() {
+    CountingMemberResolver counting = new CountingMemberResolver();
+    ValueResolver resolver = new DispatchingValueResolver(counting,
+        JavaBeanValueResolver.INSTANCE);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals("title", resolver.resolve(new Bean(), "title"));
+    }
+
+    assertEquals(1, counting.calls);
+  }
+
+  @Test
+  public void resolveInOrder() {
+    ValueResolver resolver = new DispatchingValueResolver(MapValueResolver.INSTANCE,
+        FieldValueResolver.INSTANCE, JavaBeanValueResolver.INSTANCE);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals("field", resolver.resolve(new Bean(), "name"));
+      assertEquals("title", resolver.resolve(new Bean(), "title"));
+      assertEquals(ValueResolver.UNRESOLVED, resolver.resolve(new Bean(), "missing"));
+    }
+  }
+
+  @Test
+  public void mapKeysAreNeverSkipped() {
+    ValueResolver resolver = new DispatchingValueResolver(ValueResolver.VALUE_RESOLVERS);
+
+    Map<String, Object> map = new HashMap<String, Object>();
+    assertEquals(true, resolver.resolve(map, "empty"));
+
+    map.put("empty", "value");
+    assertEquals("value", resolver.resolve(map, "empty"));
+  }
+
+  @Test
+  public void customResolversAreAlwaysAsked() {
+    CountingResolver counting = new CountingResolver();
+    ValueResolver resolver = new DispatchingValueResolver(counting,
+        JavaBeanValueResolver.INSTANCE);
+
+    resolver.resolve(new Bean(), "title");
+    resolver.resolve(new Bean(), "title");
+
+    assertEquals(2, counting.calls);
+  }
+
+  @Test
+  public void apply() throws IOException {
+    ValueResolver resolver = new DispatchingValueResolver(ValueResolver.VALUE_RESOLVERS);
+    Template template = new Handlebars().compileInline("{{name}} {{title}} {{#each list}}{{.}}{{/each}}");
+    Map<String, Object> model = new HashMap<String, Object>();
+    model.put("list", new String[]{"a", "b" });
+
+    for (Object context : new Object[]{new Bean(), model, new Bean() }) {
+      String expected = context == model ? "  ab" : "getter title ";
+      assertEquals(expected, template.apply(Context.newBuilder(context).resolver(resolver).build()));
+    }
+  }
+}
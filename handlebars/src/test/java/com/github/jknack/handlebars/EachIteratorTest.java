@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2012-2013 Edgar Espina
+ *
+ * This file is part of Handlebars.java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jknack.handlebars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Vector;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.github.jknack.handlebars.helper.EachHelper;
+
+public class EachIteratorTest extends AbstractTest {
+
+  /**
+   * A cursor who verifies the previous row was written before the next one is pulled.
+   */
+  private static class Cursor implements Iterator<Object>, Closeable {
+
+    private StringWriter writer;
+
+    private int rows;
+
+    private int index;
+
+    private boolean closed;
+
+    public Cursor(final StringWriter writer, final int rows) {
+      this.writer = writer;
+      this.rows = rows;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < rows;
+    }
+
+    @Override
+    public Object next() {
+      assertEquals(index * 2, writer.getBuffer().length());
+      return index++;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+    }
+  }
+
+  @Test
+  public void eachIterator() throws IOException {
+    shouldCompileTo("{{#each this}}{{@index}}:{{this}}{{#if @last}}.{{else}},{{/if}}{{/each}}",
+        Arrays.asList("a", "b", "c").iterator(), "0:a,1:b,2:c.");
+  }
+
+  @Test
+  public void emptyIterator() throws IOException {
+    shouldCompileTo("{{#each this}}{{this}}{{else}}empty{{/each}}",
+        Collections.emptyList().iterator(), "empty");
+    shouldCompileTo("{{^list}}empty{{/list}}", $("list", Collections.emptyList().iterator()),
+        "empty");
+  }
+
+  @Test
+  public void iteratorSection() throws IOException {
+    shouldCompileTo("{{#list}}{{this}}{{/list}}", $("list", Arrays.asList(1, 2, 3).iterator()),
+        "123");
+  }
+
+  @Test
+  public void eachEnumeration() throws IOException {
+    shouldCompileTo("{{#each this}}{{this}}{{/each}}",
+        new Vector<String>(Arrays.asList("a", "b")).elements(), "ab");
+  }
+
+  @Test
+  public void streamRowByRow() throws IOException {
+    StringWriter writer = new StringWriter();
+    Cursor cursor = new Cursor(writer, 5);
+    compile("{{#each this}}{{this}};{{/each}}").apply(cursor, writer);
+    assertEquals("0;1;2;3;4;", writer.toString());
+    assertTrue(cursor.closed);
+  }
+
+  @Test
+  public void bufferInsideHelper() throws IOException {
+    shouldCompileTo("{{#each this}}{{this}}{{/each}}",
+        Arrays.asList("a", "b").iterator(), "ab");
+    Hash helpers = $("wrap", new Helper<Object>() {
+      @Override
+      public CharSequence apply(final Object context, final Options options) throws IOException {
+        return "[" + options.fn() + "]";
+      }
+    });
+    shouldCompileTo("{{#wrap}}{{#each this}}{{this}}{{/each}}{{/wrap}}",
+        Arrays.asList("a", "b").iterator(), helpers, "[ab]");
+  }
+
+  @Test
+  public void helperDelegatingToEach() throws IOException {
+    Hash helpers = $("upperEach", new Helper<Object>() {
+      @Override
+      public CharSequence apply(final Object context, final Options options) throws IOException {
+        return EachHelper.INSTANCE.apply(context, options).toString().toUpperCase();
+      }
+    });
+    String template = "<{{#upperEach list}}{{this}}{{/upperEach}}>";
+    shouldCompileTo(template, $("list", Arrays.asList("a", "b")), helpers, "<AB>");
+    shouldCompileTo(template, $("list", new LinkedHashSet<String>(Arrays.asList("a", "b"))),
+        helpers, "<AB>");
+    shouldCompileTo(template, $("list", $("x", "a", "y", "b")), helpers, "<AB>");
+    shouldCompileTo(template, $("list", new String[]{"a", "b" }), helpers, "<AB>");
+  }
+
+  @Test
+  public void streamIsClosed() throws Exception {
+    final int[] closed = {0 };
+    Runnable onClose = new Runnable() {
+      @Override
+      public void run() {
+        closed[0] += 1;
+      }
+    };
+    Hash helpers = $("first", new Helper<Iterator<Object>>() {
+      @Override
+      public CharSequence apply(final Iterator<Object> context, final Options options)
+          throws IOException {
+        return options.fn(context.next());
+      }
+    });
+
+    shouldCompileTo("{{#if list}}yes{{/if}}", $("list", stream(onClose, "a", "b")), "yes");
+    assertEquals(1, closed[0]);
+
+    shouldCompileTo("{{#first list}}{{this}}{{/first}}", $("list", stream(onClose, "a", "b")),
+        helpers, "a");
+    assertEquals(2, closed[0]);
+
+    shouldCompileTo("{{#each list}}{{this}}{{/each}}", $("list", stream(onClose, "a", "b")), "ab");
+    assertEquals(3, closed[0]);
+  }
+
+  /**
+   * Creates a Java 8 stream, the test is skipped on older versions (sources are compiled as 1.6).
+   */
+  private static Object stream(final Runnable onClose, final Object... values) throws Exception {
+    Class<?> baseStream;
+    try {
+      baseStream = Class.forName("java.util.stream.BaseStream");
+    } catch (ClassNotFoundException ex) {
+      Assume.assumeNoException(ex);
+      return null;
+    }
+    Object stream = Arrays.class.getMethod("stream", Object[].class).invoke(null,
+        (Object) values);
+    return baseStream.getMethod("onClose", Runnable.class).invoke(stream, onClose);
+  }
+}
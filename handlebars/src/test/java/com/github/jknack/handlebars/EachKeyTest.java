@@ -17,14 +17,19 @@
  */
 package com.github.jknack.handlebars;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.junit.Test;
 
+import com.github.jknack.handlebars.context.MapValueResolver;
+
 public class EachKeyTest extends AbstractTest {
 
   public static class Blog {
@@ -79,4 +84,35 @@ public class EachKeyTest extends AbstractTest {
     shouldCompileTo("{{#each this}}{{@key}}: {{this}} {{/each}}", hash,
         "body: ... title: Handlebars.java ");
   }
+
+  @Test
+  public void eachKeyWithHashUsesValueResolvers() throws IOException {
+    Map<String, Object> hash = new LinkedHashMap<String, Object>();
+    hash.put("body", "...");
+    hash.put("title", "Handlebars.java");
+    ValueResolver upperKeys = new ValueResolver() {
+      @Override
+      public Object resolve(final Object context, final String name) {
+        return MapValueResolver.INSTANCE.resolve(context, name);
+      }
+
+      @Override
+      public Object resolve(final Object context) {
+        return UNRESOLVED;
+      }
+
+      @Override
+      public Set<Entry<String, Object>> propertySet(final Object context) {
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        for (Entry<String, Object> entry : MapValueResolver.INSTANCE.propertySet(context)) {
+          properties.put(entry.getKey().toUpperCase(), entry.getValue());
+        }
+        return properties.entrySet();
+      }
+    };
+
+    assertEquals("BODY: ... TITLE: Handlebars.java ",
+        compile("{{#each this}}{{@key}}: {{this}} {{/each}}")
+            .apply(Context.newBuilder(hash).resolver(upperKeys).build()));
+  }
 }
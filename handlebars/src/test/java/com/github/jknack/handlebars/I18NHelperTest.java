@@ -3,10 +3,14 @@ package com.github.jknack.handlebars;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.ComparisonFailure;
 import org.junit.Test;
 
+import com.github.jknack.handlebars.helper.I18nHelper;
+
 public class I18NHelperTest extends AbstractTest {
 
   @Test
@@ -76,4 +80,72 @@ public class I18NHelperTest extends AbstractTest {
       assertEquals(expectedJava18, result);
     }
   }
+
+  @Test
+  public void cachedMessages() throws IOException {
+    Template template = compile("{{i18n \"hello\"}} {{i18n \"formatted\" name}}"
+        + " {{i18n \"hello\" locale=\"es_AR\"}}");
+    for (int i = 0; i < 3; i++) {
+      assertEquals("Hi Hi " + i + " Hola", template.apply($("name", i)));
+    }
+    I18nHelper.i18n.reload();
+    assertEquals("Hi Hi x Hola", template.apply($("name", "x")));
+  }
+
+  @Test
+  public void concurrentFormattedMsg() throws Exception {
+    final Template template = compile("{{i18n \"formatted\" name}}");
+    final List<String> errors = new ArrayList<String>();
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < 8; t++) {
+      final String name = "t" + t;
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 0; i < 500; i++) {
+              String result = template.apply($("name", name));
+              if (!("Hi " + name).equals(result)) {
+                synchronized (errors) {
+                  errors.add(result);
+                }
+              }
+            }
+          } catch (IOException ex) {
+            synchronized (errors) {
+              errors.add(ex.getMessage());
+            }
+          }
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(new ArrayList<String>(), errors);
+  }
+
+  @Test
+  public void i18nJsVersion() throws IOException {
+    String js = compile("{{i18nJs \"es_AR\" wrap=false}}").apply(null);
+    String version = compile("{{i18nJs \"es_AR\" version=true}}").apply(null);
+    assertEquals(32, version.length());
+    assertEquals(version, compile("{{i18nJs \"es_AR\" version=true wrap=false}}").apply(null));
+    assertEquals("<script type='text/javascript'>\n" + js + "</script>\n",
+        compile("{{i18nJs \"es_AR\"}}").apply(null));
+
+    I18nHelper.i18nJs.reload();
+    assertEquals(js, compile("{{i18nJs \"es_AR\" wrap=false}}").apply(null));
+    assertEquals(version, compile("{{i18nJs \"es_AR\" version=true}}").apply(null));
+  }
+
+  @Test
+  public void i18nJsVersionByBundle() throws IOException {
+    String es = compile("{{i18nJs \"es_AR\" version=true}}").apply(null);
+    String en = compile("{{i18nJs \"en_US\" version=true}}").apply(null);
+    assertEquals(false, es.equals(en));
+  }
 }
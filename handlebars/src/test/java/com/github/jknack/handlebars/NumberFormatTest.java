@@ -84,6 +84,19 @@ public class NumberFormatTest extends AbstractTest {
     shouldCompileTo("{{numberFormat this \"" + pattern + "\" \"fr\"}}", number, expected);
   }
 
+  @Test
+  public void optionsDontLeakBetweenCalls() throws IOException {
+    Number number = Math.PI;
+    String pattern = "0.000";
+    String expected = new DecimalFormat(pattern, new DecimalFormatSymbols(Locale.getDefault()))
+        .format(number);
+    DecimalFormat one = new DecimalFormat(pattern, new DecimalFormatSymbols(Locale.getDefault()));
+    one.setMaximumFractionDigits(1);
+    shouldCompileTo("{{numberFormat this \"" + pattern + "\" maximumFractionDigits=1}}", number,
+        one.format(number));
+    shouldCompileTo("{{numberFormat this \"" + pattern + "\"}}", number, expected);
+  }
+
   public static Date date(final int day, final int month, final int year) {
     Calendar calendar = Calendar.getInstance();
     calendar.set(Calendar.DATE, day);
@@ -82,6 +82,68 @@ public class ReflectiveHelperTest extends AbstractTest {
     return join(new Object[]{l, d, f, c, b, s }, ", ");
   }
 
+  @Test
+  public void numberConversions() throws IOException {
+    shouldCompileTo("{{numbers this l i d}}", $("l", 7L, "i", 3, "d", 2.0D), "7, 3, 2");
+  }
+
+  @Test
+  public void lossyNumberConversion() throws IOException {
+    try {
+      shouldCompileTo("{{numbers this l i d}}", $("l", 7L, "i", 3, "d", 2.5D), "7, 3, 2");
+      fail("A lossy conversion is expected to fail");
+    } catch (HandlebarsException ex) {
+      assertTrue(ex.getCause() instanceof IllegalArgumentException);
+    }
+  }
+
+  @Test
+  public void nullPrimitive() throws IOException {
+    shouldCompileTo("{{numbers this missing i d}}", $("i", 3, "d", 2.0D), "0, 3, 2");
+  }
+
+  public CharSequence numbers(final Object context, final int l, final long i, final Integer d) {
+    return join(new Object[]{l, i, d }, ", ");
+  }
+
+  @Test
+  public void varargs() throws IOException {
+    shouldCompileTo("{{varargs this \"-\" 1 2 3}}", $, "1-2-3");
+    shouldCompileTo("{{varargs this \"-\"}}", $, "");
+    shouldCompileTo("{{concat this \"a\" \"b\"}}", $, "ab");
+  }
+
+  @Test
+  public void singleParameterVarargs() throws IOException {
+    shouldCompileTo("{{concatAll \"a\" \"b\" \"c\"}}", $, "abc");
+    shouldCompileTo("{{concatAll \"a\"}}", $, "a");
+    shouldCompileTo("{{sum 1 2 3}}", $, "6");
+  }
+
+  public CharSequence concatAll(final Object... values) {
+    return join(values);
+  }
+
+  public CharSequence sum(final int... values) {
+    int sum = 0;
+    for (int value : values) {
+      sum += value;
+    }
+    return String.valueOf(sum);
+  }
+
+  public CharSequence varargs(final Object context, final String sep, final int... values) {
+    StringBuilder buffer = new StringBuilder();
+    for (int value : values) {
+      buffer.append(sep).append(value);
+    }
+    return buffer.length() == 0 ? "" : buffer.substring(sep.length());
+  }
+
+  public CharSequence concat(final Object context, final Object... values) {
+    return join(values);
+  }
+
   @Test
   public void testRuntimeException() throws IOException {
     try {
@@ -0,0 +1,104 @@
+package com.github.jknack.handlebars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TemplateDependenciesTest {
+
+  @Test
+  public void dependentsOf() {
+    TemplateDependencies dependencies = new TemplateDependencies();
+    dependencies.update("page", Arrays.asList("layout", "header"));
+    dependencies.update("layout", Arrays.asList("header", "footer"));
+    dependencies.update("other", Arrays.asList("footer"));
+
+    assertEquals(new LinkedHashSet<String>(Arrays.asList("page", "layout")),
+        dependencies.dependentsOf("header"));
+    assertEquals(new LinkedHashSet<String>(Arrays.asList("layout", "other", "page")),
+        dependencies.dependentsOf("footer"));
+    assertEquals(Collections.emptySet(), dependencies.dependentsOf("page"));
+  }
+
+  @Test
+  public void updateReplaceDependencies() {
+    TemplateDependencies dependencies = new TemplateDependencies();
+    dependencies.update("page", Arrays.asList("header"));
+    dependencies.update("page", Arrays.asList("footer"));
+
+    assertEquals(Collections.emptySet(), dependencies.dependentsOf("header"));
+    assertEquals(Collections.singleton("page"), dependencies.dependentsOf("footer"));
+    assertEquals(Collections.singleton("footer"), dependencies.dependenciesOf("page"));
+
+    dependencies.update("page", Collections.<String> emptyList());
+    assertEquals(Collections.emptySet(), dependencies.dependentsOf("footer"));
+  }
+
+  @Test
+  public void cycles() {
+    TemplateDependencies dependencies = new TemplateDependencies();
+    dependencies.update("a", Arrays.asList("b"));
+    dependencies.update("b", Arrays.asList("a"));
+
+    assertEquals(Collections.singleton("b"), dependencies.dependentsOf("a"));
+    assertEquals(Arrays.asList("b", "a"), dependencies.order(Arrays.asList("a", "b")));
+  }
+
+  @Test
+  public void order() {
+    TemplateDependencies dependencies = new TemplateDependencies();
+    dependencies.update("page", Arrays.asList("layout", "header"));
+    dependencies.update("layout", Arrays.asList("header", "footer"));
+
+    assertEquals(Arrays.asList("header", "footer", "layout", "page"),
+        dependencies.order(Arrays.asList("page", "layout", "header", "footer")));
+    assertEquals(Arrays.asList("layout", "page", "other"),
+        dependencies.order(Arrays.asList("page", "layout", "other")));
+
+    List<String> all = dependencies.order();
+    assertEquals(4, all.size());
+    assertTrue(all.indexOf("footer") < all.indexOf("layout"));
+    assertTrue(all.indexOf("layout") < all.indexOf("page"));
+  }
+
+  @Test
+  public void trackOnCompile() throws IOException {
+    MapTemplateLoader loader = new MapTemplateLoader()
+        .define("page", "{{#partial \"content\"}}{{> header}}{{/partial}}{{> layout}}")
+        .define("layout", "{{#block \"content\"}}{{/block}}{{embedded 'footer'}}")
+        .define("header", "header")
+        .define("footer", "footer");
+    Handlebars handlebars = new Handlebars(loader);
+    handlebars.compile("page");
+    handlebars.compile("layout");
+
+    TemplateDependencies dependencies = handlebars.dependencies();
+    assertEquals(new LinkedHashSet<String>(Arrays.asList("/header.hbs", "/layout.hbs")),
+        dependencies.dependenciesOf("/page.hbs"));
+    assertEquals(new LinkedHashSet<String>(Arrays.asList("/content.hbs", "/footer.hbs")),
+        dependencies.dependenciesOf("/layout.hbs"));
+    assertEquals(new LinkedHashSet<String>(Arrays.asList("/layout.hbs", "/page.hbs")),
+        dependencies.dependentsOf("/footer.hbs"));
+  }
+
+  @Test
+  public void inlineTemplatesAreNotTracked() throws IOException {
+    MapTemplateLoader loader = new MapTemplateLoader()
+        .define("header", "header");
+    Handlebars handlebars = new Handlebars(loader);
+    for (int i = 0; i < 10; i++) {
+      handlebars.compileInline(i + "{{> header}}{{embedded 'header'}}");
+    }
+
+    TemplateDependencies dependencies = handlebars.dependencies();
+    assertEquals(Collections.emptySet(), dependencies.dependentsOf("/header.hbs"));
+    assertEquals(Collections.emptyList(), dependencies.order());
+  }
+}
@@ -11,9 +11,23 @@ import org.junit.Test;
 import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.MapTemplateLoader;
 import com.github.jknack.handlebars.bench.Bench.Unit;
+import com.github.jknack.handlebars.internal.FastParserFactory;
 
 public class CompilationPerSecondBenchTest {
 
+  private static final String STANDALONE = "<ul>\n"
+      + "  {{#each items}}\n"
+      + "    <li>\n"
+      + "      {{#if current}}\n"
+      + "        <strong>{{name}}</strong>\n"
+      + "      {{else}}\n"
+      + "        <a href=\"{{url}}\">{{name}}</a>\n"
+      + "      {{/if}}\n"
+      + "    </li>\n"
+      + "  {{/each}}\n"
+      + "</ul>\n"
+      + "{{! comment }}\n";
+
   @Before
   public void setup() {
     Assume.assumeTrue(Boolean.valueOf(System.getProperty("run.bench")));
@@ -117,6 +131,64 @@ public class CompilationPerSecondBenchTest {
     });
   }
 
+  @Test
+  public void complexWithFastParser() throws IOException {
+    final String template =
+        "<h1>{{header}}</h1>{{#if items}}<ul>{{#each items}}{{#if current}}" +
+            "<li><strong>{{name}}</strong></li>{{^}}" +
+            "<li><a href=\"{{url}}\">{{name}}</a></li>{{/if}}" +
+            "{{/each}}</ul>{{^}}<p>The list is empty.</p>{{/if}}";
+    final Handlebars handlebars = new Handlebars().with(new FastParserFactory());
+
+    new Bench().run(new Unit() {
+
+      @Override
+      public void run() throws IOException {
+        handlebars.compileInline(template);
+      }
+
+      @Override
+      public String toString() {
+        return "fast " + compilerLabel(template);
+      }
+    });
+  }
+
+  @Test
+  public void standalone() throws IOException {
+    standalone(STANDALONE, false, "");
+  }
+
+  @Test
+  public void standaloneWithPrettyPrint() throws IOException {
+    standalone(STANDALONE, true, "prettyPrint ");
+  }
+
+  @Test
+  public void standaloneWithWhiteSpaceControl() throws IOException {
+    standalone(STANDALONE.replace("{{#", "{{~#").replace("{{/", "{{~/"), true,
+        "prettyPrint + ~ ");
+  }
+
+  private void standalone(final String template, final boolean prettyPrint,
+      final String label) throws IOException {
+    final Handlebars handlebars = new Handlebars();
+    handlebars.setPrettyPrint(prettyPrint);
+
+    new Bench().run(new Unit() {
+
+      @Override
+      public void run() throws IOException {
+        handlebars.compileInline(template);
+      }
+
+      @Override
+      public String toString() {
+        return label + compilerLabel(template);
+      }
+    });
+  }
+
   @Test
   public void recursion() throws IOException {
     final String template = "{{name}}{{#each kids}}{{>recursion}}{{/each}}";
@@ -0,0 +1,155 @@
+package com.github.jknack.handlebars.cache;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Parser;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.io.AbstractTemplateSource;
+import com.github.jknack.handlebars.io.ForwardingTemplateSource;
+import com.github.jknack.handlebars.io.StringTemplateSource;
+import com.github.jknack.handlebars.io.TemplateSource;
+
+public class BoundedTemplateCacheTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void creationWithZeroSizeMustFail() throws IOException {
+    new BoundedTemplateCache(0);
+  }
+
+  @Test
+  public void getAndReload() throws IOException {
+    BoundedTemplateCache cache = new BoundedTemplateCache();
+    TemplateSource source = new StringTemplateSource("a", "a");
+    TemplateSource reloadSource = new ForwardingTemplateSource(source) {
+      @Override
+      public long lastModified() {
+        return System.currentTimeMillis() * 7;
+      }
+    };
+
+    Template template = createMock(Template.class);
+    Template reloadTemplate = createMock(Template.class);
+
+    Parser parser = createMock(Parser.class);
+    expect(parser.parse(source)).andReturn(template);
+    expect(parser.parse(reloadSource)).andReturn(reloadTemplate);
+
+    replay(parser, template, reloadTemplate);
+
+    assertEquals(template, cache.get(source, parser));
+    assertEquals(template, cache.get(source, parser));
+    assertEquals(reloadTemplate, cache.get(reloadSource, parser));
+
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+    assertEquals(1, cache.reloadCount());
+    assertEquals(0, cache.evictionCount());
+
+    verify(parser, template, reloadTemplate);
+  }
+
+  @Test
+  public void reloadModifiedFile() throws IOException {
+    final File file = File.createTempFile("bounded", ".hbs");
+    try {
+      FileUtils.writeStringToFile(file, "v1", "UTF-8");
+      long lastModified = file.lastModified();
+      // a source reading the last modified date of the file on every call
+      TemplateSource source = new AbstractTemplateSource() {
+        @Override
+        public String filename() {
+          return file.getPath();
+        }
+
+        @Override
+        public String content() throws IOException {
+          return FileUtils.readFileToString(file, "UTF-8");
+        }
+
+        @Override
+        public long lastModified() {
+          return file.lastModified();
+        }
+      };
+      Handlebars handlebars = new Handlebars().with(new BoundedTemplateCache());
+      assertEquals("v1", handlebars.compile(source).apply(null));
+
+      FileUtils.writeStringToFile(file, "v2", "UTF-8");
+      file.setLastModified(lastModified + 2000L);
+      assertEquals("v2", handlebars.compile(source).apply(null));
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void evictLeastRecentlyUsed() throws IOException {
+    BoundedTemplateCache cache = new BoundedTemplateCache(2);
+    TemplateSource a = new StringTemplateSource("a", "a");
+    TemplateSource b = new StringTemplateSource("b", "b");
+    TemplateSource c = new StringTemplateSource("c", "c");
+
+    Template template = createMock(Template.class);
+
+    Parser parser = createMock(Parser.class);
+    expect(parser.parse(a)).andReturn(template);
+    expect(parser.parse(b)).andReturn(template);
+    expect(parser.parse(c)).andReturn(template);
+    expect(parser.parse(b)).andReturn(template);
+
+    replay(parser, template);
+
+    cache.get(a, parser);
+    cache.get(b, parser);
+    // a is now the most recently used
+    cache.get(a, parser);
+    cache.get(c, parser);
+    // b was evicted
+    cache.get(b, parser);
+
+    assertEquals(2, cache.size());
+    assertEquals(2, cache.maximumSize());
+    assertEquals(1, cache.hitCount());
+    assertEquals(4, cache.missCount());
+    assertEquals(2, cache.evictionCount());
+
+    verify(parser, template);
+  }
+
+  @Test
+  public void evictAndClear() throws IOException {
+    BoundedTemplateCache cache = new BoundedTemplateCache();
+    TemplateSource a = new StringTemplateSource("a", "a");
+    TemplateSource b = new StringTemplateSource("b", "b");
+
+    Template template = createMock(Template.class);
+
+    Parser parser = createMock(Parser.class);
+    expect(parser.parse(a)).andReturn(template).times(2);
+    expect(parser.parse(b)).andReturn(template);
+
+    replay(parser, template);
+
+    cache.get(a, parser);
+    cache.get(b, parser);
+    cache.evict(a);
+    assertEquals(1, cache.size());
+    cache.get(a, parser);
+    cache.clear();
+    assertEquals(0, cache.size());
+
+    verify(parser, template);
+  }
+}
@@ -0,0 +1,194 @@
+package com.github.jknack.handlebars.cache;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Parser;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.io.FileTemplateLoader;
+import com.github.jknack.handlebars.io.IndexedFileTemplateLoader;
+import com.github.jknack.handlebars.io.TemplateSource;
+
+public class FileWatchTemplateCacheTest {
+
+  private File basedir;
+
+  private FileWatchTemplateCache cache;
+
+  @Before
+  public void setup() throws IOException {
+    basedir = File.createTempFile("hbs", "watch");
+    basedir.delete();
+    basedir.mkdirs();
+    cache = new FileWatchTemplateCache(basedir);
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    cache.close();
+    FileUtils.deleteDirectory(basedir);
+  }
+
+  @Test
+  public void cacheHitDoesntCallLastModified() throws IOException {
+    TemplateSource source = new TemplateSource() {
+      @Override
+      public String filename() {
+        return new File(basedir, "none.hbs").getPath();
+      }
+
+      @Override
+      public String content() throws IOException {
+        return "";
+      }
+
+      @Override
+      public long lastModified() {
+        throw new UnsupportedOperationException();
+      }
+    };
+    Assume.assumeTrue(cache.isWatching());
+
+    Template template = createMock(Template.class);
+    Parser parser = createMock(Parser.class);
+    expect(parser.parse(source)).andReturn(template);
+    replay(parser, template);
+
+    assertEquals(template, cache.get(source, parser));
+    assertEquals(template, cache.get(source, parser));
+
+    verify(parser, template);
+  }
+
+  @Test
+  public void reloadOnChange() throws Exception {
+    Assume.assumeTrue(cache.isWatching());
+    File file = write("a.hbs", "Hi {{this}}!");
+    // start watching after files were created
+    cache.close();
+    cache = new FileWatchTemplateCache(basedir);
+    Handlebars handlebars = new Handlebars(new FileTemplateLoader(basedir)).with(cache);
+    assertEquals("Hi x!", handlebars.compile("a").apply("x"));
+    Template template = handlebars.compile("a");
+    assertTrue(template == handlebars.compile("a"));
+
+    write("a.hbs", "Bye {{this}}!");
+    cache.changed(file);
+    assertEquals("Bye x!", handlebars.compile("a").apply("x"));
+  }
+
+  /**
+   * Smoke test of the watch service, all the other tests report changes via
+   * {@link FileWatchTemplateCache#changed(File)}.
+   */
+  @Test
+  public void watchService() throws Exception {
+    Assume.assumeTrue(cache.isWatching());
+    write("a.hbs", "Hi {{this}}!");
+    Handlebars handlebars = new Handlebars(new FileTemplateLoader(basedir)).with(cache);
+    assertEquals("Hi x!", handlebars.compile("a").apply("x"));
+
+    write("a.hbs", "Bye {{this}}!");
+    assertEquals("Bye x!", await(handlebars, "a", "Bye x!"));
+  }
+
+  @Test
+  public void reloadOnChangeWithoutWatchService() throws Exception {
+    cache.close();
+    cache = new FileWatchTemplateCache(false, basedir);
+    assertFalse(cache.isWatching());
+    File file = write("a.hbs", "v1");
+    long lastModified = file.lastModified();
+    Handlebars handlebars = new Handlebars(new FileTemplateLoader(basedir)).with(cache);
+    assertEquals("v1", handlebars.compile("a").apply(null));
+
+    write("a.hbs", "v2");
+    file.setLastModified(lastModified + 2000L);
+    assertEquals("v2", handlebars.compile("a").apply(null));
+  }
+
+  @Test
+  public void reloadPartialOnChange() throws Exception {
+    Assume.assumeTrue(cache.isWatching());
+    new File(basedir, "partials").mkdirs();
+    write("partials/p.hbs", "{{this}}");
+    write("main.hbs", "[{{> partials/p}}]");
+    Handlebars handlebars = new Handlebars(new FileTemplateLoader(basedir)).with(cache);
+    assertEquals("[x]", handlebars.compile("main").apply("x"));
+
+    cache.changed(write("partials/p.hbs", "{{this}}{{this}}"));
+    assertEquals("[xx]", handlebars.compile("main").apply("x"));
+  }
+
+  @Test
+  public void evictDependents() throws Exception {
+    write("p.hbs", "{{this}}");
+    write("main.hbs", "[{{> p}}]");
+    write("other.hbs", "other");
+    // start watching after files were created
+    cache.close();
+    cache = new FileWatchTemplateCache(basedir);
+    Handlebars handlebars = new Handlebars(new FileTemplateLoader(basedir)).with(cache);
+    cache.with(handlebars.dependencies());
+    Template main = handlebars.compile("main");
+    Template other = handlebars.compile("other");
+
+    cache.changed(new File(basedir, "p.hbs"));
+
+    assertTrue(main != handlebars.compile("main"));
+    assertTrue(other == handlebars.compile("other"));
+  }
+
+  @Test
+  public void indexedLoader() throws Exception {
+    Assume.assumeTrue(cache.isWatching());
+    write("a.hbs", "Hi {{this}}!");
+    IndexedFileTemplateLoader loader = new IndexedFileTemplateLoader(basedir);
+    cache.with(loader);
+    Handlebars handlebars = new Handlebars(loader).with(cache);
+    assertEquals("Hi x!", handlebars.compile("a").apply("x"));
+
+    cache.changed(write("a.hbs", "Bye {{this}}!"));
+    assertEquals("Bye x!", handlebars.compile("a").apply("x"));
+
+    cache.changed(write("b.hbs", "New {{this}}!"));
+    assertEquals("New x!", handlebars.compile("b").apply("x"));
+  }
+
+  private String await(final Handlebars handlebars, final String name, final String expected)
+      throws Exception {
+    String result = null;
+    // the watcher isn't instant (polling implementations on some platforms)
+    for (int i = 0; i < 200; i++) {
+      result = handlebars.compile(name).apply("x");
+      if (expected.equals(result)) {
+        return result;
+      }
+      Thread.sleep(50L);
+    }
+    fail("Change wasn't reported, expected: " + expected + ", got: " + result);
+    return result;
+  }
+
+  private File write(final String name, final String content) throws IOException {
+    File file = new File(basedir, name);
+    FileUtils.writeStringToFile(file, content, "UTF-8");
+    return file;
+  }
+}
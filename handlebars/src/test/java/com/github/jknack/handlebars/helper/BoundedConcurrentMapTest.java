@@ -0,0 +1,31 @@
+package com.github.jknack.handlebars.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BoundedConcurrentMapTest {
+
+  @Test
+  public void evictOnceFull() {
+    BoundedConcurrentMap<String, Integer> map = new BoundedConcurrentMap<String, Integer>(3);
+    for (int i = 0; i < 10; i++) {
+      map.put("k" + i, i);
+      assertTrue(map.size() <= 3);
+    }
+    assertEquals(3, map.size());
+    assertEquals(Integer.valueOf(9), map.get("k9"));
+  }
+
+  @Test
+  public void replaceDoesNotEvict() {
+    BoundedConcurrentMap<String, Integer> map = new BoundedConcurrentMap<String, Integer>(2);
+    map.put("a", 1);
+    map.put("b", 2);
+    map.put("b", 3);
+    map.putIfAbsent("a", 4);
+    assertEquals(Integer.valueOf(1), map.get("a"));
+    assertEquals(Integer.valueOf(3), map.get("b"));
+  }
+}
@@ -0,0 +1,107 @@
+package com.github.jknack.handlebars.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.Options;
+
+public class ScopedHelperRegistryTest {
+
+  static class Constant implements Helper<Object> {
+    private String value;
+
+    public Constant(final String value) {
+      this.value = value;
+    }
+
+    @Override
+    public CharSequence apply(final Object context, final Options options) throws IOException {
+      return value;
+    }
+  }
+
+  @Test
+  public void overlay() throws IOException {
+    DefaultHelperRegistry base = new DefaultHelperRegistry();
+    base.registerHelper("greet", new Constant("base"));
+    ScopedHelperRegistry tenant = new ScopedHelperRegistry(base);
+
+    assertSame(EachHelper.INSTANCE, tenant.helper(EachHelper.NAME));
+    assertEquals("base", new Handlebars().with(tenant).compileInline("{{greet}}").apply(null));
+
+    tenant.registerHelper("greet", new Constant("tenant"));
+    assertEquals("tenant", new Handlebars().with(tenant).compileInline("{{greet}}").apply(null));
+    assertEquals("base", new Handlebars().with(base).compileInline("{{greet}}").apply(null));
+
+    tenant.registerHelper("bye", new Constant("bye"));
+    assertNull(base.helper("bye"));
+
+    int count = 0;
+    for (Entry<String, Helper<?>> helper : tenant.helpers()) {
+      if (helper.getKey().equals("greet")) {
+        assertEquals("tenant", helper.getValue().apply(null, null));
+      }
+      count++;
+    }
+    assertEquals(base.helpers().size() + 1, count);
+  }
+
+  @Test
+  public void version() {
+    DefaultHelperRegistry base = new DefaultHelperRegistry();
+    ScopedHelperRegistry tenant = new ScopedHelperRegistry(base);
+    long baseVersion = base.version();
+    long tenantVersion = tenant.version();
+
+    tenant.registerHelper("t", new Constant("t"));
+    assertEquals(baseVersion, base.version());
+    assertTrue(tenant.version() > tenantVersion);
+
+    tenantVersion = tenant.version();
+    base.registerHelper("b", new Constant("b"));
+    assertTrue(base.version() > baseVersion);
+    assertTrue(tenant.version() > tenantVersion);
+  }
+
+  @Test
+  public void registerWhileReading() throws Exception {
+    final DefaultHelperRegistry registry = new DefaultHelperRegistry();
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Thread[] writers = new Thread[4];
+    for (int i = 0; i < writers.length; i++) {
+      final int id = i;
+      writers[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int j = 0; j < 250; j++) {
+              registry.registerHelper("h" + id + "_" + j, new Constant("v"));
+              assertSame(EachHelper.INSTANCE, registry.helper(EachHelper.NAME));
+            }
+          } catch (Throwable ex) {
+            failure.compareAndSet(null, ex);
+          }
+        }
+      };
+      writers[i].start();
+    }
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    assertEquals("v", registry.helper("h3_249").apply(null, null));
+    assertEquals(1000 + new DefaultHelperRegistry().helpers().size(), registry.helpers().size());
+  }
+}
@@ -0,0 +1,94 @@
+package com.github.jknack.handlebars.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.ParserFactory;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.io.FileTemplateLoader;
+
+/**
+ * Compile every template under <code>src/test/resources</code> with the ANTLR parser and with
+ * {@link FastParserFactory}, then compare {@link Template#text()} and the rendered output.
+ */
+public class FastParserDiffTest {
+
+  @Test
+  public void templates() throws IOException {
+    List<File> files = new ArrayList<File>();
+    list(new File("src/test/resources"), files);
+    Collections.sort(files);
+    assertTrue("no templates found", files.size() > 0);
+
+    for (File file : files) {
+      String name = file.getName();
+      int dot = name.lastIndexOf('.');
+      String suffix = name.substring(dot);
+      String location = name.substring(0, dot);
+      File basedir = file.getParentFile();
+
+      String expected = render(new HbsParserFactory(), basedir, suffix, location);
+      String actual = render(new FastParserFactory(), basedir, suffix, location);
+      assertEquals(file.getPath(), expected, actual);
+    }
+  }
+
+  /**
+   * Compile and apply a template. Output is: the template's text, then the rendered output (or
+   * the error type).
+   */
+  private String render(final ParserFactory parserFactory, final File basedir,
+      final String suffix, final String location) throws IOException {
+    Handlebars handlebars = new Handlebars(new FileTemplateLoader(basedir, suffix))
+        .with(parserFactory);
+    StringBuilder result = new StringBuilder();
+    Template template;
+    try {
+      template = handlebars.compile(location);
+    } catch (Exception ex) {
+      return result.append("compile error: ").append(ex.getClass().getName()).toString();
+    }
+    result.append(template.text()).append("\n---\n");
+    try {
+      result.append(template.apply(context()));
+    } catch (Exception ex) {
+      result.append("apply error: ").append(ex.getClass().getName());
+    }
+    return result.toString();
+  }
+
+  private Map<String, Object> context() {
+    Map<String, Object> context = new HashMap<String, Object>();
+    context.put("title", "Title");
+    context.put("name", "Name");
+    context.put("value", 7);
+    context.put("list", new String[]{"a", "b" });
+    return context;
+  }
+
+  private static void list(final File dir, final List<File> files) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File file : children) {
+      String name = file.getName();
+      if (file.isDirectory()) {
+        list(file, files);
+      } else if (name.endsWith(".hbs") || name.endsWith(".html") || name.endsWith(".mustache")) {
+        files.add(file);
+      }
+    }
+  }
+}
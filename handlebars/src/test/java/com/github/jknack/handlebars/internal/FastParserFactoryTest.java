@@ -0,0 +1,164 @@
+package com.github.jknack.handlebars.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.HandlebarsException;
+import com.github.jknack.handlebars.MapTemplateLoader;
+import com.github.jknack.handlebars.ParserFactory;
+import com.github.jknack.handlebars.Template;
+
+public class FastParserFactoryTest {
+
+  @Test
+  public void text() throws IOException {
+    same("Hello World!");
+    same("");
+    same(" \t\n\r\n\rtext ~ text~ ~text");
+  }
+
+  @Test
+  public void vars() throws IOException {
+    same("Hello {{name}}! You have {{count}} new messages.");
+    same("{{{a}}} {{&a}} {{a}} {{this}} {{.}} {{..}} {{../name}} {{@index}}");
+    same("{{n.a}} {{n/a}} {{[a]}} {{n.[a]}} {{n/[a]}} {{a.[b c]}} {{this/a}}");
+    same("{{ a }} {{\na\n}}");
+  }
+
+  @Test
+  public void params() throws IOException {
+    same("{{lookup n \"a\"}} {{lookup n 'a'}} {{lookup n a}}");
+    same("{{lookup n (lookup n \"a\")}}");
+    same("{{#each b}}{{lookup ../n \"a\" x=1 y=true z=-2 w=\"q\\\"x\"}}{{/each}}");
+  }
+
+  @Test
+  public void blocks() throws IOException {
+    same("{{#c}}yes{{/c}}{{#d}}no{{/d}}");
+    same("{{#c}}yes{{else}}no{{/c}}{{#d}}yes{{^}}no{{/d}}");
+    same("{{^d}}yes{{/d}}{{^c}}no{{/c}}");
+    same("{{#each list}}{{name}}{{/each}}{{#with n}}{{a}}{{/with}}");
+    same("{{#if c}}{{#each b}}{{@index}}:{{this}} {{/each}}{{else}}empty{{/if}}");
+  }
+
+  @Test
+  public void partials() throws IOException {
+    same("{{> p}} {{>p}} {{> [p]}} {{> p n}} {{> p a=1}} {{> p n a=\"x\"}}");
+    same("{{#each b}}\n  {{> q}}\n{{/each}}");
+  }
+
+  @Test
+  public void comments() throws IOException {
+    same("a{{! comment }}b{{!-- {{a}} --}}c{{!--}}");
+  }
+
+  @Test
+  public void escapes() throws IOException {
+    same("\\{{a}} x\\{{a}}y \\{{{a}}} \\{{a}}text");
+  }
+
+  @Test
+  public void delimiters() throws IOException {
+    same("{{=<% %>=}}<%a%> {{a}} <%={{ }}=%>{{a}}");
+    same("{{=| |=}}|#c||a||/c|");
+    same("{{=<% %>=}}<%! x %>{{a}}");
+  }
+
+  @Test
+  public void standalone() throws IOException {
+    same("  {{#c}}  \n  a\n  {{/c}}\r\n");
+    same("  {{! comment }}\n  {{=<% %>=}}\n  <%a%>\n");
+    same("a\n  {{> q}}\nb\n");
+    same("{{#c}}\n{{a}}\n{{^}}\n{{/c}}\n");
+  }
+
+  @Test
+  public void whiteSpaceControl() throws IOException {
+    same("  {{~a~}}  \n  {{~#c~}}  x  {{~/c~}}  ");
+    same("{{#c~}} a {{else}} b {{~/c}}");
+    same("{{#d~}} a {{^}} b {{~/d}} {{~{a}~}} {{~&a~}} {{~> p~}}");
+    same("a ~b {{a}} c~ d");
+  }
+
+  @Test
+  public void syntaxErrors() throws IOException {
+    fails("{{#c}}");
+    fails("{{a");
+    fails("{{#c}}{{/d}}");
+    fails("{{/c}}");
+    fails("{{else}}");
+    fails("{{!-- x");
+    fails("{{a !}}");
+    fails("{{> /p}}");
+  }
+
+  @Test
+  public void position() throws IOException {
+    Handlebars handlebars = new Handlebars().with(new FastParserFactory());
+    try {
+      handlebars.compileInline("line 1\n{{!-- x\n--}}\n{{#c}}");
+      fail("syntax error expected");
+    } catch (HandlebarsException ex) {
+      assertEquals(4, ex.getError().line);
+    }
+  }
+
+  private void same(final String input) throws IOException {
+    for (boolean prettyPrint : new boolean[]{true, false }) {
+      Template expected = handlebars(new HbsParserFactory(), prettyPrint).compileInline(input);
+      Template template = handlebars(new FastParserFactory(), prettyPrint).compileInline(input);
+
+      assertEquals(input, expected.text(), template.text());
+      assertEquals(input, expected.apply(context()), template.apply(context()));
+    }
+  }
+
+  private void fails(final String input) throws IOException {
+    try {
+      handlebars(new FastParserFactory(), false).compileInline(input);
+      fail("syntax error expected: " + input);
+    } catch (HandlebarsException ex) {
+      // expected
+    }
+  }
+
+  private Handlebars handlebars(final ParserFactory parserFactory,
+      final boolean prettyPrint) {
+    MapTemplateLoader loader = new MapTemplateLoader()
+        .define("p", "[{{a}}]\n")
+        .define("q", "  q\n  {{name}}\n");
+    Handlebars handlebars = new Handlebars(loader).with(parserFactory);
+    handlebars.setPrettyPrint(prettyPrint);
+    return handlebars;
+  }
+
+  private Map<String, Object> context() {
+    Map<String, Object> n = new HashMap<String, Object>();
+    n.put("a", "inner");
+    n.put("p", "p");
+    n.put("name", "nm");
+
+    Map<String, Object> context = new HashMap<String, Object>();
+    context.put("a", "x<y");
+    context.put("b", Arrays.asList("1", "2"));
+    context.put("c", true);
+    context.put("d", false);
+    context.put("n", n);
+    context.put("name", "N");
+    List<Map<String, Object>> list = new ArrayList<Map<String, Object>>();
+    list.add(n);
+    list.add(n);
+    context.put("list", list);
+    return context;
+  }
+}
@@ -0,0 +1,171 @@
+package com.github.jknack.handlebars.internal;
+
+import handlebarsjs.spec.BasicContextTest;
+import handlebarsjs.spec.BlockHelperMissingTest;
+import handlebarsjs.spec.BlockTest;
+import handlebarsjs.spec.HelperHashTest;
+import handlebarsjs.spec.InvertedSectionTest;
+import handlebarsjs.spec.StringLiteralParametersTest;
+import mustache.specs.CommentsTest;
+import mustache.specs.DelimitersTest;
+import mustache.specs.InterpolationTest;
+import mustache.specs.InvertedTest;
+import mustache.specs.LambdasTest;
+import mustache.specs.SectionsTest;
+import mustache.specs.Spec;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.HelperRegistry;
+
+/**
+ * Run the handlebars.js and mustache spec suites with {@link FastParserFactory}.
+ */
+@RunWith(Suite.class)
+@SuiteClasses({
+    FastParserSpecTest.BasicContext.class,
+    FastParserSpecTest.BlockHelperMissing.class,
+    FastParserSpecTest.Block.class,
+    FastParserSpecTest.HelperHash.class,
+    FastParserSpecTest.InvertedSection.class,
+    FastParserSpecTest.Partials.class,
+    FastParserSpecTest.StringLiteralParameters.class,
+    FastParserSpecTest.Comments.class,
+    FastParserSpecTest.Delimiters.class,
+    FastParserSpecTest.Interpolation.class,
+    FastParserSpecTest.Inverted.class,
+    FastParserSpecTest.Lambdas.class,
+    FastParserSpecTest.MustachePartials.class,
+    FastParserSpecTest.Sections.class
+})
+public class FastParserSpecTest {
+
+  public static class BasicContext extends BasicContextTest {
+    @Override
+    protected Handlebars newHandlebars() {
+      return super.newHandlebars().with(new FastParserFactory());
+    }
+  }
+
+  public static class BlockHelperMissing extends BlockHelperMissingTest {
+    @Override
+    protected Handlebars newHandlebars() {
+      return super.newHandlebars().with(new FastParserFactory());
+    }
+  }
+
+  public static class Block extends BlockTest {
+    @Override
+    protected Handlebars newHandlebars() {
+      return super.newHandlebars().with(new FastParserFactory());
+    }
+  }
+
+  public static class HelperHash extends HelperHashTest {
+    @Override
+    protected Handlebars newHandlebars() {
+      return super.newHandlebars().with(new FastParserFactory());
+    }
+  }
+
+  public static class InvertedSection extends InvertedSectionTest {
+    @Override
+    protected Handlebars newHandlebars() {
+      return super.newHandlebars().with(new FastParserFactory());
+    }
+  }
+
+  public static class Partials extends handlebarsjs.spec.PartialsTest {
+    @Override
+    protected Handlebars newHandlebars() {
+      return super.newHandlebars().with(new FastParserFactory());
+    }
+  }
+
+  public static class StringLiteralParameters extends StringLiteralParametersTest {
+    @Override
+    protected Handlebars newHandlebars() {
+      return super.newHandlebars().with(new FastParserFactory());
+    }
+  }
+
+  public static class Comments extends CommentsTest {
+    public Comments(final Spec spec) {
+      super(spec);
+    }
+
+    @Override
+    protected HelperRegistry configure(final Handlebars handlebars) {
+      return super.configure(handlebars.with(new FastParserFactory()));
+    }
+  }
+
+  public static class Delimiters extends DelimitersTest {
+    public Delimiters(final Spec spec) {
+      super(spec);
+    }
+
+    @Override
+    protected HelperRegistry configure(final Handlebars handlebars) {
+      return super.configure(handlebars.with(new FastParserFactory()));
+    }
+  }
+
+  public static class Interpolation extends InterpolationTest {
+    public Interpolation(final Spec spec) {
+      super(spec);
+    }
+
+    @Override
+    protected HelperRegistry configure(final Handlebars handlebars) {
+      return super.configure(handlebars.with(new FastParserFactory()));
+    }
+  }
+
+  public static class Inverted extends InvertedTest {
+    public Inverted(final Spec spec) {
+      super(spec);
+    }
+
+    @Override
+    protected HelperRegistry configure(final Handlebars handlebars) {
+      return super.configure(handlebars.with(new FastParserFactory()));
+    }
+  }
+
+  public static class Lambdas extends LambdasTest {
+    public Lambdas(final Spec spec) {
+      super(spec);
+    }
+
+    @Override
+    protected HelperRegistry configure(final Handlebars handlebars) {
+      return super.configure(handlebars.with(new FastParserFactory()));
+    }
+  }
+
+  public static class MustachePartials extends mustache.specs.PartialsTest {
+    public MustachePartials(final Spec spec) {
+      super(spec);
+    }
+
+    @Override
+    protected HelperRegistry configure(final Handlebars handlebars) {
+      return super.configure(handlebars.with(new FastParserFactory()));
+    }
+  }
+
+  public static class Sections extends SectionsTest {
+    public Sections(final Spec spec) {
+      super(spec);
+    }
+
+    @Override
+    protected HelperRegistry configure(final Handlebars handlebars) {
+      return super.configure(handlebars.with(new FastParserFactory()));
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.github.jknack.handlebars.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.HandlebarsException;
+
+public class HbsParserFactoryTest {
+
+  @Test
+  public void reuse() throws IOException {
+    HbsParserFactory parserFactory = new HbsParserFactory().reuse(true);
+    Handlebars handlebars = new Handlebars().with(parserFactory);
+    handlebars.setPrettyPrint(true);
+
+    assertEquals("<x>", handlebars.compileInline("{{=<% %>=}}<<%this%>>").apply("x"));
+    assertEquals("x\n", handlebars.compileInline("  {{#this}}\n{{.}}\n  {{/this}}\n")
+        .apply("x"));
+    assertEquals("[x]", handlebars.compileInline("[ {{~this~}} ]").apply("x"));
+    assertEquals("{x}", handlebars.compileInline("{<%this%>}", "<%", "%>").apply("x"));
+    assertEquals(4, parserFactory.parseCount());
+    assertEquals(0, parserFactory.fallbackCount());
+  }
+
+  @Test
+  public void reuseAfterError() throws IOException {
+    HbsParserFactory parserFactory = new HbsParserFactory().reuse(true);
+    Handlebars handlebars = new Handlebars().with(parserFactory);
+
+    try {
+      handlebars.compileInline("{{#a}}");
+      fail("syntax error expected");
+    } catch (HandlebarsException ex) {
+      assertEquals(1, ex.getError().line);
+    }
+    assertEquals("x", handlebars.compileInline("{{this}}").apply("x"));
+    assertEquals(2, parserFactory.parseCount());
+    assertEquals(1, parserFactory.fallbackCount());
+  }
+
+  @Test
+  public void prewarm() throws IOException {
+    HbsParserFactory parserFactory = new HbsParserFactory()
+        .prewarm("{{#each items}}{{name}}{{/each}}", "{{#a}}", "{{> p a=1}}");
+
+    assertEquals(0, parserFactory.parseCount());
+    assertEquals("x", new Handlebars().with(parserFactory).compileInline("{{this}}").apply("x"));
+  }
+}
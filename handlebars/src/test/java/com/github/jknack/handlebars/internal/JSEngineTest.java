@@ -0,0 +1,91 @@
+package com.github.jknack.handlebars.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
+
+public class JSEngineTest {
+
+  @Test
+  public void sameTextSameJavaScript() throws Exception {
+    Handlebars handlebars = new Handlebars();
+    String js = handlebars.compileInline("Hi {{var}}!").toJavaScript();
+    assertTrue(js.contains("Hi "));
+    assertEquals(js, handlebars.compileInline("Hi {{var}}!").toJavaScript());
+  }
+
+  @Test
+  public void handlebarsJsVersionsAreIsolated() throws Exception {
+    String v1 = new Handlebars().handlebarsJsFile("/handlebars-v1.3.0.js")
+        .compileInline("Hi {{var}}!").toJavaScript();
+    String v2 = new Handlebars().handlebarsJsFile("/handlebars-v2.0.0.js")
+        .compileInline("Hi {{var}}!").toJavaScript();
+    assertTrue(v1.startsWith("function"));
+    assertTrue(v2.startsWith("{\"compiler\":[6,"));
+  }
+
+  @Test
+  public void concurrentToJavaScript() throws Exception {
+    final Handlebars handlebars = new Handlebars();
+    final int size = 12;
+    final String[] expected = new String[size];
+    for (int i = 0; i < size; i++) {
+      expected[i] = handlebars.compileInline("{{#each list}}" + i + "{{this}}{{/each}}")
+          .toJavaScript();
+    }
+    final List<Throwable> errors = new ArrayList<Throwable>();
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < size; t++) {
+      final int i = t;
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          try {
+            // new text per thread, so precompilation hits the engine pool
+            Template template = handlebars.compileInline("{{#each list}}" + i
+                + "{{this}}{{/each}}{{!thread-" + i + "}}");
+            String js = template.toJavaScript();
+            assertTrue(js.contains("\"" + i + "\""));
+            assertEquals(expected[i].length(), js.length());
+          } catch (Throwable ex) {
+            synchronized (errors) {
+              errors.add(ex);
+            }
+          }
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(new ArrayList<Throwable>(), errors);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void badPoolSize() {
+    JSEngine.getInstance().setPoolSize(0);
+  }
+
+  @Test
+  public void ownPool() throws Exception {
+    Handlebars handlebars = new Handlebars();
+    JSEngine.Pool pool = new JSEngine.Pool(1);
+    assertEquals(handlebars.compileInline("Hi {{pool}}!").toJavaScript(),
+        pool.toJavaScript(handlebars.handlebarsJsFile(), "Hi {{pool}}!"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void badOwnPoolSize() {
+    new JSEngine.Pool(0);
+  }
+}
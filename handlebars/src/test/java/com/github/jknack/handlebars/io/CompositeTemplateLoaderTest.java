@@ -19,15 +19,20 @@ package com.github.jknack.handlebars.io;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 import org.junit.Test;
 
 import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.MapTemplateLoader;
 
 /**
  * Unit test for {@link CompositeTemplateLoader}.
@@ -102,4 +107,151 @@ public class CompositeTemplateLoaderTest {
     assertTrue(iterator.next() instanceof ClassPathTemplateLoader);
     assertTrue(iterator.next() instanceof FileTemplateLoader);
   }
+
+  @Test
+  public void lookup() throws IOException {
+    assertNotNull(loader.lookup("template"));
+    assertNotNull(loader.lookup("home"));
+    assertNull(loader.lookup("missing"));
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void sourceAtMissing() throws IOException {
+    loader.sourceAt("missing");
+  }
+
+  @Test
+  public void rememberLoader() throws IOException {
+    CountingLoader first = new CountingLoader();
+    CountingLoader second = new CountingLoader();
+    second.define("b", "b");
+    CompositeTemplateLoader loader = new CompositeTemplateLoader(first, second);
+
+    assertEquals("b", loader.sourceAt("b").content());
+    assertEquals("b", loader.sourceAt("b").content());
+    assertEquals("/b.hbs", loader.resolve("b"));
+    assertEquals(1, first.lookups);
+    assertEquals(2, second.lookups);
+
+    // removed template
+    second.remove("b");
+    first.define("b", "first");
+    assertEquals("first", loader.sourceAt("b").content());
+  }
+
+  @Test
+  public void rememberMissing() throws IOException {
+    CountingLoader first = new CountingLoader();
+    CountingLoader second = new CountingLoader();
+    CompositeTemplateLoader loader = new CompositeTemplateLoader(first, second);
+    loader.setCacheMisses(true);
+
+    assertNull(loader.lookup("c"));
+    assertNull(loader.lookup("c"));
+    assertEquals(1, first.lookups);
+    assertEquals(1, second.lookups);
+
+    second.define("c", "c");
+    assertNull(loader.lookup("c"));
+    loader.evict("c");
+    assertEquals("c", loader.lookup("c").content());
+
+    second.remove("c");
+    loader.clear();
+    loader.setCacheMisses(false);
+    assertNull(loader.lookup("c"));
+    second.define("c", "c");
+    assertEquals("c", loader.lookup("c").content());
+  }
+
+  @Test
+  public void missesAreNotRememberedByDefault() throws IOException {
+    CountingLoader first = new CountingLoader();
+    CountingLoader second = new CountingLoader();
+    CompositeTemplateLoader loader = new CompositeTemplateLoader(first, second);
+
+    assertNull(loader.lookup("d"));
+    second.define("d", "d");
+    assertEquals("d", loader.lookup("d").content());
+  }
+
+  @Test
+  public void customSourceAt() throws IOException {
+    // MapTemplateLoader overrides sourceAt, it must be used by lookup too
+    MapTemplateLoader map = new MapTemplateLoader();
+    map.define("e", "e");
+    assertEquals("e", map.lookup("e").content());
+    assertNull(map.lookup("missing"));
+
+    CompositeTemplateLoader loader = new CompositeTemplateLoader(new ClassPathTemplateLoader(),
+        map);
+    assertEquals("e", loader.sourceAt("e").content());
+    assertEquals("/e.hbs", loader.resolve("e"));
+  }
+
+  @Test
+  public void loaderWithoutLookup() throws IOException {
+    final MapTemplateLoader map = new MapTemplateLoader();
+    map.define("f", "f");
+    TemplateLoader plain = new TemplateLoader() {
+      @Override
+      public TemplateSource sourceAt(final String location) throws IOException {
+        return map.sourceAt(location);
+      }
+
+      @Override
+      public String resolve(final String location) {
+        return map.resolve(location);
+      }
+
+      @Override
+      public String getPrefix() {
+        return map.getPrefix();
+      }
+
+      @Override
+      public String getSuffix() {
+        return map.getSuffix();
+      }
+
+      @Override
+      public void setPrefix(final String prefix) {
+        map.setPrefix(prefix);
+      }
+
+      @Override
+      public void setSuffix(final String suffix) {
+        map.setSuffix(suffix);
+      }
+    };
+    CompositeTemplateLoader loader = new CompositeTemplateLoader(new ClassPathTemplateLoader(),
+        plain);
+    assertEquals("f", loader.sourceAt("f").content());
+    assertNull(loader.lookup("missing"));
+  }
+
+  private static class CountingLoader extends MapTemplateLoader {
+    private int lookups;
+
+    private Map<String, String> templates;
+
+    public CountingLoader() {
+      this(new HashMap<String, String>());
+    }
+
+    private CountingLoader(final Map<String, String> templates) {
+      super(templates);
+      this.templates = templates;
+    }
+
+    public void remove(final String name) {
+      templates.remove(resolve(name));
+    }
+
+    @Override
+    public TemplateSource lookup(final String uri) throws IOException {
+      lookups++;
+      return super.lookup(uri);
+    }
+  }
 }
@@ -0,0 +1,80 @@
+package com.github.jknack.handlebars.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileTemplateSourceTest {
+
+  private File file;
+
+  @Before
+  public void setup() throws IOException {
+    file = File.createTempFile("hbs", ".hbs");
+  }
+
+  @After
+  public void cleanup() {
+    file.delete();
+  }
+
+  @Test
+  public void content() throws IOException {
+    FileUtils.writeStringToFile(file, "Hello {{this}} ñ!", "UTF-8");
+    FileTemplateSource source = new FileTemplateSource("hello.hbs", file);
+    assertEquals("hello.hbs", source.filename());
+    assertEquals(file.lastModified(), source.lastModified());
+    assertEquals("Hello {{this}} ñ!", source.content());
+  }
+
+  @Test
+  public void contentIsCached() throws IOException {
+    FileUtils.writeStringToFile(file, "Hello", "UTF-8");
+    FileTemplateSource source = new FileTemplateSource("hello.hbs", file);
+    assertSame(source.content(), source.content());
+  }
+
+  @Test
+  public void reloadOnChange() throws IOException {
+    FileUtils.writeStringToFile(file, "Hello", "UTF-8");
+    long lastModified = file.lastModified();
+    FileTemplateSource source = new FileTemplateSource("hello.hbs", file);
+    assertEquals("Hello", source.content());
+
+    FileUtils.writeStringToFile(file, "Bye!", "UTF-8");
+    file.setLastModified(lastModified + 2000);
+    assertEquals("Bye!", source.content());
+  }
+
+  @Test
+  public void lastModifiedIsReadOnCreation() throws IOException {
+    FileUtils.writeStringToFile(file, "Hello", "UTF-8");
+    long lastModified = file.lastModified();
+    FileTemplateSource source = new FileTemplateSource("hello.hbs", file);
+
+    file.setLastModified(lastModified + 2000);
+    assertEquals(lastModified, source.lastModified());
+  }
+
+  @Test
+  public void largeFile() throws IOException {
+    String content = StringUtils.repeat("{{this}}ñ\n", 64 * 1024);
+    FileUtils.writeStringToFile(file, content, "UTF-8");
+    assertEquals(content, new FileTemplateSource("large.hbs", file).content());
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void fileNotFound() throws IOException {
+    file.delete();
+    new FileTemplateSource("missing.hbs", file).content();
+  }
+}
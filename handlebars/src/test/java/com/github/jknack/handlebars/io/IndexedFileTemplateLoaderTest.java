@@ -0,0 +1,147 @@
+package com.github.jknack.handlebars.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.cache.BoundedTemplateCache;
+
+public class IndexedFileTemplateLoaderTest {
+
+  private File basedir;
+
+  @Before
+  public void setup() throws IOException {
+    basedir = File.createTempFile("hbs", "index");
+    basedir.delete();
+    basedir.mkdirs();
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    FileUtils.deleteDirectory(basedir);
+  }
+
+  @Test
+  public void sourceAt() throws IOException {
+    write("a.hbs", "a");
+    TemplateLoader loader = new IndexedFileTemplateLoader(basedir);
+    TemplateSource source = loader.sourceAt("a");
+    assertEquals(loader.resolve("a"), source.filename());
+    assertEquals("a", source.content());
+    assertSame(source, loader.sourceAt("/a"));
+  }
+
+  @Test
+  public void reloadOnChange() throws IOException {
+    File file = write("a.hbs", "a");
+    TemplateLoader loader = new IndexedFileTemplateLoader(basedir);
+    TemplateSource source = loader.sourceAt("a");
+
+    write("a.hbs", "b");
+    file.setLastModified(source.lastModified() + 2000);
+    TemplateSource reloaded = loader.sourceAt("a");
+    assertNotSame(source, reloaded);
+    assertEquals("b", reloaded.content());
+  }
+
+  @Test
+  public void editAfterFirstCompile() throws IOException {
+    File file = write("a.hbs", "a {{this}}");
+    long lastModified = file.lastModified();
+    Handlebars handlebars = new Handlebars(new IndexedFileTemplateLoader(basedir))
+        .with(new BoundedTemplateCache());
+    assertEquals("a x", handlebars.compile("a").apply("x"));
+
+    write("a.hbs", "b {{this}}");
+    file.setLastModified(lastModified + 2000);
+    assertEquals("b x", handlebars.compile("a").apply("x"));
+  }
+
+  @Test
+  public void newFile() throws IOException {
+    TemplateLoader loader = new IndexedFileTemplateLoader(basedir);
+    try {
+      loader.sourceAt("a");
+    } catch (FileNotFoundException ex) {
+      write("a.hbs", "a");
+    }
+    assertEquals("a", loader.sourceAt("a").content());
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void deletedFile() throws IOException {
+    File file = write("a.hbs", "a");
+    TemplateLoader loader = new IndexedFileTemplateLoader(basedir);
+    loader.sourceAt("a");
+    file.delete();
+    loader.sourceAt("a");
+  }
+
+  @Test
+  public void partials() throws IOException {
+    write("partials/p.hbs", "{{this}}");
+    write("main.hbs", "[{{> partials/p}}]");
+    Handlebars handlebars = new Handlebars(new IndexedFileTemplateLoader(basedir));
+    assertEquals("[x]", handlebars.compile("main").apply("x"));
+  }
+
+  @Test
+  public void watchedUsesDirectoryListing() throws IOException {
+    write("a.hbs", "a");
+    write("sub/b.hbs", "b");
+    write("c.txt", "c");
+    IndexedFileTemplateLoader loader = new IndexedFileTemplateLoader(basedir);
+    loader.setWatched(true);
+    assertEquals("a", loader.lookup("a").content());
+    assertEquals("b", loader.lookup("sub/b").content());
+    assertNull(loader.lookup("c"));
+
+    // not reported yet
+    File d = write("d.hbs", "d");
+    assertNull(loader.lookup("d"));
+    loader.changed(d);
+    assertEquals("d", loader.lookup("d").content());
+
+    new File(basedir, "a.hbs").delete();
+    loader.changed(new File(basedir, "a.hbs"));
+    assertNull(loader.lookup("a"));
+
+    FileUtils.deleteDirectory(new File(basedir, "sub"));
+    loader.changed(new File(basedir, "sub"));
+    assertNull(loader.lookup("sub/b"));
+
+    write("sub/e.hbs", "e");
+    loader.changed(new File(basedir, "sub"));
+    assertEquals("e", loader.lookup("sub/e").content());
+
+    // outside of the base directory
+    loader.changed(new File(basedir.getParentFile(), "x.hbs"));
+  }
+
+  @Test
+  public void charset() throws IOException {
+    FileUtils.writeStringToFile(new File(basedir, "a.hbs"), "p\u00e1gina", "ISO-8859-1");
+    TemplateLoader loader = new IndexedFileTemplateLoader(basedir, ".hbs",
+        Charset.forName("ISO-8859-1"));
+    assertEquals("p\u00e1gina", loader.sourceAt("a").content());
+  }
+
+  private File write(final String name, final String content) throws IOException {
+    File file = new File(basedir, name);
+    FileUtils.writeStringToFile(file, content, "UTF-8");
+    return file;
+  }
+}
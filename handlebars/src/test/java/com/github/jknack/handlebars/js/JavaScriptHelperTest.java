@@ -3,6 +3,9 @@ package com.github.jknack.handlebars.js;
 import static org.junit.Assert.assertEquals;
 
 import java.io.File;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -11,7 +14,9 @@ import com.github.jknack.handlebars.AbstractTest;
 import com.github.jknack.handlebars.Context;
 import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.ValueResolver;
 import com.github.jknack.handlebars.context.FieldValueResolver;
+import com.github.jknack.handlebars.context.MapValueResolver;
 
 public class JavaScriptHelperTest extends AbstractTest {
 
@@ -183,6 +188,40 @@ public class JavaScriptHelperTest extends AbstractTest {
         "<p>Nobody&#x27;s here</p>");
   }
 
+  @Test
+  public void contextPropertiesAreListedOnFirstAccess() throws Exception {
+    final AtomicInteger propertySets = new AtomicInteger();
+    ValueResolver counting = new ValueResolver() {
+      @Override
+      public Object resolve(final Object context, final String name) {
+        return MapValueResolver.INSTANCE.resolve(context, name);
+      }
+
+      @Override
+      public Object resolve(final Object context) {
+        return MapValueResolver.INSTANCE.resolve(context);
+      }
+
+      @Override
+      public Set<Entry<String, Object>> propertySet(final Object context) {
+        propertySets.incrementAndGet();
+        return MapValueResolver.INSTANCE.propertySet(context);
+      }
+    };
+
+    // helper doesn't use this
+    eval("{{hash this h1=1 h2='2' h3=true}}",
+        Context.newBuilder($("name", "moe")).resolver(counting).build(), "1, 2, true");
+    eval("{{params this 1 2 3}}",
+        Context.newBuilder($("name", "moe")).resolver(counting).build(), "1, 2, 3");
+    assertEquals(0, propertySets.get());
+
+    // helper uses this
+    eval("{{thisContext}}",
+        Context.newBuilder($("name", "larry")).resolver(counting).build(), "larry");
+    assertEquals(1, propertySets.get());
+  }
+
   public static void eval(final String template, final Context context, final String expected)
       throws Exception {
     Template t = handlebars.compileInline(template);